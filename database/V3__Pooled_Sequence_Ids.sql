@@ -0,0 +1,9 @@
+-- Flyway Migration: V3__Pooled_Sequence_Ids
+-- Description: Hibernate now takes ids for the high-volume tables from their sequences in
+-- blocks of 50 (pooled-lo optimizer), which lets it batch inserts. The sequences must step
+-- by the same amount. Column defaults still call nextval, so plain SQL inserts keep working.
+
+ALTER SEQUENCE IF EXISTS public.cart_products_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS public.orders_order_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS public.images_image_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS public.admin_activities_activity_id_seq INCREMENT BY 50;
@@ -0,0 +1,13 @@
+-- Flyway Migration: V4__Rate_Limit_Counters
+-- Description: Shared rate-limit counters for app.rate-limit.backend=jdbc. One row per client,
+-- route and fixed window; replicas add their locally aggregated hits in periodic batches.
+-- UNLOGGED: the counters are short-lived and not worth WAL traffic or crash recovery.
+
+CREATE UNLOGGED TABLE IF NOT EXISTS public.rate_limit_counters
+(
+    counter_key VARCHAR(512) PRIMARY KEY,
+    hits BIGINT NOT NULL DEFAULT 0,
+    expires_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_rate_limit_counters_expires_at ON public.rate_limit_counters(expires_at);
@@ -0,0 +1,62 @@
+-- Flyway Migration: V5__Partition_Admin_Activities
+-- Description: admin_activities becomes a table range-partitioned by month on created_at, so
+-- time-bounded queries only touch the months they ask for and old months can be detached.
+-- Partitions for the existing history and the next three months are created here; from then
+-- on the application's AdminActivityPartitionManager keeps partitions created ahead of time
+-- and detaches the ones past retention. Rows outside every partition land in the default one.
+
+ALTER TABLE public.admin_activities RENAME TO admin_activities_unpartitioned;
+ALTER TABLE public.admin_activities_unpartitioned RENAME CONSTRAINT admin_activities_pkey TO admin_activities_unpartitioned_pkey;
+-- Keep the id sequence when the old table is dropped below
+ALTER SEQUENCE public.admin_activities_activity_id_seq OWNED BY NONE;
+
+-- The partition key has to be part of the primary key
+CREATE TABLE public.admin_activities
+(
+    activity_id BIGINT NOT NULL DEFAULT nextval('public.admin_activities_activity_id_seq'),
+    admin_email VARCHAR(255) NOT NULL,
+    action_type VARCHAR(50) NOT NULL,
+    entity_type VARCHAR(50) NOT NULL,
+    entity_id BIGINT,
+    description TEXT,
+    ip_address VARCHAR(45),
+    user_agent VARCHAR(500),
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT admin_activities_pkey PRIMARY KEY (activity_id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE public.admin_activities_default PARTITION OF public.admin_activities DEFAULT;
+
+-- Plain CREATE TABLE: a leftover table with a partition's name must fail the migration, not be skipped
+DO $$
+DECLARE
+    month_start DATE;
+    last_month DATE := (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::DATE;
+BEGIN
+    SELECT COALESCE(date_trunc('month', MIN(created_at)), date_trunc('month', CURRENT_DATE))::DATE
+    INTO month_start
+    FROM public.admin_activities_unpartitioned;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE public.%I PARTITION OF public.admin_activities FOR VALUES FROM (%L) TO (%L)',
+            'admin_activities_y' || to_char(month_start, 'YYYY') || 'm' || to_char(month_start, 'MM'),
+            month_start,
+            (month_start + INTERVAL '1 month')::DATE);
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+
+INSERT INTO public.admin_activities
+    (activity_id, admin_email, action_type, entity_type, entity_id, description, ip_address, user_agent, created_at)
+SELECT activity_id, admin_email, action_type, entity_type, entity_id, description, ip_address, user_agent,
+       COALESCE(created_at, CURRENT_TIMESTAMP)
+FROM public.admin_activities_unpartitioned;
+
+DROP TABLE public.admin_activities_unpartitioned;
+
+-- Created on the parent, so every partition (including future ones) gets them
+CREATE INDEX IF NOT EXISTS idx_admin_activities_created_at ON public.admin_activities(created_at);
+CREATE INDEX IF NOT EXISTS idx_admin_activities_admin_email ON public.admin_activities(admin_email, created_at);
+CREATE INDEX IF NOT EXISTS idx_admin_activities_entity_type ON public.admin_activities(entity_type, created_at);
+CREATE INDEX IF NOT EXISTS idx_admin_activities_action_type ON public.admin_activities(action_type, created_at);
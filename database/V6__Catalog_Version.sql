@@ -0,0 +1,11 @@
+-- Flyway Migration: V6__Catalog_Version
+-- Description: Shared catalog version. Each replica bumps it after a catalog write and polls it,
+-- so writes made on one node invalidate the catalog caches and indexes of the others.
+
+CREATE TABLE IF NOT EXISTS public.catalog_version
+(
+    id INTEGER PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO public.catalog_version (id, version) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
@@ -40,7 +40,7 @@ public class CorsConfig {
         config.setAllowedOrigins(origins);
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         config.setAllowedHeaders(List.of("*"));
-        config.setExposedHeaders(List.of("X-Trace-Id"));
+        config.setExposedHeaders(List.of("X-Trace-Id", "ETag"));
         config.setAllowCredentials(allowCredentials);
         config.setMaxAge(3600L); // 1 hour
 
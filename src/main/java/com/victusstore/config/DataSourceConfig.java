@@ -44,7 +44,11 @@ public class DataSourceConfig {
         dataSource.setConnectionTimeout(connectionTimeout);
         dataSource.setMaximumPoolSize(maximumPoolSize);
         dataSource.setMinimumIdle(minimumIdle);
-        
+        if (datasourceUrl.startsWith("jdbc:postgresql:")) {
+            // Let the driver send a JDBC insert batch as multi-row INSERT statements
+            dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+        }
+
         return dataSource;
     }
 }
@@ -0,0 +1,48 @@
+package com.victusstore.config;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-local {@link RateLimitStore} for tests and single-node runs. Several
+ * limiters sharing one instance behave like replicas sharing the database.
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private record Entry(long hits, long expiresAtMs) {
+    }
+
+    private final Map<String, Entry> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public Map<String, Long> addAndGet(List<CounterDelta> deltas) {
+        Map<String, Long> totals = new HashMap<>();
+        for (CounterDelta delta : deltas) {
+            Entry entry = counters.merge(delta.counterKey(),
+                    new Entry(delta.delta(), delta.expiresAtMs()),
+                    (existing, added) -> new Entry(existing.hits() + added.hits(), existing.expiresAtMs()));
+            totals.put(delta.counterKey(), entry.hits());
+        }
+        return totals;
+    }
+
+    @Override
+    public Map<String, Long> read(Collection<String> counterKeys) {
+        Map<String, Long> totals = new HashMap<>();
+        for (String counterKey : counterKeys) {
+            Entry entry = counters.get(counterKey);
+            if (entry != null) {
+                totals.put(counterKey, entry.hits());
+            }
+        }
+        return totals;
+    }
+
+    @Override
+    public void purgeExpired(long nowMs) {
+        counters.values().removeIf(entry -> entry.expiresAtMs() < nowMs);
+    }
+}
@@ -0,0 +1,95 @@
+package com.victusstore.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link RateLimitStore} on the rate_limit_counters table (see V4 migration).
+ * Each sync is a single upsert over arrays of keys and deltas, so one round
+ * trip covers every key a replica touched since the last sync, plus one plain
+ * read for the counters it only needs to refresh. Upserts take their row locks
+ * in key order, so concurrent syncs from different replicas cannot deadlock.
+ */
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO rate_limit_counters (counter_key, hits, expires_at) "
+            + "SELECT * FROM unnest(?::varchar[], ?::bigint[], ?::timestamp[]) "
+            + "ON CONFLICT (counter_key) DO UPDATE SET hits = rate_limit_counters.hits + EXCLUDED.hits "
+            + "RETURNING counter_key, hits";
+
+    private static final String READ_SQL =
+            "SELECT counter_key, hits FROM rate_limit_counters WHERE counter_key = ANY(?::varchar[])";
+
+    private static final String PURGE_SQL = "DELETE FROM rate_limit_counters WHERE expires_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Map<String, Long> addAndGet(List<CounterDelta> deltas) {
+        Map<String, Long> totals = new HashMap<>();
+        if (deltas.isEmpty()) {
+            return totals;
+        }
+        List<CounterDelta> sorted = new ArrayList<>(deltas);
+        sorted.sort(Comparator.comparing(CounterDelta::counterKey));
+        String[] keys = new String[sorted.size()];
+        Long[] hits = new Long[sorted.size()];
+        Timestamp[] expiries = new Timestamp[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            CounterDelta delta = sorted.get(i);
+            keys[i] = delta.counterKey();
+            hits[i] = delta.delta();
+            expiries[i] = new Timestamp(delta.expiresAtMs());
+        }
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPSERT_SQL);
+            Array keyArray = connection.createArrayOf("varchar", keys);
+            Array hitArray = connection.createArrayOf("bigint", hits);
+            Array expiryArray = connection.createArrayOf("timestamp", expiries);
+            statement.setArray(1, keyArray);
+            statement.setArray(2, hitArray);
+            statement.setArray(3, expiryArray);
+            return statement;
+        }, rs -> {
+            totals.put(rs.getString(1), rs.getLong(2));
+        });
+        return totals;
+    }
+
+    @Override
+    public Map<String, Long> read(Collection<String> counterKeys) {
+        Map<String, Long> totals = new HashMap<>();
+        if (counterKeys.isEmpty()) {
+            return totals;
+        }
+        String[] keys = counterKeys.toArray(new String[0]);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(READ_SQL);
+            statement.setArray(1, connection.createArrayOf("varchar", keys));
+            return statement;
+        }, rs -> {
+            totals.put(rs.getString(1), rs.getLong(2));
+        });
+        return totals;
+    }
+
+    @Override
+    public void purgeExpired(long nowMs) {
+        jdbcTemplate.update(PURGE_SQL, new Timestamp(nowMs));
+    }
+}
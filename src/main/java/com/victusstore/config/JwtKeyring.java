@@ -0,0 +1,135 @@
+package com.victusstore.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.jsonwebtoken.security.WeakKeyException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HMAC keys for signing and verifying JWTs, loaded once at startup.
+ *
+ * Keys come from {@code app.jwt.keys} as {@code kid:secret} pairs. New tokens
+ * are signed with {@code app.jwt.active-kid} and carry it in their {@code kid}
+ * header; verification looks the key up by that header. To rotate without
+ * downtime, add the new key to every node first, then switch the active kid,
+ * and drop the old key once the tokens it signed have expired.
+ *
+ * A plain {@code app.jwt.secret} is still accepted as the key with kid
+ * {@value #LEGACY_KID}; it also verifies tokens issued before kid headers were
+ * added. With no keys configured at all a random development key is generated
+ * once, so tokens stay valid for the life of the process but not across nodes
+ * or restarts.
+ */
+@Component
+public class JwtKeyring {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyring.class);
+
+    public static final String LEGACY_KID = "default";
+
+    @Value("${app.jwt.keys:}")
+    private String configuredKeys;
+
+    @Value("${app.jwt.active-kid:}")
+    private String configuredActiveKid;
+
+    @Value("${app.jwt.secret:}")
+    private String legacySecret;
+
+    private Map<String, Key> keys;
+    private String activeKid;
+
+    @PostConstruct
+    public void load() {
+        Map<String, Key> loaded = new HashMap<>();
+        if (configuredKeys != null && !configuredKeys.isBlank()) {
+            for (String entry : configuredKeys.split(",")) {
+                String trimmed = entry.trim();
+                int separator = trimmed.indexOf(':');
+                if (separator <= 0 || separator == trimmed.length() - 1) {
+                    throw new IllegalStateException("app.jwt.keys entries must look like kid:secret");
+                }
+                String kid = trimmed.substring(0, separator);
+                if (loaded.put(kid, toKey(kid, trimmed.substring(separator + 1))) != null) {
+                    throw new IllegalStateException("Duplicate JWT key id: " + kid);
+                }
+            }
+        }
+        if (legacySecret != null && !legacySecret.isBlank()) {
+            loaded.putIfAbsent(LEGACY_KID, toKey(LEGACY_KID, legacySecret));
+        }
+        if (loaded.isEmpty()) {
+            // For production, this should never happen - always set APP_JWT_KEYS or APP_JWT_SECRET
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            loaded.put(LEGACY_KID, Keys.hmacShaKeyFor(secret));
+            logger.warn("JWT keys not configured, using a random development key. Set APP_JWT_KEYS or APP_JWT_SECRET for production.");
+        }
+
+        String active = configuredActiveKid != null && !configuredActiveKid.isBlank()
+                ? configuredActiveKid.trim()
+                : (loaded.size() == 1 ? loaded.keySet().iterator().next() : null);
+        if (active == null || !loaded.containsKey(active)) {
+            throw new IllegalStateException("app.jwt.active-kid must name one of the configured JWT keys " + loaded.keySet());
+        }
+
+        keys = Collections.unmodifiableMap(loaded);
+        activeKid = active;
+        logger.info("JWT keyring loaded: {} key(s), active kid '{}'", keys.size(), activeKid);
+    }
+
+    public String activeKid() {
+        return activeKid;
+    }
+
+    public Key activeKey() {
+        return keys.get(activeKid);
+    }
+
+    /**
+     * The key for {@code kid}, or null if the keyring does not hold it.
+     * Tokens without a kid were signed with the legacy secret.
+     */
+    public Key keyFor(String kid) {
+        return keys.get(kid != null ? kid : LEGACY_KID);
+    }
+
+    /**
+     * Resolver for the JWT parser: picks the verification key by the token's kid header.
+     */
+    public SigningKeyResolverAdapter resolver() {
+        return new SigningKeyResolverAdapter() {
+            @Override
+            @SuppressWarnings("rawtypes") // the jjwt 0.11 adapter declares a raw JwsHeader
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                Key key = keyFor(header.getKeyId());
+                if (key == null) {
+                    throw new SignatureException("Unknown JWT key id: " + header.getKeyId());
+                }
+                return key;
+            }
+        };
+    }
+
+    private static Key toKey(String kid, String secret) {
+        try {
+            return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (WeakKeyException e) {
+            throw new IllegalStateException("JWT key '" + kid + "' must be at least 32 bytes", e);
+        }
+    }
+}
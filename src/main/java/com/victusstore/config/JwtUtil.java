@@ -1,44 +1,80 @@
 package com.victusstore.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
-import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
-    private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
-
     // 15 minutes in milliseconds
     private static final int ACCESS_TOKEN_EXPIRATION = 900000;
     // 7 days in milliseconds
     private static final int REFRESH_TOKEN_EXPIRATION = 604800000;
+    // A full verification cache is swept for expired tokens at most this often
+    private static final long SWEEP_INTERVAL_MS = 1000;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    @Autowired
+    private JwtKeyring keyring;
+
+    @Value("${app.jwt.verification-cache.max-entries:10000}")
+    private int verificationCacheSize;
+
+    // Built once; the keyring resolves each token's key by its kid header
+    private JwtParser parser;
+
+    // SHA-256 of a verified token -> its claims, until the token expires; lookups take no lock
+    private final Map<String, TokenClaims> verified = new ConcurrentHashMap<>();
 
-    @Value("${app.jwt.secret:}")
-    private String secretKey;
-
-    private Key getSigningKey() {
-        String secret = secretKey;
-        if (secret == null || secret.trim().isEmpty()) {
-            // For production, this should never happen - always set APP_JWT_SECRET
-            // For development, generate a secure default
-            secret = "dev-secret-key-change-in-production-" + 
-                    java.util.UUID.randomUUID().toString().replace("-", "");
-            logger.warn("JWT secret not configured, using development default. Set APP_JWT_SECRET environment variable for production.");
+    // Earliest time the next sweep may run, so a cache full of live tokens is not rescanned on every miss
+    private final AtomicLong nextSweepAt = new AtomicLong();
+
+    /**
+     * The claims the application uses, read from one signature-verified parse.
+     *
+     * @param type "refresh" for refresh tokens, null for access tokens
+     */
+    public record TokenClaims(String email, String role, String type, Date expiration) {
+
+        public boolean isExpired() {
+            return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+        }
+
+        public boolean isRefreshToken() {
+            return "refresh".equals(type);
         }
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @PostConstruct
+    public void init() {
+        parser = Jwts.parserBuilder().setSigningKeyResolver(keyring.resolver()).build();
     }
 
     public String generateAccessToken(String email, String role) {
@@ -65,20 +101,74 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setHeaderParam(JwsHeader.KEY_ID, keyring.activeKid())
+                .signWith(keyring.activeKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verified claims of {@code token}, served from the verification cache when
+     * the same token was verified before. Each distinct token has its signature
+     * checked once; after that a request costs one hash and one lock-free map
+     * lookup. The cache holds at most {@code app.jwt.verification-cache.max-entries}
+     * tokens: when full, expired ones are swept out, and if none have expired
+     * new tokens are verified without being cached.
+     *
+     * @throws JwtException if the token is malformed, badly signed or expired
+     */
+    public TokenClaims verify(String token) {
+        String cacheKey = hash(token);
+        TokenClaims claims = verified.get(cacheKey);
+        if (claims != null) {
+            if (!claims.isExpired()) {
+                return claims;
+            }
+            verified.remove(cacheKey, claims);
+            throw new ExpiredJwtException(null, null, "JWT expired at " + claims.expiration());
+        }
+
+        claims = parse(token);
+        if (verified.size() < verificationCacheSize || sweepExpired()) {
+            verified.put(cacheKey, claims);
+        }
+        return claims;
+    }
+
+    // Drops expired tokens, at most once per interval; returns whether there is room afterwards
+    private boolean sweepExpired() {
+        long now = System.currentTimeMillis();
+        long next = nextSweepAt.get();
+        if (now >= next && nextSweepAt.compareAndSet(next, now + SWEEP_INTERVAL_MS)) {
+            verified.values().removeIf(TokenClaims::isExpired);
+        }
+        return verified.size() < verificationCacheSize;
+    }
+
+    /**
+     * Parse and verify {@code token} once, bypassing the cache.
+     *
+     * @throws JwtException if the token is malformed, badly signed or expired
+     */
+    public TokenClaims parse(String token) {
+        Claims claims = extractAllClaims(token);
+        String role = claims.get("role", String.class);
+        return new TokenClaims(
+                claims.getSubject(),
+                role != null ? role : "CUSTOMER",
+                claims.get("type", String.class),
+                claims.getExpiration());
+    }
+
     public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parse(token).email();
     }
 
     public Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parse(token).isExpired();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return parse(token).expiration();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -87,16 +177,12 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public Boolean validateToken(String token, String email) {
-        final String extractedEmail = extractEmail(token);
-        return (extractedEmail.equals(email) && !isTokenExpired(token));
+        TokenClaims claims = parse(token);
+        return (claims.email().equals(email) && !claims.isExpired());
     }
 
     public Boolean extractIsSeller(String token) {
@@ -105,13 +191,15 @@ public class JwtUtil {
     }
 
     public String extractRole(String token) {
-        return extractClaim(token, claims -> {
-            String role = claims.get("role", String.class);
-            return role != null ? role : "CUSTOMER";
-        });
+        return parse(token).role();
     }
 
     public boolean isRefreshToken(String token) {
-        return "refresh".equals(extractClaim(token, claims -> claims.get("type", String.class)));
+        return parse(token).isRefreshToken();
+    }
+
+    private static String hash(String token) {
+        MessageDigest digest = SHA256.get();
+        return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
     }
 }
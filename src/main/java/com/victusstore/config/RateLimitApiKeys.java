@@ -0,0 +1,51 @@
+package com.victusstore.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API keys from {@code app.rate-limit.api-keys} that API_KEY rules may key on.
+ *
+ * A header value that is not one of these keys is just a string the client
+ * chose, and keying on it would hand out a fresh bucket per request, so such
+ * requests are limited by IP instead. Keys are held and reported only as
+ * SHA-256 fingerprints, never in the clear.
+ */
+public class RateLimitApiKeys {
+
+    private final Map<String, String> clientsByDigest = new HashMap<>();
+
+    public RateLimitApiKeys(List<String> apiKeys) {
+        for (String apiKey : apiKeys) {
+            if (apiKey == null || apiKey.isBlank()) {
+                continue;
+            }
+            String digest = digest(apiKey.trim());
+            clientsByDigest.put(digest, "api-key:" + digest.substring(0, 16));
+        }
+    }
+
+    /**
+     * The limiter client id for a presented key, or null if the key is not configured.
+     */
+    public String clientFor(String presentedKey) {
+        if (presentedKey == null || presentedKey.isBlank() || clientsByDigest.isEmpty()) {
+            return null;
+        }
+        return clientsByDigest.get(digest(presentedKey.trim()));
+    }
+
+    private static String digest(String apiKey) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(apiKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
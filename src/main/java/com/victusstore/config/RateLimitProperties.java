@@ -0,0 +1,56 @@
+package com.victusstore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Route rate-limit rules from {@code app.rate-limit.rules[n].*}, compiled at
+ * startup into a {@link RateLimitRuleMatcher}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private List<Rule> rules = new ArrayList<>();
+
+    /** Keys issued to API clients; only these are used by API_KEY rules */
+    private List<String> apiKeys = new ArrayList<>();
+
+    public enum KeyStrategy {
+        /** Client IP, honouring the first X-Forwarded-For hop */
+        IP,
+        /** Email of the JWT-authenticated user; anonymous requests fall back to IP */
+        USER,
+        /** A configured API key sent in the rule's key header; anything else falls back to IP */
+        API_KEY
+    }
+
+    @Data
+    public static class Rule {
+
+        private String name;
+
+        /**
+         * Path prefix matched on whole segments; {@code *} stands for any one
+         * segment and a trailing {@code /**} is optional.
+         */
+        private String path;
+
+        /** HTTP methods the rule applies to; empty means all */
+        private List<String> methods = new ArrayList<>();
+
+        private int limit;
+
+        private Duration window = Duration.ofMinutes(1);
+
+        private KeyStrategy key = KeyStrategy.IP;
+
+        private String keyHeader = "X-API-Key";
+
+        private String message = "Too many requests. Please try again later.";
+    }
+}
@@ -0,0 +1,266 @@
+package com.victusstore.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate-limit rules compiled into a trie of path segments.
+ *
+ * A lookup walks the request path once, comparing segments in place without
+ * splitting or copying it, so its cost depends on the depth of the configured
+ * patterns rather than the number of rules. The most specific match wins:
+ * the deepest pattern, with a literal segment beating {@code *} at the same
+ * depth, and config order breaking any remaining tie.
+ */
+public class RateLimitRuleMatcher {
+
+    private final Node root = new Node();
+    private final List<CompiledRule> rules;
+
+    public RateLimitRuleMatcher(List<RateLimitProperties.Rule> configured) {
+        List<CompiledRule> compiled = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (RateLimitProperties.Rule rule : configured) {
+            CompiledRule compiledRule = compile(rule);
+            if (!names.add(compiledRule.name())) {
+                throw new IllegalStateException("Duplicate rate limit rule: " + compiledRule.name());
+            }
+            compiled.add(compiledRule);
+        }
+        this.rules = List.copyOf(compiled);
+    }
+
+    /**
+     * The rule for this request, or null if none applies.
+     */
+    public CompiledRule match(String method, String path) {
+        if (path == null || path.isEmpty() || path.charAt(0) != '/') {
+            return null;
+        }
+        return find(root, path, 1, method);
+    }
+
+    public List<CompiledRule> rules() {
+        return rules;
+    }
+
+    private CompiledRule compile(RateLimitProperties.Rule rule) {
+        if (rule.getName() == null || rule.getName().isBlank()) {
+            throw new IllegalStateException("Rate limit rules need a name");
+        }
+        String pattern = rule.getPath();
+        if (pattern == null || !pattern.startsWith("/")) {
+            throw new IllegalStateException("Rate limit rule '" + rule.getName() + "' needs a path starting with /");
+        }
+        if (rule.getLimit() <= 0 || rule.getWindow() == null || rule.getWindow().toMillis() <= 0) {
+            throw new IllegalStateException("Rate limit rule '" + rule.getName() + "' needs a positive limit and window");
+        }
+        if (rule.getLimit() > TokenBucketRateLimiter.MAX_CAPACITY) {
+            throw new IllegalStateException("Rate limit rule '" + rule.getName() + "' has a limit above "
+                    + TokenBucketRateLimiter.MAX_CAPACITY);
+        }
+        if (rule.getKey() == null) {
+            throw new IllegalStateException("Rate limit rule '" + rule.getName() + "' needs a key strategy");
+        }
+
+        String trimmed = pattern.endsWith("/**") ? pattern.substring(0, pattern.length() - 3) : pattern;
+        Node node = root;
+        int depth = 0;
+        for (String segment : trimmed.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            node = segment.equals("*") ? node.wildcardChild() : node.literalChild(segment);
+            depth++;
+        }
+
+        String[] methods = rule.getMethods().stream()
+                .map(method -> method.trim().toUpperCase(Locale.ROOT))
+                .toArray(String[]::new);
+        CompiledRule compiled = new CompiledRule(rule.getName(), pattern, methods, rule.getLimit(),
+                rule.getWindow().toMillis(), rule.getKey(), rule.getKeyHeader(),
+                rule.getMessage() != null ? rule.getMessage() : new RateLimitProperties.Rule().getMessage(), depth);
+        node.rules.add(compiled);
+        return compiled;
+    }
+
+    // from: index just past a '/', i.e. the start of the next segment
+    private static CompiledRule find(Node node, String path, int from, String method) {
+        CompiledRule best = node.ruleFor(method);
+        if (from >= path.length()) {
+            return best;
+        }
+        int end = path.indexOf('/', from);
+        if (end < 0) {
+            end = path.length();
+        }
+        if (end == from) {
+            return best;
+        }
+
+        Node literal = node.findLiteral(path, from, end);
+        if (literal != null) {
+            CompiledRule deeper = find(literal, path, end + 1, method);
+            if (deeper != null && (best == null || deeper.depth() > best.depth())) {
+                best = deeper;
+            }
+        }
+        if (node.wildcard != null) {
+            CompiledRule deeper = find(node.wildcard, path, end + 1, method);
+            if (deeper != null && (best == null || deeper.depth() > best.depth())) {
+                best = deeper;
+            }
+        }
+        return best;
+    }
+
+    private static final class Node {
+
+        private String[] segments = new String[0];
+        private Node[] children = new Node[0];
+        private Node wildcard;
+        private final List<CompiledRule> rules = new ArrayList<>();
+
+        Node literalChild(String segment) {
+            for (int i = 0; i < segments.length; i++) {
+                if (segments[i].equals(segment)) {
+                    return children[i];
+                }
+            }
+            Node child = new Node();
+            segments = Arrays.copyOf(segments, segments.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            segments[segments.length - 1] = segment;
+            children[children.length - 1] = child;
+            return child;
+        }
+
+        Node wildcardChild() {
+            if (wildcard == null) {
+                wildcard = new Node();
+            }
+            return wildcard;
+        }
+
+        Node findLiteral(String path, int from, int end) {
+            int length = end - from;
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.length() == length && path.regionMatches(from, segment, 0, length)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        CompiledRule ruleFor(String method) {
+            for (CompiledRule rule : rules) {
+                if (rule.appliesTo(method)) {
+                    return rule;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A rule ready for matching, with running counts of the requests it let
+     * through and turned away.
+     */
+    public static final class CompiledRule {
+
+        private final String name;
+        private final String pattern;
+        private final String[] methods;
+        private final int limit;
+        private final long windowMs;
+        private final RateLimitProperties.KeyStrategy keyStrategy;
+        private final String keyHeader;
+        private final String message;
+        private final int depth;
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder limited = new LongAdder();
+
+        CompiledRule(String name, String pattern, String[] methods, int limit, long windowMs,
+                     RateLimitProperties.KeyStrategy keyStrategy, String keyHeader, String message, int depth) {
+            this.name = name;
+            this.pattern = pattern;
+            this.methods = methods;
+            this.limit = limit;
+            this.windowMs = windowMs;
+            this.keyStrategy = keyStrategy;
+            this.keyHeader = keyHeader;
+            this.message = message;
+            this.depth = depth;
+        }
+
+        boolean appliesTo(String method) {
+            if (methods.length == 0) {
+                return true;
+            }
+            for (String candidate : methods) {
+                if (candidate.equalsIgnoreCase(method)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public void recordAllowed() {
+            allowed.increment();
+        }
+
+        public void recordLimited() {
+            limited.increment();
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public String pattern() {
+            return pattern;
+        }
+
+        public List<String> methods() {
+            return List.of(methods);
+        }
+
+        public int limit() {
+            return limit;
+        }
+
+        public long windowMs() {
+            return windowMs;
+        }
+
+        public RateLimitProperties.KeyStrategy keyStrategy() {
+            return keyStrategy;
+        }
+
+        public String keyHeader() {
+            return keyHeader;
+        }
+
+        public String message() {
+            return message;
+        }
+
+        public long allowedCount() {
+            return allowed.sum();
+        }
+
+        public long limitedCount() {
+            return limited.sum();
+        }
+
+        int depth() {
+            return depth;
+        }
+    }
+}
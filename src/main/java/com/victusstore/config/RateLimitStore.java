@@ -0,0 +1,31 @@
+package com.victusstore.config;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counters shared by every replica, used by {@link SharedStoreRateLimiter}.
+ * Called from a background sync, never on the request path.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Add each delta to its counter, creating counters as needed, and return
+     * the new totals by counter key.
+     */
+    Map<String, Long> addAndGet(List<CounterDelta> deltas);
+
+    /**
+     * Current totals of the given counters; counters that do not exist yet are left out.
+     */
+    Map<String, Long> read(Collection<String> counterKeys);
+
+    /**
+     * Drop counters that expired before {@code nowMs}.
+     */
+    void purgeExpired(long nowMs);
+
+    record CounterDelta(String counterKey, long delta, long expiresAtMs) {
+    }
+}
@@ -1,51 +1,56 @@
 package com.victusstore.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.Map;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 @Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class RateLimitingConfig {
 
-    // Simple in-memory rate limiter
-    // For production, consider using Redis-based rate limiting
-    private final Map<String, RateLimitInfo> rateLimitStore = new ConcurrentHashMap<>();
-
+    /**
+     * {@code app.rate-limit.backend}: {@code local} keeps per-replica token buckets;
+     * {@code jdbc} shares fixed-window counters through the database so limits
+     * hold across replicas; {@code memory} is the shared-counter limiter on an
+     * in-process store, for tests.
+     */
     @Bean
-    public RateLimiter rateLimiter() {
-        return new RateLimiter() {
-            @Override
-            public boolean allowRequest(String key, int maxRequests, long windowMs) {
-                long now = System.currentTimeMillis();
-                RateLimitInfo info = rateLimitStore.computeIfAbsent(key, k -> new RateLimitInfo());
-                
-                synchronized (info) {
-                    if (now - info.windowStart > windowMs) {
-                        // Reset window
-                        info.count.set(0);
-                        info.windowStart = now;
-                    }
-                    
-                    if (info.count.get() < maxRequests) {
-                        info.count.incrementAndGet();
-                        return true;
-                    }
-                    return false;
-                }
-            }
+    public RateLimiter rateLimiter(
+            @Value("${app.rate-limit.backend:local}") String backend,
+            @Value("${app.rate-limit.max-keys:100000}") int maxKeys,
+            @Value("${app.rate-limit.sweep-interval-ms:60000}") long sweepIntervalMs,
+            @Value("${app.rate-limit.sync-interval-ms:500}") long syncIntervalMs,
+            ObjectProvider<JdbcTemplate> jdbcTemplate) {
+        return switch (backend) {
+            case "local" -> new TokenBucketRateLimiter(maxKeys, sweepIntervalMs);
+            case "jdbc" -> new SharedStoreRateLimiter(
+                    new JdbcRateLimitStore(jdbcTemplate.getObject()), maxKeys, syncIntervalMs);
+            case "memory" -> new SharedStoreRateLimiter(new InMemoryRateLimitStore(), maxKeys, syncIntervalMs);
+            default -> throw new IllegalStateException(
+                    "app.rate-limit.backend must be local, jdbc or memory, not '" + backend + "'");
         };
     }
 
+    @Bean
+    public RateLimitRuleMatcher rateLimitRuleMatcher(RateLimitProperties properties) {
+        return new RateLimitRuleMatcher(properties.getRules());
+    }
+
+    @Bean
+    public RateLimitApiKeys rateLimitApiKeys(RateLimitProperties properties) {
+        return new RateLimitApiKeys(properties.getApiKeys());
+    }
+
     public interface RateLimiter {
-        boolean allowRequest(String key, int maxRequests, long windowMs);
+        boolean allowRequest(String rule, String client, int maxRequests, long windowMs);
     }
 
-    private static class RateLimitInfo {
-        AtomicInteger count = new AtomicInteger(0);
-        long windowStart = System.currentTimeMillis();
+    /**
+     * Limiter key: one counter per rule and client, without building a string per request.
+     */
+    public record RateLimitKey(String rule, String client) {
     }
 }
-
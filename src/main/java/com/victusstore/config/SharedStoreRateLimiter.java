@@ -0,0 +1,171 @@
+package com.victusstore.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link RateLimitingConfig.RateLimiter} whose limits hold across all replicas.
+ *
+ * Requests are counted in fixed windows aligned to the epoch, so every node
+ * agrees on where a window starts. Decisions are made locally against the
+ * last known global count plus this node's unsynced hits; a background sync
+ * pushes those hits to the {@link RateLimitStore} in one batch and reads back
+ * the totals, and refreshes idle counters with a plain read so they are not
+ * rewritten. Nothing on the request path touches the store.
+ *
+ * Between syncs each replica can let through at most the hits the others have
+ * not published yet, so the overshoot is bounded by the sync interval. If the
+ * store is unreachable, hits stay pending and are retried on the next sync;
+ * meanwhile limits degrade to per-replica ones rather than failing requests.
+ */
+public class SharedStoreRateLimiter implements RateLimitingConfig.RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedStoreRateLimiter.class);
+
+    private static final long PURGE_INTERVAL_MS = 60000;
+
+    private final RateLimitStore store;
+    private final int maxKeys;
+    private final LongSupplier clock;
+    private final Map<RateLimitingConfig.RateLimitKey, Counter> counters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService syncExecutor;
+    private long lastPurge;
+
+    public SharedStoreRateLimiter(RateLimitStore store, int maxKeys, long syncIntervalMs) {
+        this(store, maxKeys, System::currentTimeMillis);
+        syncExecutor.scheduleWithFixedDelay(this::sync, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    SharedStoreRateLimiter(RateLimitStore store, int maxKeys, LongSupplier clock) {
+        this.store = store;
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+        this.syncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public boolean allowRequest(String rule, String client, int maxRequests, long windowMs) {
+        if (maxRequests <= 0 || windowMs <= 0) {
+            throw new IllegalArgumentException("Rate limit must be a positive number of requests per positive window");
+        }
+        long now = clock.getAsLong();
+        long windowStart = now - Math.floorMod(now, windowMs);
+
+        RateLimitingConfig.RateLimitKey key = new RateLimitingConfig.RateLimitKey(rule, client);
+        Counter counter = counters.get(key);
+        if (counter == null || counter.windowStart != windowStart) {
+            if (counter == null && counters.size() >= maxKeys) {
+                // Too many distinct clients in flight; let this one through uncounted until a sync frees room
+                return true;
+            }
+            counter = counters.compute(key, (k, existing) ->
+                    existing != null && existing.windowStart == windowStart
+                            ? existing
+                            : new Counter(rule + ":" + client + "|" + windowStart, windowStart, windowStart + windowMs));
+        }
+        return counter.tryAcquire(maxRequests);
+    }
+
+    /**
+     * Push pending hits to the store and refresh the global counts. Runs on the
+     * sync thread; package-private so tests can drive it directly.
+     */
+    synchronized void sync() {
+        long now = clock.getAsLong();
+        counters.values().removeIf(counter -> counter.windowEnd <= now);
+
+        List<Flush> flushes = new ArrayList<>();
+        List<RateLimitStore.CounterDelta> deltas = new ArrayList<>();
+        Map<String, Counter> idle = new HashMap<>();
+        for (Counter counter : counters.values()) {
+            long pending = counter.pending.get();
+            if (pending == 0) {
+                // Only other replicas' hits to pick up; a read is enough
+                idle.put(counter.storeKey, counter);
+            } else {
+                flushes.add(new Flush(counter, pending));
+                deltas.add(new RateLimitStore.CounterDelta(counter.storeKey, pending, counter.windowEnd));
+            }
+        }
+
+        try {
+            if (!deltas.isEmpty()) {
+                Map<String, Long> totals = store.addAndGet(deltas);
+                for (Flush flush : flushes) {
+                    Long total = totals.get(flush.counter().storeKey);
+                    if (total != null) {
+                        // Publish the new total before dropping the flushed hits, so no hit is ever uncounted
+                        flush.counter().global = total;
+                        flush.counter().pending.addAndGet(-flush.hits());
+                    }
+                }
+            }
+            if (!idle.isEmpty()) {
+                store.read(idle.keySet()).forEach((storeKey, total) -> idle.get(storeKey).global = total);
+            }
+            if (now - lastPurge >= PURGE_INTERVAL_MS) {
+                lastPurge = now;
+                store.purgeExpired(now);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Rate limit sync failed, keeping {} pending counter(s): {}", flushes.size(), e.getMessage());
+        }
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * Final sync so hits from the last interval still count on the other replicas.
+     */
+    public void shutdown() {
+        syncExecutor.shutdown();
+        sync();
+    }
+
+    private record Flush(Counter counter, long hits) {
+    }
+
+    private static final class Counter {
+
+        private final String storeKey;
+        private final long windowStart;
+        private final long windowEnd;
+        private final AtomicLong pending = new AtomicLong();
+        private volatile long global;
+
+        Counter(String storeKey, long windowStart, long windowEnd) {
+            this.storeKey = storeKey;
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
+        }
+
+        boolean tryAcquire(int limit) {
+            while (true) {
+                long current = pending.get();
+                if (global + current >= limit) {
+                    return false;
+                }
+                if (pending.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.victusstore.config;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory token-bucket {@link RateLimitingConfig.RateLimiter}.
+ *
+ * Each key's bucket holds {@code maxRequests} tokens and refills continuously
+ * at {@code maxRequests} per window. A bucket's whole state (time of the last
+ * refill and the token count) is packed into one long and updated with
+ * compare-and-set, so checks never block. Time comes from the monotonic
+ * {@link System#nanoTime()} clock, so wall-clock adjustments cannot stall a
+ * bucket.
+ *
+ * Memory is bounded: a bucket that has been idle for a full window is back at
+ * capacity and indistinguishable from a new one, so sweeps drop those freely.
+ * If the map still exceeds {@code maxKeys} (a flood of distinct clients inside
+ * one window), the sweep evicts further buckets, which only errs towards
+ * letting those clients through.
+ */
+public class TokenBucketRateLimiter implements RateLimitingConfig.RateLimiter {
+
+    // State layout: [ 40 bits: ms since epoch of this limiter | 24 bits: tokens in 1/256ths ]
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long SCALE = 256;
+
+    /**
+     * Largest bucket the packed state can represent.
+     */
+    public static final int MAX_CAPACITY = (int) (TOKEN_MASK / SCALE);
+
+    private final Map<RateLimitingConfig.RateLimitKey, Bucket> buckets = new ConcurrentHashMap<>();
+    private final int maxKeys;
+    private final long sweepIntervalMs;
+    private final LongSupplier clock;
+    private final long epoch;
+    private final AtomicLong lastSweep; // ms since epoch
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    public TokenBucketRateLimiter(int maxKeys, long sweepIntervalMs) {
+        this(maxKeys, sweepIntervalMs, () -> System.nanoTime() / 1_000_000);
+    }
+
+    TokenBucketRateLimiter(int maxKeys, long sweepIntervalMs, LongSupplier clock) {
+        this.maxKeys = maxKeys;
+        this.sweepIntervalMs = sweepIntervalMs;
+        this.clock = clock;
+        this.epoch = clock.getAsLong();
+        this.lastSweep = new AtomicLong();
+    }
+
+    @Override
+    public boolean allowRequest(String rule, String client, int maxRequests, long windowMs) {
+        if (maxRequests <= 0 || maxRequests > MAX_CAPACITY || windowMs <= 0) {
+            throw new IllegalArgumentException("Rate limit must be 1.." + MAX_CAPACITY + " requests per positive window");
+        }
+        // Never below zero: a negative time would be shifted into the packed state and decode as far future
+        long now = Math.max(0, clock.getAsLong() - epoch);
+
+        RateLimitingConfig.RateLimitKey key = new RateLimitingConfig.RateLimitKey(rule, client);
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(maxRequests, windowMs, now));
+            maybeSweep(now);
+        }
+        return bucket.tryConsume(now);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private void maybeSweep(long now) {
+        boolean overCapacity = buckets.size() > maxKeys;
+        if (!overCapacity && now - lastSweep.get() < sweepIntervalMs) {
+            return;
+        }
+        // One sweeper at a time; everyone else carries on without waiting
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            lastSweep.set(now);
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+
+            int excess = buckets.size() - maxKeys;
+            Iterator<Bucket> iterator = buckets.values().iterator();
+            while (excess > 0 && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                excess--;
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static final class Bucket {
+
+        private final long capacity;
+        private final long windowMs;
+        private final AtomicLong state;
+
+        Bucket(int capacity, long windowMs, long now) {
+            this.capacity = capacity * SCALE;
+            this.windowMs = windowMs;
+            this.state = new AtomicLong(pack(now, this.capacity));
+        }
+
+        boolean tryConsume(long now) {
+            while (true) {
+                long current = state.get();
+                long last = current >>> TOKEN_BITS;
+                long tokens = current & TOKEN_MASK;
+
+                long newLast = last;
+                long elapsed = now - last;
+                if (elapsed > 0) {
+                    if (elapsed >= windowMs) {
+                        tokens = capacity;
+                        newLast = now;
+                    } else {
+                        long added = elapsed * capacity / windowMs;
+                        if (tokens + added >= capacity) {
+                            tokens = capacity;
+                            newLast = now;
+                        } else if (added > 0) {
+                            tokens += added;
+                            // Advance only by the time those tokens took, so fractions carry over
+                            newLast = last + added * windowMs / capacity;
+                        }
+                    }
+                }
+
+                if (tokens < SCALE) {
+                    return false;
+                }
+                if (state.compareAndSet(current, pack(newLast, tokens - SCALE))) {
+                    return true;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return now - (state.get() >>> TOKEN_BITS) >= windowMs;
+        }
+
+        private static long pack(long time, long tokens) {
+            return (time << TOKEN_BITS) | tokens;
+        }
+    }
+}
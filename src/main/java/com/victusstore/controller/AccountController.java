@@ -1,8 +1,13 @@
 package com.victusstore.controller;
 
+import com.victusstore.event.CatalogChangedEvent;
 import com.victusstore.model.Account;
+import com.victusstore.model.Seller;
 import com.victusstore.repository.AccountRepository;
+import com.victusstore.repository.ProductRepository;
+import com.victusstore.repository.SellerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -21,6 +26,15 @@ public class AccountController {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
     private static final Logger logger = LoggerFactory.getLogger(AccountController.class);
 
@@ -83,7 +97,17 @@ public class AccountController {
     public ResponseEntity<Map<String, Boolean>> deleteAccount(@PathVariable String email) {
         return accountRepository.findByEmail(email)
                 .map(account -> {
+                    // Deleting the account cascades to its sellers and their products
+                    List<Long> sellerIds = sellerRepository.findByEmail(email).stream()
+                            .map(Seller::getSellerId)
+                            .toList();
+                    List<Long> productIds = sellerIds.isEmpty()
+                            ? List.of()
+                            : productRepository.findIdsBySellerIdIn(sellerIds);
                     accountRepository.delete(account);
+                    if (!productIds.isEmpty()) {
+                        eventPublisher.publishEvent(CatalogChangedEvent.productsRemoved(productIds));
+                    }
                     Map<String, Boolean> response = new HashMap<>();
                     response.put("deleted", Boolean.TRUE);
                     return ResponseEntity.ok(response);
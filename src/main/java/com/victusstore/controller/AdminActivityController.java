@@ -2,15 +2,19 @@ package com.victusstore.controller;
 
 import com.victusstore.model.AdminActivity;
 import com.victusstore.repository.AdminActivityRepository;
+import com.victusstore.service.AuditLogWriter;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -18,15 +22,26 @@ import java.util.Map;
 @RequestMapping("/api/admin/activities")
 public class AdminActivityController {
 
+    private static final int MAX_LIST_LIMIT = 1000;
+
     @Autowired
     private AdminActivityRepository activityRepository;
 
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Value("${app.activities.default-window-days:30}")
+    private int defaultWindowDays;
+
     @GetMapping
     public ResponseEntity<Page<AdminActivity>> getAllActivities(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<AdminActivity> activities = activityRepository.findAllByOrderByCreatedAtDesc(pageable);
+        LocalDateTime end = rangeEnd(to);
+        Page<AdminActivity> activities = activityRepository.findInRange(rangeStart(from, end), end, pageable);
         return ResponseEntity.ok(activities);
     }
 
@@ -41,21 +56,37 @@ public class AdminActivityController {
     public ResponseEntity<?> getActivitiesByAdmin(
             @PathVariable String email,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<AdminActivity> activities = activityRepository.findByAdminEmailOrderByCreatedAtDesc(email, pageable);
+        LocalDateTime end = rangeEnd(to);
+        Page<AdminActivity> activities = activityRepository.findByAdminEmailInRange(
+                email, rangeStart(from, end), end, pageable);
         return ResponseEntity.ok(activities);
     }
 
     @GetMapping("/entity/{entityType}")
-    public ResponseEntity<List<AdminActivity>> getActivitiesByEntityType(@PathVariable String entityType) {
-        List<AdminActivity> activities = activityRepository.findByEntityType(entityType.toUpperCase());
+    public ResponseEntity<List<AdminActivity>> getActivitiesByEntityType(
+            @PathVariable String entityType,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = rangeEnd(to);
+        List<AdminActivity> activities = activityRepository.findByEntityTypeInRange(
+                entityType.toUpperCase(), rangeStart(from, end), end, PageRequest.of(0, clampLimit(limit)));
         return ResponseEntity.ok(activities);
     }
 
     @GetMapping("/action/{actionType}")
-    public ResponseEntity<List<AdminActivity>> getActivitiesByActionType(@PathVariable String actionType) {
-        List<AdminActivity> activities = activityRepository.findByActionType(actionType.toUpperCase());
+    public ResponseEntity<List<AdminActivity>> getActivitiesByActionType(
+            @PathVariable String actionType,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = rangeEnd(to);
+        List<AdminActivity> activities = activityRepository.findByActionTypeInRange(
+                actionType.toUpperCase(), rangeStart(from, end), end, PageRequest.of(0, clampLimit(limit)));
         return ResponseEntity.ok(activities);
     }
 
@@ -80,8 +111,7 @@ public class AdminActivityController {
             activity.setUserAgent(userAgent);
             activity.setCreatedAt(LocalDateTime.now());
 
-            AdminActivity savedActivity = activityRepository.save(activity);
-            return ResponseEntity.status(201).body(savedActivity);
+            return recorded(auditLogWriter.record(activity));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -119,13 +149,31 @@ public class AdminActivityController {
                     .createdAt(LocalDateTime.now())
                     .build();
 
-            AdminActivity savedActivity = activityRepository.save(activity);
-            return ResponseEntity.status(201).body(savedActivity);
+            return recorded(auditLogWriter.record(activity));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    @GetMapping("/audit-stats")
+    public ResponseEntity<?> getAuditStats() {
+        AuditLogWriter.AuditStats stats = auditLogWriter.stats();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("mode", stats.mode());
+        response.put("queue_depth", stats.queueDepth());
+        response.put("queue_capacity", stats.queueCapacity());
+        response.put("max_queue_depth", stats.maxQueueDepth());
+        response.put("enqueued", stats.enqueued());
+        response.put("written", stats.written());
+        response.put("batches", stats.batches());
+        response.put("caller_writes", stats.callerWrites());
+        response.put("failed_attempts", stats.failedAttempts());
+        response.put("rejected", stats.rejected());
+        response.put("journal_syncs", stats.journalSyncs());
+        response.put("last_batch_ms", stats.lastBatchMs());
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteActivity(@PathVariable Long id) {
         try {
@@ -140,6 +188,24 @@ public class AdminActivityController {
         }
     }
 
+    // Queued activities have no id yet; 202 tells the caller it is not readable back immediately
+    private ResponseEntity<?> recorded(AdminActivity activity) {
+        return ResponseEntity.status(activity.getActivityId() != null ? 201 : 202).body(activity);
+    }
+
+    // Listings are bounded in time so only the matching monthly partitions are scanned
+    private LocalDateTime rangeEnd(LocalDateTime to) {
+        return to != null ? to : LocalDateTime.now().plusSeconds(1);
+    }
+
+    private LocalDateTime rangeStart(LocalDateTime from, LocalDateTime end) {
+        return from != null ? from : end.minusDays(defaultWindowDays);
+    }
+
+    private static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIST_LIMIT));
+    }
+
     private String getClientIpAddress(HttpServletRequest request) {
         String ipAddress = request.getHeader("X-Forwarded-For");
         if (ipAddress == null || ipAddress.isEmpty() || "unknown".equalsIgnoreCase(ipAddress)) {
@@ -0,0 +1,54 @@
+package com.victusstore.controller;
+
+import com.victusstore.service.CleanupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cleanup")
+public class AdminCleanupController {
+
+    @Autowired
+    private CleanupService cleanupService;
+
+    /**
+     * ⭐ NEW: Expiry sweeper progress and the expired rows still waiting, per table
+     */
+    @GetMapping
+    public ResponseEntity<?> getCleanupStats() {
+        List<Map<String, Object>> tables = cleanupService.stats().stream()
+                .map(stats -> {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("table", stats.table());
+                    entry.put("backlog", stats.backlog());
+                    entry.put("chunk_size", stats.chunkSize());
+                    entry.put("total_deleted", stats.totalDeleted());
+                    entry.put("last_run_deleted", stats.lastRunDeleted());
+                    entry.put("last_chunk_ms", stats.lastChunkMs());
+                    entry.put("last_run_at", stats.lastRunAt());
+                    entry.put("drained", stats.drained());
+                    entry.put("running", stats.running());
+                    return entry;
+                })
+                .toList();
+        return ResponseEntity.ok(Map.of("tables", tables));
+    }
+
+    /**
+     * ⭐ NEW: Sweep now until both tables are drained
+     */
+    @PostMapping("/run")
+    public ResponseEntity<?> runCleanup() {
+        CleanupService.CleanupResult result = cleanupService.cleanupNow();
+        return ResponseEntity.ok(Map.of(
+                "message", "Cleanup completed",
+                "deleted_idempotency_keys", result.deletedIdempotencyKeys(),
+                "deleted_refresh_tokens", result.deletedRefreshTokens()
+        ));
+    }
+}
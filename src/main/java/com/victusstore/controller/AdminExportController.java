@@ -0,0 +1,122 @@
+package com.victusstore.controller;
+
+import com.victusstore.service.ExportService;
+import com.victusstore.service.ExportService.Format;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk exports for reconciliation and archiving. The body is written straight
+ * to the response as rows come off the database, so these endpoints return
+ * nothing themselves once streaming has started.
+ */
+@RestController
+@RequestMapping("/api/admin/exports")
+public class AdminExportController {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Value("${app.exports.default-window-days:31}")
+    private int defaultWindowDays;
+
+    /**
+     * ⭐ NEW: Orders with their items as NDJSON (one order per line) or CSV (one item per row)
+     */
+    @GetMapping("/orders")
+    public ResponseEntity<?> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status,
+            HttpServletResponse response) throws IOException {
+        Format exportFormat = Format.fromParam(format);
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(defaultWindowDays);
+        ResponseEntity<?> rejection = validate(exportFormat, start, end);
+        if (rejection != null) {
+            return rejection;
+        }
+
+        String orderStatus = status == null || status.isBlank() ? null : status.trim().toLowerCase(Locale.ROOT);
+        try {
+            startDownload(response, exportFormat, "orders");
+            exportService.exportOrders(response.getOutputStream(), exportFormat, start, end, orderStatus);
+        } finally {
+            exportService.release();
+        }
+        return null;
+    }
+
+    /**
+     * ⭐ NEW: Admin activities as NDJSON or CSV, one activity per line or row
+     */
+    @GetMapping("/activities")
+    public ResponseEntity<?> exportActivities(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "entity_type", required = false) String entityType,
+            @RequestParam(value = "action_type", required = false) String actionType,
+            HttpServletResponse response) throws IOException {
+        Format exportFormat = Format.fromParam(format);
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(defaultWindowDays);
+        ResponseEntity<?> rejection = validate(exportFormat, start, end);
+        if (rejection != null) {
+            return rejection;
+        }
+
+        try {
+            startDownload(response, exportFormat, "activities");
+            exportService.exportActivities(response.getOutputStream(), exportFormat, start, end,
+                    upperOrNull(entityType), upperOrNull(actionType));
+        } finally {
+            exportService.release();
+        }
+        return null;
+    }
+
+    // Null when the export may start; on success an export slot is held and must be released
+    private ResponseEntity<?> validate(Format format, LocalDateTime start, LocalDateTime end) {
+        if (format == null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Unknown export format",
+                    "allowed_formats", Arrays.stream(Format.values()).map(f -> f.extension()).toList()
+            ));
+        }
+        if (!start.isBefore(end)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "from must be before to"));
+        }
+        if (!exportService.tryAcquire()) {
+            return ResponseEntity.status(429).body(Map.of("error", "Too many exports running. Please try again later."));
+        }
+        return null;
+    }
+
+    private static void startDownload(HttpServletResponse response, Format format, String name) {
+        response.setStatus(200);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(format.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "-"
+                + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "." + format.extension() + "\"");
+    }
+
+    private static String upperOrNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toUpperCase();
+    }
+}
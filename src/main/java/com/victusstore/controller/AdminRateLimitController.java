@@ -0,0 +1,42 @@
+package com.victusstore.controller;
+
+import com.victusstore.config.RateLimitRuleMatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/rate-limits")
+public class AdminRateLimitController {
+
+    @Autowired
+    private RateLimitRuleMatcher ruleMatcher;
+
+    /**
+     * ⭐ NEW: Configured rate-limit rules with allowed/limited counts since startup (this instance only)
+     */
+    @GetMapping
+    public ResponseEntity<?> getRateLimitRules() {
+        List<Map<String, Object>> rules = ruleMatcher.rules().stream()
+                .map(rule -> {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("name", rule.name());
+                    entry.put("path", rule.pattern());
+                    entry.put("methods", rule.methods());
+                    entry.put("limit", rule.limit());
+                    entry.put("window_ms", rule.windowMs());
+                    entry.put("key", rule.keyStrategy().name());
+                    entry.put("allowed_count", rule.allowedCount());
+                    entry.put("limited_count", rule.limitedCount());
+                    return entry;
+                })
+                .toList();
+        return ResponseEntity.ok(Map.of("rules", rules, "count", rules.size()));
+    }
+}
@@ -1,16 +1,18 @@
 package com.victusstore.controller;
 
+import com.victusstore.dto.CartView;
 import com.victusstore.model.Account;
 import com.victusstore.model.Cart;
-import com.victusstore.model.CartProduct;
 import com.victusstore.repository.AccountRepository;
 import com.victusstore.repository.CartRepository;
-import com.victusstore.repository.CartProductRepository;
+import com.victusstore.service.CartAggregateService;
+import com.victusstore.util.Money;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -24,10 +26,10 @@ public class CartController {
     private CartRepository cartRepository;
 
     @Autowired
-    private CartProductRepository cartProductRepository;
+    private AccountRepository accountRepository;
 
     @Autowired
-    private AccountRepository accountRepository;
+    private CartAggregateService cartAggregateService;
 
     @GetMapping
     public ResponseEntity<List<Cart>> getAllCarts() {
@@ -49,6 +51,45 @@ public class CartController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * The whole cart with line details and totals, served from the cart read model.
+     * Read-only: unlike /sync and /calculate-total it never writes Cart.totalPrice.
+     */
+    @GetMapping("/{id}/details")
+    public ResponseEntity<?> getCartDetails(@PathVariable Long id) {
+        Optional<CartView> viewOpt = cartAggregateService.getCart(id);
+        if (viewOpt.isEmpty()) {
+            return ResponseEntity.status(404).body(Map.of("error", "Cart not found"));
+        }
+        CartView view = viewOpt.get();
+
+        List<Map<String, Object>> items = new ArrayList<>(view.lines().size());
+        for (CartView.Line line : view.lines()) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("cart_product_id", line.cartProductId());
+            item.put("variant_id", line.variantId());
+            item.put("product_id", line.productId());
+            item.put("product_name", line.productName());
+            item.put("color", line.color());
+            item.put("size", line.size());
+            item.put("sku", line.sku());
+            item.put("quantity", line.quantity());
+            item.put("price_at_time", Money.fromMinorUnits(line.unitPriceMinor()));
+            item.put("line_total", Money.fromMinorUnits(line.lineTotalMinor()));
+            items.add(item);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("cart_id", view.cartId());
+        response.put("email", view.email());
+        response.put("is_active", view.isActive());
+        response.put("total_price", view.totalPrice());
+        response.put("item_count", view.lines().size());
+        response.put("total_quantity", view.totalQuantity());
+        response.put("items", items);
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping
     public ResponseEntity<?> createCart(@RequestBody Cart cart) {
         try {
@@ -72,6 +113,7 @@ public class CartController {
                     cart.setTotalPrice(cartDetails.getTotalPrice());
                     cart.setIsActive(cartDetails.getIsActive());
                     Cart updatedCart = cartRepository.save(cart);
+                    cartAggregateService.evict(id);
                     return ResponseEntity.ok(updatedCart);
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -82,6 +124,7 @@ public class CartController {
         return cartRepository.findById(id)
                 .map(cart -> {
                     cartRepository.delete(cart);
+                    cartAggregateService.evict(id);
                     Map<String, Boolean> response = new HashMap<>();
                     response.put("deleted", Boolean.TRUE);
                     return ResponseEntity.ok(response);
@@ -116,24 +159,16 @@ public class CartController {
                 cart = cartRepository.save(cart);
             }
 
-            // Calculate total from cart products
-            List<CartProduct> cartProducts = cartProductRepository.findByCartId(cart.getCartId());
-            BigDecimal totalPrice = BigDecimal.ZERO;
-            for (CartProduct cartProduct : cartProducts) {
-                BigDecimal itemTotal = cartProduct.getPriceAtTime()
-                        .multiply(BigDecimal.valueOf(cartProduct.getQuantity()));
-                totalPrice = totalPrice.add(itemTotal);
-            }
-
-            // Update cart total
-            cart.setTotalPrice(totalPrice);
-            cart = cartRepository.save(cart);
+            // Total is re-read from the database, never taken from a cached view; only write it back when it changed
+            CartView view = cartAggregateService.refresh(cart.getCartId())
+                    .orElseThrow(() -> new IllegalArgumentException("Cart not found"));
+            cart = saveTotalIfChanged(cart, view);
 
             Map<String, Object> response = new HashMap<>();
             response.put("cart_id", cart.getCartId());
             response.put("email", cart.getEmail());
             response.put("total_price", cart.getTotalPrice());
-            response.put("item_count", cartProducts.size());
+            response.put("item_count", view.lines().size());
             response.put("synced", true);
 
             return ResponseEntity.ok(response);
@@ -151,26 +186,27 @@ public class CartController {
             }
 
             Cart cart = cartOpt.get();
-            List<CartProduct> cartProducts = cartProductRepository.findByCartId(id);
-
-            BigDecimal totalPrice = BigDecimal.ZERO;
-            for (CartProduct cartProduct : cartProducts) {
-                BigDecimal itemTotal = cartProduct.getPriceAtTime()
-                        .multiply(BigDecimal.valueOf(cartProduct.getQuantity()));
-                totalPrice = totalPrice.add(itemTotal);
-            }
-
-            cart.setTotalPrice(totalPrice);
-            cart = cartRepository.save(cart);
+            CartView view = cartAggregateService.refresh(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Cart not found"));
+            cart = saveTotalIfChanged(cart, view);
 
             Map<String, Object> response = new HashMap<>();
             response.put("cart_id", cart.getCartId());
             response.put("total_price", cart.getTotalPrice());
-            response.put("item_count", cartProducts.size());
+            response.put("item_count", view.lines().size());
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
+
+    private Cart saveTotalIfChanged(Cart cart, CartView view) {
+        BigDecimal totalPrice = view.totalPrice();
+        if (cart.getTotalPrice() != null && cart.getTotalPrice().compareTo(totalPrice) == 0) {
+            return cart;
+        }
+        cart.setTotalPrice(totalPrice);
+        return cartRepository.save(cart);
+    }
 }
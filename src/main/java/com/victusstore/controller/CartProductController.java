@@ -6,15 +6,26 @@ import com.victusstore.model.Product;
 import com.victusstore.repository.CartProductRepository;
 import com.victusstore.repository.CartRepository;
 import com.victusstore.repository.ProductVariantRepository;
+import com.victusstore.service.CartAggregateService;
+import com.victusstore.service.InventoryLedger;
+import com.victusstore.util.TransactionCallbacks;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/cart-products")
@@ -22,6 +33,8 @@ public class CartProductController {
 
     private static final Logger logger = LoggerFactory.getLogger(CartProductController.class);
 
+    private static final int MAX_BATCH_OPERATIONS = 100;
+
     @Autowired
     private CartProductRepository cartProductRepository;
 
@@ -31,6 +44,12 @@ public class CartProductController {
     @Autowired
     private ProductVariantRepository variantRepository;
 
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private CartAggregateService cartAggregateService;
+
     @GetMapping
     public ResponseEntity<List<CartProduct>> getAllCartProducts() {
         return ResponseEntity.ok(cartProductRepository.findAll());
@@ -119,10 +138,11 @@ public class CartProductController {
             }
 
             // Validate stock
-            if (variant.getStockQuantity() < quantity) {
+            int availableStock = inventoryLedger.availableStock(variantId, variant.getStockQuantity());
+            if (availableStock < quantity) {
                 return ResponseEntity.badRequest().body(Map.of(
                     "error", "Insufficient stock",
-                    "available_stock", variant.getStockQuantity(),
+                    "available_stock", availableStock,
                     "requested_quantity", quantity,
                     "product_name", product != null ? product.getProductName() : "Unknown",
                     "variant_details", Map.of(
@@ -152,19 +172,20 @@ public class CartProductController {
                 CartProduct existing = existingOpt.get();
                 Integer totalQuantity = existing.getQuantity() + quantity;
                 // Validate total quantity against stock
-                if (totalQuantity > variant.getStockQuantity()) {
+                if (totalQuantity > availableStock) {
                     return ResponseEntity.badRequest().body(Map.of(
                         "error", "Insufficient stock for requested quantity",
                         "current_in_cart", existing.getQuantity(),
                         "trying_to_add", quantity,
                         "total_requested", totalQuantity,
-                        "available_stock", variant.getStockQuantity()
+                        "available_stock", availableStock
                     ));
                 }
                 existing.setQuantity(totalQuantity);
                 // Update priceAtTime if needed
                 existing.setPriceAtTime(priceAtTime);
                 cartProductRepository.save(existing);
+                cartAggregateService.lineSaved(existing, variant);
                 cartProductId = existing.getId();
                 newQuantity = totalQuantity;
                 isNewItem = false;
@@ -176,6 +197,7 @@ public class CartProductController {
                 cartProduct.setQuantity(quantity);
                 cartProduct.setPriceAtTime(priceAtTime);
                 CartProduct saved = cartProductRepository.save(cartProduct);
+                cartAggregateService.lineSaved(saved, variant);
                 cartProductId = saved.getId();
                 newQuantity = quantity;
                 isNewItem = true;
@@ -252,13 +274,14 @@ public class CartProductController {
                 .orElseThrow(() -> new RuntimeException("Product variant not found"));
 
             // Validate stock
-            if (quantity > variant.getStockQuantity()) {
+            int availableStock = inventoryLedger.availableStock(variantId, variant.getStockQuantity());
+            if (quantity > availableStock) {
                 Product product = variant.getProduct();
                 return ResponseEntity.badRequest().body(Map.of(
                     "error", "Requested quantity exceeds available stock",
                     "product_name", product != null ? product.getProductName() : "Unknown",
                     "requested_quantity", quantity,
-                    "available_stock", variant.getStockQuantity(),
+                    "available_stock", availableStock,
                     "variant_details", Map.of(
                         "color", variant.getColor(),
                         "size", variant.getSize()
@@ -273,6 +296,7 @@ public class CartProductController {
             Integer oldQuantity = cartProduct.getQuantity();
             cartProduct.setQuantity(quantity);
             cartProductRepository.save(cartProduct);
+            cartAggregateService.lineSaved(cartProduct, variant);
 
             // Return detailed response
             Product product = variant.getProduct();
@@ -302,6 +326,216 @@ public class CartProductController {
         }
     }
 
+    /**
+     * Batch cart mutation: applies a list of add / set / remove operations to one
+     * cart in a single transaction.
+     *
+     * All referenced variants and the cart's existing lines for them are read up
+     * front with one IN query each, every operation is validated against that
+     * state, and only then are the changed lines written with one saveAll and one
+     * batch delete. If any operation is invalid nothing is written.
+     *
+     * Operations run in order against the running quantity of a variant, so
+     * {"op":"add"} after {"op":"set"} on the same variant adds to the set value.
+     * A set to 0 removes the line; removing a variant that is not in the cart is a no-op.
+     */
+    @PatchMapping("/batch")
+    @Transactional
+    public ResponseEntity<?> applyBatch(@RequestBody Map<String, Object> data) {
+        if (!data.containsKey("cart_id") || !(data.get("operations") instanceof List<?> rawOperations)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Missing required fields",
+                "required_fields", List.of("cart_id", "operations")
+            ));
+        }
+        if (rawOperations.isEmpty() || rawOperations.size() > MAX_BATCH_OPERATIONS) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Operations must contain between 1 and " + MAX_BATCH_OPERATIONS + " entries"
+            ));
+        }
+
+        Long cartId;
+        List<BatchOperation> operations = new ArrayList<>(rawOperations.size());
+        try {
+            cartId = Long.valueOf(data.get("cart_id").toString());
+            for (int i = 0; i < rawOperations.size(); i++) {
+                BatchOperation operation = BatchOperation.parse(rawOperations.get(i));
+                if (operation == null) {
+                    return ResponseEntity.badRequest().body(Map.of(
+                        "error", "Invalid operation",
+                        "operation_index", i,
+                        "expected", "{\"op\": \"add|set|remove\", \"variant_id\": ..., \"quantity\": ...}"
+                    ));
+                }
+                operations.add(operation);
+            }
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid number format",
+                "details", e.getMessage()
+            ));
+        }
+
+        if (!cartRepository.existsById(cartId)) {
+            return ResponseEntity.status(404).body(Map.of(
+                "error", "Cart not found",
+                "cart_id", cartId
+            ));
+        }
+
+        Set<Long> variantIds = new LinkedHashSet<>();
+        operations.forEach(operation -> variantIds.add(operation.variantId()));
+
+        Map<Long, ProductVariant> variants = new HashMap<>();
+        for (ProductVariant variant : variantRepository.findAllWithProductByIdIn(variantIds)) {
+            variants.put(variant.getVariantId(), variant);
+        }
+        Map<Long, CartProduct> existingLines = new HashMap<>();
+        for (CartProduct line : cartProductRepository.findByCartIdAndVariantIdIn(cartId, variantIds)) {
+            existingLines.putIfAbsent(line.getVariantId(), line);
+        }
+
+        // Replay the operations against the running quantity of each variant
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        Set<Long> repriced = new HashSet<>();
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            Long variantId = operation.variantId();
+            int current = quantities.computeIfAbsent(variantId,
+                    id -> existingLines.containsKey(id) ? existingLines.get(id).getQuantity() : 0);
+
+            int target;
+            try {
+                target = switch (operation.op()) {
+                    case ADD -> Math.addExact(current, operation.quantity());
+                    case SET -> operation.quantity();
+                    case REMOVE -> 0;
+                };
+            } catch (ArithmeticException e) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Quantity too large",
+                    "operation_index", i,
+                    "variant_id", variantId
+                ));
+            }
+            if (target > 0) {
+                ProductVariant variant = variants.get(variantId);
+                if (variant == null) {
+                    return ResponseEntity.badRequest().body(Map.of(
+                        "error", "Product variant not found",
+                        "operation_index", i,
+                        "variant_id", variantId
+                    ));
+                }
+                if (variant.getIsActive() != null && !variant.getIsActive()) {
+                    return ResponseEntity.badRequest().body(Map.of(
+                        "error", "This product variant is no longer available",
+                        "operation_index", i,
+                        "variant_id", variantId
+                    ));
+                }
+                Product product = variant.getProduct();
+                if (product != null && product.getIsActive() != null && !product.getIsActive()) {
+                    return ResponseEntity.badRequest().body(Map.of(
+                        "error", "This product is no longer available",
+                        "operation_index", i,
+                        "product_id", product.getProductId()
+                    ));
+                }
+            }
+            if (operation.op() == BatchOperation.Op.ADD) {
+                repriced.add(variantId);
+            }
+            quantities.put(variantId, target);
+        }
+
+        // Stock is checked once per variant, against the final quantity
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Long variantId = entry.getKey();
+            int target = entry.getValue();
+            CartProduct existing = existingLines.get(variantId);
+            int before = existing != null ? existing.getQuantity() : 0;
+            if (target <= before) {
+                continue;
+            }
+            ProductVariant variant = variants.get(variantId);
+            int availableStock = inventoryLedger.availableStock(variantId, variant.getStockQuantity());
+            if (availableStock < target) {
+                Product product = variant.getProduct();
+                return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Insufficient stock",
+                    "variant_id", variantId,
+                    "available_stock", availableStock,
+                    "requested_quantity", target,
+                    "product_name", product != null ? product.getProductName() : "Unknown"
+                ));
+            }
+        }
+
+        List<CartProduct> toSave = new ArrayList<>();
+        List<CartProduct> toDelete = new ArrayList<>();
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Long variantId = entry.getKey();
+            int target = entry.getValue();
+            CartProduct existing = existingLines.get(variantId);
+            String status;
+            if (existing == null && target == 0) {
+                status = "unchanged";
+            } else if (existing == null) {
+                CartProduct cartProduct = new CartProduct();
+                cartProduct.setCartId(cartId);
+                cartProduct.setVariantId(variantId);
+                cartProduct.setQuantity(target);
+                cartProduct.setPriceAtTime(priceAtTime(variants.get(variantId)));
+                toSave.add(cartProduct);
+                status = "added";
+            } else if (target == 0) {
+                toDelete.add(existing);
+                status = "removed";
+            } else if (target != existing.getQuantity() || repriced.contains(variantId)) {
+                existing.setQuantity(target);
+                if (repriced.contains(variantId)) {
+                    existing.setPriceAtTime(priceAtTime(variants.get(variantId)));
+                }
+                toSave.add(existing);
+                status = "updated";
+            } else {
+                status = "unchanged";
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("variant_id", variantId);
+            result.put("quantity", target);
+            result.put("status", status);
+            results.add(result);
+        }
+
+        List<CartProduct> saved = cartProductRepository.saveAll(toSave);
+        if (!toDelete.isEmpty()) {
+            cartProductRepository.deleteAllInBatch(toDelete);
+        }
+
+        Map<Long, Long> lineIds = new HashMap<>();
+        saved.forEach(line -> lineIds.put(line.getVariantId(), line.getId()));
+        toDelete.forEach(line -> lineIds.put(line.getVariantId(), line.getId()));
+        results.forEach(result -> result.put("cart_product_id", lineIds.get((Long) result.get("variant_id"))));
+
+        TransactionCallbacks.afterCommit(() -> {
+            saved.forEach(line -> cartAggregateService.lineSaved(line, variants.get(line.getVariantId())));
+            toDelete.forEach(line -> cartAggregateService.lineRemoved(cartId, line.getId()));
+        });
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("cart_id", cartId);
+        response.put("operations_applied", operations.size());
+        response.put("lines_written", saved.size());
+        response.put("lines_removed", toDelete.size());
+        response.put("results", results);
+        return ResponseEntity.ok(response);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteCartProduct(@PathVariable Long id) {
         try {
@@ -322,6 +556,7 @@ public class CartProductController {
             }
 
             cartProductRepository.deleteById(id);
+            cartAggregateService.lineRemoved(cartProduct.getCartId(), id);
 
             return ResponseEntity.ok(Map.of(
                 "success", true,
@@ -335,4 +570,47 @@ public class CartProductController {
             ));
         }
     }
+
+    // Base price + variant price, the same rule as single adds
+    private static BigDecimal priceAtTime(ProductVariant variant) {
+        Product product = variant.getProduct();
+        if (product != null && product.getBasePrice() != null && variant.getPrice() != null) {
+            return product.getBasePrice().add(variant.getPrice());
+        } else if (variant.getPrice() != null) {
+            return variant.getPrice();
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private record BatchOperation(Op op, Long variantId, int quantity) {
+
+        enum Op { ADD, SET, REMOVE }
+
+        /**
+         * Null if the entry is not a well-formed operation.
+         */
+        static BatchOperation parse(Object raw) {
+            if (!(raw instanceof Map<?, ?> entry) || entry.get("op") == null || entry.get("variant_id") == null) {
+                return null;
+            }
+            Op op;
+            try {
+                op = Op.valueOf(entry.get("op").toString().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            Long variantId = Long.valueOf(entry.get("variant_id").toString());
+            if (op == Op.REMOVE) {
+                return new BatchOperation(op, variantId, 0);
+            }
+            if (entry.get("quantity") == null) {
+                return null;
+            }
+            int quantity = Integer.parseInt(entry.get("quantity").toString());
+            if (quantity < 0 || (op == Op.ADD && quantity == 0)) {
+                return null;
+            }
+            return new BatchOperation(op, variantId, quantity);
+        }
+    }
 }
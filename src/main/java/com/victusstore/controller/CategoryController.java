@@ -1,14 +1,19 @@
 package com.victusstore.controller;
 
+import com.victusstore.event.CatalogChangedEvent;
 import com.victusstore.model.Category;
 import com.victusstore.repository.CategoryRepository;
+import com.victusstore.service.CatalogResponseCache;
+import com.victusstore.service.CategoryTreeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -17,10 +22,46 @@ public class CategoryController {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private CategoryTreeService categoryTreeService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> categories = categoryRepository.findAll();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<byte[]> getAllCategories() {
+        return catalogResponseCache.serve("categories", () -> categoryRepository.findAll());
+    }
+
+    /**
+     * Nested category tree with direct and subtree product counts.
+     */
+    @GetMapping("/tree")
+    public ResponseEntity<byte[]> getCategoryTree() {
+        return catalogResponseCache.serve("categories/tree",
+                () -> categoryTreeService.getRoots().stream().map(this::toTreeNode).toList());
+    }
+
+    /**
+     * Where a category sits in the tree: its ancestor path, all descendants and product counts.
+     */
+    @GetMapping("/{id}/subtree")
+    public ResponseEntity<?> getCategorySubtree(@PathVariable Long id) {
+        CategoryTreeService.CategoryNode node = categoryTreeService.getNode(id);
+        if (node == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "Category not found"));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("category_id", node.categoryId());
+        response.put("category_name", node.categoryName());
+        response.put("ancestor_ids", node.ancestorIds());
+        response.put("descendant_ids", node.descendantIds());
+        response.put("product_count", node.productCount());
+        response.put("subtree_product_count", node.subtreeProductCount());
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/{id}")
@@ -31,19 +72,38 @@ public class CategoryController {
     }
 
     @PostMapping
-    public ResponseEntity<Category> createCategory(@RequestBody Category category) {
+    public ResponseEntity<?> createCategory(@RequestBody Category category) {
+        if (category.getParentCategoryId() != null && !categoryRepository.existsById(category.getParentCategoryId())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Parent category not found"));
+        }
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(CatalogChangedEvent.category());
         return ResponseEntity.ok(savedCategory);
     }
 
+    /**
+     * Updates a category. {@code parentCategoryId} is only changed when present, and is
+     * rejected if it does not exist or would make the category its own ancestor.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<Category> updateCategory(@PathVariable Long id, @RequestBody Category categoryDetails) {
+    public ResponseEntity<?> updateCategory(@PathVariable Long id, @RequestBody Category categoryDetails) {
+        Long parentId = categoryDetails.getParentCategoryId();
+        if (parentId != null) {
+            if (categoryTreeService.wouldCreateCycle(id, parentId)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Category cannot be moved under itself or its subcategories"));
+            }
+            if (!categoryRepository.existsById(parentId)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Parent category not found"));
+            }
+        }
         return categoryRepository.findById(id)
                 .map(category -> {
+                    if (parentId != null) category.setParentCategoryId(parentId);
                     category.setCategoryName(categoryDetails.getCategoryName());
                     category.setCategoryImage(categoryDetails.getCategoryImage());
                     category.setIsActive(categoryDetails.getIsActive());
                     Category updatedCategory = categoryRepository.save(category);
+                    eventPublisher.publishEvent(CatalogChangedEvent.category());
                     return ResponseEntity.ok(updatedCategory);
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -54,10 +114,23 @@ public class CategoryController {
         return categoryRepository.findById(id)
                 .map(category -> {
                     categoryRepository.delete(category);
+                    eventPublisher.publishEvent(CatalogChangedEvent.category());
                     Map<String, Boolean> response = new HashMap<>();
                     response.put("deleted", Boolean.TRUE);
                     return ResponseEntity.ok(response);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    private Map<String, Object> toTreeNode(CategoryTreeService.CategoryNode node) {
+        Map<String, Object> treeNode = new LinkedHashMap<>();
+        treeNode.put("category_id", node.categoryId());
+        treeNode.put("category_name", node.categoryName());
+        treeNode.put("category_image", node.categoryImage());
+        treeNode.put("is_active", node.isActive());
+        treeNode.put("product_count", node.productCount());
+        treeNode.put("subtree_product_count", node.subtreeProductCount());
+        treeNode.put("children", categoryTreeService.getChildren(node).stream().map(this::toTreeNode).toList());
+        return treeNode;
+    }
 }
@@ -1,9 +1,12 @@
 package com.victusstore.controller;
 
+import com.victusstore.event.CatalogChangedEvent;
 import com.victusstore.model.Image;
 import com.victusstore.repository.ImageRepository;
+import com.victusstore.service.CatalogResponseCache;
 import com.victusstore.services.CloudinaryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -24,6 +27,12 @@ public class ImageController {
     @Autowired
     private CloudinaryService cloudinaryService;
 
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @GetMapping
     public ResponseEntity<List<Image>> getAllImages() {
         List<Image> images = imageRepository.findAll();
@@ -41,9 +50,9 @@ public class ImageController {
     }
 
     @GetMapping("/product/{productId}")
-    public ResponseEntity<List<Image>> getImagesByProductId(@PathVariable Long productId) {
-        List<Image> images = imageRepository.findByProductId(productId);
-        return ResponseEntity.ok(images);
+    public ResponseEntity<byte[]> getImagesByProductId(@PathVariable Long productId) {
+        return catalogResponseCache.serve("images/product/" + productId,
+                () -> imageRepository.findByProductId(productId));
     }
 
     /**
@@ -84,6 +93,7 @@ public class ImageController {
             }
 
             Image savedImage = imageRepository.save(image);
+            eventPublisher.publishEvent(CatalogChangedEvent.image(productId));
 
             // Return response with both upload and database info
             Map<String, Object> response = new HashMap<>();
@@ -126,37 +136,68 @@ public class ImageController {
                 return ResponseEntity.badRequest().body(Map.of("error", "No files provided"));
             }
 
-            // Upload all files to Cloudinary
-            Map<String, Object>[] uploadResults = cloudinaryService.uploadMultipleImages(files, folder);
+            // Upload all files in parallel; each file succeeds or fails on its own
+            List<CloudinaryService.UploadResult> uploadResults = cloudinaryService.uploadMultipleImages(files, folder);
+            List<CloudinaryService.UploadResult> uploaded = uploadResults.stream()
+                    .filter(CloudinaryService.UploadResult::succeeded)
+                    .toList();
 
-            // Save all to database
-            List<Map<String, Object>> savedImages = new ArrayList<>();
-            for (int i = 0; i < uploadResults.length; i++) {
-                String imageUrl = uploadResults[i].get("url").toString();
+            List<Map<String, Object>> failures = new ArrayList<>();
+            for (CloudinaryService.UploadResult result : uploadResults) {
+                if (!result.succeeded()) {
+                    Map<String, Object> failure = new HashMap<>();
+                    failure.put("index", result.index());
+                    failure.put("filename", result.filename());
+                    failure.put("error", result.error());
+                    failures.add(failure);
+                }
+            }
+
+            if (uploaded.isEmpty()) {
+                boolean allRejected = uploadResults.stream().allMatch(CloudinaryService.UploadResult::rejected);
+                return ResponseEntity.status(allRejected ? 400 : 500).body(Map.of(
+                        "error", "Failed to upload images",
+                        "failures", failures
+                ));
+            }
+
+            // Save all successful uploads to database in one batch
+            List<Image> images = new ArrayList<>(uploaded.size());
+            for (int i = 0; i < uploaded.size(); i++) {
+                String imageUrl = uploaded.get(i).upload().get("url").toString();
                 
-                Image image = Image.builder()
+                images.add(Image.builder()
                         .productId(productId)
                         .variantId(variantId)
                         .imageUrl(imageUrl)
                         .isPrimary(i == 0) // First image is primary by default
-                        .build();
+                        .build());
+            }
+            List<Image> saved = imageRepository.saveAll(images);
 
-                Image savedImage = imageRepository.save(image);
+            List<Map<String, Object>> savedImages = new ArrayList<>();
+            for (int i = 0; i < saved.size(); i++) {
+                Image savedImage = saved.get(i);
 
                 Map<String, Object> imageInfo = new HashMap<>();
                 imageInfo.put("image_id", savedImage.getImageId());
                 imageInfo.put("image_url", savedImage.getImageUrl());
                 imageInfo.put("is_primary", savedImage.getIsPrimary());
-                imageInfo.put("cloudinary_public_id", uploadResults[i].get("public_id"));
+                imageInfo.put("cloudinary_public_id", uploaded.get(i).upload().get("public_id"));
+                imageInfo.put("index", uploaded.get(i).index());
 
                 savedImages.add(imageInfo);
             }
 
+            eventPublisher.publishEvent(CatalogChangedEvent.image(productId));
+
             Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", files.length + " images uploaded successfully");
-            response.put("uploaded_count", files.length);
+            response.put("success", failures.isEmpty());
+            response.put("message", saved.size() + " of " + files.length + " images uploaded successfully");
+            response.put("uploaded_count", saved.size());
+            response.put("failed_count", failures.size());
             response.put("images", savedImages);
+            response.put("failures", failures);
 
             return ResponseEntity.status(201).body(response);
 
@@ -181,6 +222,7 @@ public class ImageController {
             }
 
             Image savedImage = imageRepository.save(image);
+            eventPublisher.publishEvent(CatalogChangedEvent.image(savedImage.getProductId()));
             return ResponseEntity.status(201).body(savedImage);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -213,6 +255,7 @@ public class ImageController {
                     image.setVariantId(imageDetails.getVariantId());
                 }
                 Image updatedImage = imageRepository.save(image);
+                eventPublisher.publishEvent(CatalogChangedEvent.image(updatedImage.getProductId()));
                 return ResponseEntity.ok(updatedImage);
             } else {
                 return ResponseEntity.status(404).body(Map.of("message", "Image not found"));
@@ -225,8 +268,10 @@ public class ImageController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteImage(@PathVariable Long id) {
         try {
-            if (imageRepository.existsById(id)) {
-                imageRepository.deleteById(id);
+            Optional<Image> imageOpt = imageRepository.findById(id);
+            if (imageOpt.isPresent()) {
+                imageRepository.delete(imageOpt.get());
+                eventPublisher.publishEvent(CatalogChangedEvent.image(imageOpt.get().getProductId()));
                 return ResponseEntity.ok(Map.of("message", "Image deleted successfully"));
             } else {
                 return ResponseEntity.status(404).body(Map.of("message", "Image not found"));
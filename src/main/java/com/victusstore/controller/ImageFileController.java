@@ -0,0 +1,85 @@
+package com.victusstore.controller;
+
+import com.victusstore.services.FileSystemImageStorage;
+import com.victusstore.services.FileSystemImageStorage.Rendition;
+import com.victusstore.services.FileSystemImageStorage.RenditionFile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves images stored by {@link FileSystemImageStorage}. Keys are random and
+ * never rewritten, so responses are cacheable for a year, except an original
+ * standing in for a rendition that is not made yet. Range requests are
+ * answered with 206 partial content by Spring's Resource handling.
+ */
+@RestController
+@RequestMapping("/api/images/files")
+@ConditionalOnProperty(name = "app.images.storage", havingValue = "filesystem")
+public class ImageFileController {
+
+    @Autowired
+    private FileSystemImageStorage imageStorage;
+
+    /**
+     * ⭐ NEW: Original image, or a resized rendition with ?size=thumbnail|medium|large
+     */
+    @GetMapping("/{*path}")
+    public ResponseEntity<?> getImageFile(
+            @PathVariable String path,
+            @RequestParam(value = "size", required = false) String size) throws IOException {
+        String key = path.startsWith("/") ? path.substring(1) : path;
+
+        Rendition rendition = null;
+        if (size != null && !size.equalsIgnoreCase("original")) {
+            rendition = Rendition.fromParam(size);
+            if (rendition == null) {
+                return ResponseEntity.badRequest().body(Map.of(
+                        "error", "Unknown image size",
+                        "allowed_sizes", Arrays.stream(Rendition.values()).map(Rendition::paramName).toList()
+                ));
+            }
+        }
+
+        Path file = null;
+        boolean pending = false;
+        try {
+            if (rendition != null) {
+                RenditionFile resolved = imageStorage.resolveRendition(key, rendition);
+                if (resolved != null) {
+                    file = resolved.path();
+                    pending = resolved.pending();
+                }
+            } else {
+                file = imageStorage.resolveOriginal(key);
+            }
+        } catch (IllegalArgumentException e) {
+            file = null;
+        }
+        if (file == null) {
+            return ResponseEntity.status(404).body(Map.of("message", "Image not found"));
+        }
+
+        MediaType contentType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .cacheControl(pending
+                        ? CacheControl.noCache()
+                        : CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .lastModified(Files.getLastModifiedTime(file).toMillis())
+                .body(new FileSystemResource(file));
+    }
+}
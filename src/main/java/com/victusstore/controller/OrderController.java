@@ -1,17 +1,17 @@
 package com.victusstore.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.victusstore.exception.StockInsufficientException;
 import com.victusstore.model.*;
 import com.victusstore.repository.*;
+import com.victusstore.service.CartAggregateService;
 import com.victusstore.service.IdempotencyService;
+import com.victusstore.service.StockReservationService;
+import com.victusstore.util.TransactionCallbacks;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -20,7 +20,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -37,9 +36,6 @@ public class OrderController {
     @Autowired
     private CartProductRepository cartProductRepository;
 
-    @Autowired
-    private ProductVariantRepository variantRepository;
-
     @Autowired
     private AccountRepository accountRepository;
 
@@ -47,7 +43,10 @@ public class OrderController {
     private IdempotencyService idempotencyService;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private CartAggregateService cartAggregateService;
 
     @GetMapping
     public ResponseEntity<List<Order>> getAllOrders() {
@@ -90,14 +89,14 @@ public class OrderController {
         // Link cart products to the order
         for (CartProduct cartProduct : order.getOrderItems()) {
             cartProduct.setOrderId(savedOrder.getOrderId());
-            cartProductRepository.save(cartProduct);
         }
+        cartProductRepository.saveAll(order.getOrderItems());
+        order.getOrderItems().forEach(cartProduct -> cartAggregateService.evict(cartProduct.getCartId()));
 
         return ResponseEntity.ok(savedOrder);
     }
 
     @PostMapping("/from-cart/{cartId}")
-    @Transactional
     public ResponseEntity<?> createOrderFromCart(
             @PathVariable Long cartId,
             @RequestBody @Valid com.victusstore.dto.CreateOrderRequest orderRequest,
@@ -120,21 +119,15 @@ public class OrderController {
         Cart cart = cartRepository.findById(cartId)
                 .orElseThrow(() -> new IllegalArgumentException("Cart not found"));
 
-        // Check idempotency if key provided (enforce hash mismatch -> 409)
-        if (idempotencyKey != null && !idempotencyKey.isEmpty()) {
-            Optional<String> cachedResponse = idempotencyService.getCachedResponseOrThrowOnMismatch(
-                    idempotencyKey, cart.getEmail(), endpoint, orderData);
-            if (cachedResponse.isPresent()) {
-                try {
-                    Map<String, Object> response = objectMapper.readValue(
-                            cachedResponse.get(), Map.class);
-                    logger.info("Returning cached response for idempotency key: {}", idempotencyKey);
-                    return ResponseEntity.ok(response);
-                } catch (Exception e) {
-                    logger.warn("Failed to parse cached response: {}", e.getMessage());
-                }
-            }
-        }
+        // Runs once per key (hash mismatch -> 409); retries get the stored response
+        Map<String, Object> response = idempotencyService.execute(
+                idempotencyKey, cart.getEmail(), endpoint, orderData,
+                () -> placeOrderFromCart(cart, orderRequest));
+        return ResponseEntity.ok(response);
+    }
+
+    private Map<String, Object> placeOrderFromCart(Cart cart, com.victusstore.dto.CreateOrderRequest orderRequest) {
+        Long cartId = cart.getCartId();
 
         // Get cart products
         List<CartProduct> cartProducts = cartProductRepository.findByCartId(cartId);
@@ -146,29 +139,17 @@ public class OrderController {
         Account account = accountRepository.findByEmail(cart.getEmail())
                 .orElseThrow(() -> new IllegalArgumentException("Account not found"));
 
-        // Validate stock with pessimistic locking and calculate total
+        // Lock all variants in one ordered query and decrement stock in one batch
+        Map<Long, ProductVariant> variants = stockReservationService.reserve(cartProducts);
+
+        // Calculate total
         BigDecimal totalPrice = BigDecimal.ZERO;
         List<Map<String, Object>> orderItemsDetails = new ArrayList<>();
 
         for (CartProduct cartProduct : cartProducts) {
-            // Lock variant row for update
-            ProductVariant variant = variantRepository.findByIdWithLock(cartProduct.getVariantId())
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Product variant not found for cart item: " + cartProduct.getVariantId()));
-
-            int availableStock = variant.getStockQuantity();
+            ProductVariant variant = variants.get(cartProduct.getVariantId());
             int requestedQuantity = cartProduct.getQuantity();
 
-            // Validate stock - prevent going below zero
-            if (availableStock < requestedQuantity) {
-                throw new StockInsufficientException(
-                        "Not enough stock for variant " + variant.getVariantId() + 
-                        ". Available: " + availableStock + ", Requested: " + requestedQuantity,
-                        variant.getVariantId(),
-                        availableStock,
-                        requestedQuantity);
-            }
-
             // Calculate item total
             BigDecimal itemTotal = cartProduct.getPriceAtTime()
                     .multiply(BigDecimal.valueOf(requestedQuantity));
@@ -205,39 +186,17 @@ public class OrderController {
 
         Order savedOrder = orderRepository.save(order);
 
-        // Update stock quantities and link cart products to order
+        // Link cart products to order
         for (CartProduct cartProduct : cartProducts) {
-            // Lock variant again to ensure consistency
-            ProductVariant variant = variantRepository.findByIdWithLock(cartProduct.getVariantId())
-                    .orElseThrow(() -> new IllegalArgumentException("Product variant not found"));
-
-            // Double-check stock before updating
-            int availableStock = variant.getStockQuantity();
-            int requestedQuantity = cartProduct.getQuantity();
-            
-            if (availableStock < requestedQuantity) {
-                throw new StockInsufficientException(
-                        "Stock changed during processing for variant " + variant.getVariantId(),
-                        variant.getVariantId(),
-                        availableStock,
-                        requestedQuantity);
-            }
-
-            // Update stock
-            int newStock = availableStock - requestedQuantity;
-            variant.setStockQuantity(newStock);
-            variant.setUpdatedAt(LocalDateTime.now());
-            variantRepository.save(variant);
-
-            // Link cart product to order
             cartProduct.setOrderId(savedOrder.getOrderId());
-            cartProductRepository.save(cartProduct);
         }
+        cartProductRepository.saveAll(cartProducts);
 
         // Update cart (optional - mark cart as inactive)
         if (orderRequest.getClearCart() != null && orderRequest.getClearCart()) {
             cart.setIsActive(false);
             cartRepository.save(cart);
+            TransactionCallbacks.afterCommit(() -> cartAggregateService.evict(cartId));
         }
 
         // Build response
@@ -248,16 +207,10 @@ public class OrderController {
         response.put("order_status", savedOrder.getOrderStatus());
         response.put("order_items", orderItemsDetails);
 
-        // Store idempotency key if provided
-        if (idempotencyKey != null && !idempotencyKey.isEmpty()) {
-            idempotencyService.storeResponse(
-                    idempotencyKey, cart.getEmail(), endpoint, orderData, response);
-        }
-
         logger.info("Order created successfully: orderId={}, cartId={}, totalPrice={}", 
                 savedOrder.getOrderId(), cartId, totalPrice);
         
-        return ResponseEntity.ok(response);
+        return response;
     }
 
     @PutMapping("/{id}")
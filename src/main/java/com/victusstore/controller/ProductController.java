@@ -1,37 +1,146 @@
 package com.victusstore.controller;
 
+import com.victusstore.dto.CursorPage;
+import com.victusstore.dto.ProductDetail;
+import com.victusstore.dto.ProductSummary;
+import com.victusstore.event.CatalogChangedEvent;
 import com.victusstore.model.Product;
 import com.victusstore.repository.ProductRepository;
+import com.victusstore.service.CatalogResponseCache;
+import com.victusstore.service.CategoryTreeService;
+import com.victusstore.service.ProductDetailService;
+import com.victusstore.service.ProductFacetIndex;
+import com.victusstore.service.ProductSearchIndex;
+import com.victusstore.util.CursorCodec;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
+    private static final int MAX_KEYSET_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductDetailService productDetailService;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private CategoryTreeService categoryTreeService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Lists slim {@link ProductSummary} rows; the full entity graph is only served by
+     * {@link #getProductById}. Offset pagination by default. Passing {@code cursor} (empty for the first page)
+     * switches to keyset mode: constant cost per page and no count query.
+     * Bodies are cached per catalog version and carry an ETag.
+     */
     @GetMapping
-    public ResponseEntity<Page<Product>> getAllProducts(
+    public ResponseEntity<byte[]> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            Long after = CursorCodec.decode(cursor);
+            Pageable limit = keysetLimit(size);
+            return catalogResponseCache.serve("products?cursor=" + cursor + "&size=" + limit.getPageSize(), () -> {
+                List<ProductSummary> rows = after == null
+                        ? productRepository.findSummariesNewestFirst(limit)
+                        : productRepository.findSummariesNewestFirstAfter(after, limit);
+                return toCursorPage(rows, limit.getPageSize() - 1);
+            });
+        }
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productRepository.findAll(pageable);
-        return ResponseEntity.ok(products);
+        return catalogResponseCache.serve("products?page=" + page + "&size=" + size,
+                () -> productRepository.findSummaries(pageable));
+    }
+
+    /**
+     * Full-text search over product name, description and variant color, size and SKU.
+     * Matching and ranking run against the in-memory index; only the hits are read from the database.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchProducts(
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (query == null || query.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Query parameter q is required"));
+        }
+
+        List<ProductSearchIndex.SearchHit> hits =
+                productSearchIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+        List<ProductSummary> results = summariesInOrder(
+                hits.stream().map(ProductSearchIndex.SearchHit::productId).toList());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("query", query);
+        response.put("count", results.size());
+        response.put("results", results);
+        return ResponseEntity.ok(response);
     }
 
+    /**
+     * Filtered listing with facet counts. Values within one facet are ORed (color=red,blue),
+     * facets are ANDed. Each facet's counts apply every other facet's filter.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterProducts(
+            @RequestParam(value = "category", required = false) Set<Long> categoryIds,
+            @RequestParam(value = "color", required = false) Set<String> colors,
+            @RequestParam(value = "variant_size", required = false) Set<String> sizes,
+            @RequestParam(value = "min_price", required = false) BigDecimal minPrice,
+            @RequestParam(value = "max_price", required = false) BigDecimal maxPrice,
+            @RequestParam(value = "min_rating", required = false) BigDecimal minRating,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        if (page < 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Page must not be negative"));
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_KEYSET_PAGE_SIZE));
+        ProductFacetIndex.FacetResult result = productFacetIndex.query(
+                new ProductFacetIndex.FacetQuery(categoryIds, colors, sizes, minPrice, maxPrice, minRating),
+                page * pageSize, pageSize);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("results", summariesInOrder(result.productIds()));
+        response.put("total", result.total());
+        response.put("page", page);
+        response.put("size", pageSize);
+        response.put("facets", result.facets());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Full product page payload (category, seller, variants and images), served from the detail cache.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return productRepository.findById(id)
+    public ResponseEntity<ProductDetail> getProductById(@PathVariable Long id) {
+        return productDetailService.getDetail(id)
                 .map(product -> ResponseEntity.ok(product))
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -39,6 +148,7 @@ public class ProductController {
     @PostMapping
     public ResponseEntity<Product> createProduct(@RequestBody Product product) {
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(CatalogChangedEvent.product(savedProduct.getProductId()));
         return ResponseEntity.ok(savedProduct);
     }
 
@@ -51,6 +161,7 @@ public class ProductController {
                     if (productDetails.getBasePrice() != null) product.setBasePrice(productDetails.getBasePrice());
                     if (productDetails.getIsActive() != null) product.setIsActive(productDetails.getIsActive());
                     Product updatedProduct = productRepository.save(product);
+                    eventPublisher.publishEvent(CatalogChangedEvent.product(id));
                     return ResponseEntity.ok(updatedProduct);
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -61,6 +172,7 @@ public class ProductController {
         return productRepository.findById(id)
                 .map(product -> {
                     productRepository.delete(product);
+                    eventPublisher.publishEvent(CatalogChangedEvent.product(id));
                     Map<String, Boolean> response = new HashMap<>();
                     response.put("deleted", Boolean.TRUE);
                     return ResponseEntity.ok(response);
@@ -68,13 +180,85 @@ public class ProductController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Products of one category, or of the category and all its subcategories with
+     * {@code include_descendants=true}; the subtree is resolved from the in-memory category tree.
+     */
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<Page<Product>> getProductsByCategory(
+    public ResponseEntity<byte[]> getProductsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(value = "include_descendants", defaultValue = "false") boolean includeDescendants) {
+        if (includeDescendants) {
+            return getProductsInSubtree(categoryId, page, size, cursor);
+        }
+        String key = "products/category/" + categoryId;
+        if (cursor != null) {
+            Long after = CursorCodec.decode(cursor);
+            Pageable limit = keysetLimit(size);
+            return catalogResponseCache.serve(key + "?cursor=" + cursor + "&size=" + limit.getPageSize(), () -> {
+                List<ProductSummary> rows = after == null
+                        ? productRepository.findSummariesByCategoryIdNewestFirst(categoryId, limit)
+                        : productRepository.findSummariesByCategoryIdNewestFirstAfter(categoryId, after, limit);
+                return toCursorPage(rows, limit.getPageSize() - 1);
+            });
+        }
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productRepository.findByCategoryId(categoryId, pageable);
-        return ResponseEntity.ok(products);
+        return catalogResponseCache.serve(key + "?page=" + page + "&size=" + size,
+                () -> productRepository.findSummariesByCategoryId(categoryId, pageable));
+    }
+
+    private ResponseEntity<byte[]> getProductsInSubtree(Long categoryId, int page, int size, String cursor) {
+        Set<Long> categoryIds = categoryTreeService.getSubtreeIds(categoryId);
+        String key = "products/category/" + categoryId + "/subtree";
+        if (cursor != null) {
+            Long after = CursorCodec.decode(cursor);
+            Pageable limit = keysetLimit(size);
+            return catalogResponseCache.serve(key + "?cursor=" + cursor + "&size=" + limit.getPageSize(), () -> {
+                List<ProductSummary> rows = after == null
+                        ? productRepository.findSummariesByCategoryIdInNewestFirst(categoryIds, limit)
+                        : productRepository.findSummariesByCategoryIdInNewestFirstAfter(categoryIds, after, limit);
+                return toCursorPage(rows, limit.getPageSize() - 1);
+            });
+        }
+        Pageable pageable = PageRequest.of(page, size);
+        return catalogResponseCache.serve(key + "?page=" + page + "&size=" + size,
+                () -> productRepository.findSummariesByCategoryIdIn(categoryIds, pageable));
+    }
+
+    // Index hits are ranked in memory; hydrate them in one query and keep that order
+    private List<ProductSummary> summariesInOrder(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductSummary> summaries = new HashMap<>();
+        for (ProductSummary summary : productRepository.findSummariesByIds(productIds)) {
+            summaries.put(summary.productId(), summary);
+        }
+        List<ProductSummary> results = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            ProductSummary summary = summaries.get(productId);
+            if (summary != null) {
+                results.add(summary);
+            }
+        }
+        return results;
+    }
+
+    // Fetch one extra row to learn whether another page exists without counting
+    private Pageable keysetLimit(int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_KEYSET_PAGE_SIZE));
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    private CursorPage<ProductSummary> toCursorPage(List<ProductSummary> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductSummary> content = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore
+                ? CursorCodec.encode(content.get(content.size() - 1).productId())
+                : null;
+        return new CursorPage<>(content, nextCursor, hasMore, content.size());
     }
 }
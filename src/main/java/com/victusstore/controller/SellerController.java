@@ -1,8 +1,11 @@
     package com.victusstore.controller;
 
+import com.victusstore.event.CatalogChangedEvent;
 import com.victusstore.model.Seller;
+import com.victusstore.repository.ProductRepository;
 import com.victusstore.repository.SellerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,6 +20,12 @@ public class SellerController {
     @Autowired
     private SellerRepository sellerRepository;
 
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @GetMapping
     public ResponseEntity<List<Seller>> getAllSellers() {
         List<Seller> sellers = sellerRepository.findAll();
@@ -44,6 +53,11 @@ public class SellerController {
                     seller.setRating(sellerDetails.getRating());
                     seller.setIsActive(sellerDetails.getIsActive());
                     Seller updatedSeller = sellerRepository.save(seller);
+                    // Product details embed the seller's name and rating
+                    List<Long> productIds = productRepository.findIdsBySellerIdIn(List.of(id));
+                    if (!productIds.isEmpty()) {
+                        eventPublisher.publishEvent(CatalogChangedEvent.seller(productIds));
+                    }
                     return ResponseEntity.ok(updatedSeller);
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -53,7 +67,12 @@ public class SellerController {
     public ResponseEntity<Map<String, Boolean>> deleteSeller(@PathVariable Long id) {
         return sellerRepository.findById(id)
                 .map(seller -> {
+                    // The seller's products are deleted with it
+                    List<Long> productIds = productRepository.findIdsBySellerIdIn(List.of(id));
                     sellerRepository.delete(seller);
+                    if (!productIds.isEmpty()) {
+                        eventPublisher.publishEvent(CatalogChangedEvent.productsRemoved(productIds));
+                    }
                     Map<String, Boolean> response = new HashMap<>();
                     response.put("deleted", Boolean.TRUE);
                     return ResponseEntity.ok(response);
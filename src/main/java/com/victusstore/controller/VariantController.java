@@ -1,8 +1,12 @@
 package com.victusstore.controller;
 
+import com.victusstore.event.CatalogChangedEvent;
 import com.victusstore.model.ProductVariant;
 import com.victusstore.repository.ProductVariantRepository;
+import com.victusstore.service.CatalogResponseCache;
+import com.victusstore.service.InventoryLedger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
@@ -20,6 +24,7 @@ public class VariantController {
             return ResponseEntity.status(404).body(Map.of("error", "Variant not found"));
         }
         ProductVariant variant = variantOpt.get();
+        Long previousProductId = variant.getProductId();
         // Update fields
         variant.setColor(updatedVariant.getColor());
         variant.setSize(updatedVariant.getSize());
@@ -30,12 +35,26 @@ public class VariantController {
         variant.setProductId(updatedVariant.getProductId());
         variant.setUpdatedAt(java.time.LocalDateTime.now());
         ProductVariant saved = variantRepository.save(variant);
+        inventoryLedger.setStock(saved.getVariantId(), saved.getStockQuantity());
+        eventPublisher.publishEvent(CatalogChangedEvent.variant(saved.getProductId()));
+        if (previousProductId != null && !previousProductId.equals(saved.getProductId())) {
+            eventPublisher.publishEvent(CatalogChangedEvent.variant(previousProductId));
+        }
         return ResponseEntity.ok(saved);
     }
 
     @Autowired
     private ProductVariantRepository variantRepository;
 
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @PostMapping
     public ResponseEntity<?> createVariant(@RequestBody ProductVariant variant) {
         try {
@@ -43,6 +62,8 @@ public class VariantController {
             variant.setCreatedAt(java.time.LocalDateTime.now());
             variant.setUpdatedAt(java.time.LocalDateTime.now());
             ProductVariant saved = variantRepository.save(variant);
+            inventoryLedger.setStock(saved.getVariantId(), saved.getStockQuantity());
+            eventPublisher.publishEvent(CatalogChangedEvent.variant(saved.getProductId()));
             return ResponseEntity.status(201).body(saved);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -74,7 +95,7 @@ public class VariantController {
                 response.put("variant_id", variant.getVariantId());
                 response.put("color", variant.getColor());
                 response.put("size", variant.getSize());
-                response.put("stock_quantity", variant.getStockQuantity());
+                response.put("stock_quantity", inventoryLedger.availableStock(variant.getVariantId(), variant.getStockQuantity()));
                 if (variant.getProduct() != null) {
                     response.put("product_name", variant.getProduct().getProductName());
                 }
@@ -88,7 +109,9 @@ public class VariantController {
     }
 
     @GetMapping("/product/{productId}")
-    public ResponseEntity<List<ProductVariant>> getVariantsByProduct(@PathVariable Long productId) {
-        return ResponseEntity.ok(variantRepository.findByProductId(productId));
+    public ResponseEntity<byte[]> getVariantsByProduct(@PathVariable Long productId) {
+        // Includes stock, so checkouts against this product invalidate it too
+        return catalogResponseCache.serve("variants/product/" + productId, productId,
+                () -> variantRepository.findByProductId(productId));
     }
 }
@@ -0,0 +1,114 @@
+package com.victusstore.dto;
+
+import com.victusstore.model.CartProduct;
+import com.victusstore.model.Product;
+import com.victusstore.model.ProductVariant;
+import com.victusstore.util.Money;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable snapshot of a cart and its lines. Totals are kept in minor units
+ * and adjusted per line change instead of being re-summed.
+ */
+public record CartView(
+        Long cartId,
+        String email,
+        Boolean isActive,
+        List<Line> lines,
+        long totalMinor,
+        int totalQuantity) {
+
+    public record Line(
+            Long cartProductId,
+            Long variantId,
+            Long productId,
+            String productName,
+            String color,
+            String size,
+            String sku,
+            int quantity,
+            long unitPriceMinor) {
+
+        // Used by the JPQL constructor expression in CartProductRepository
+        public Line(Long cartProductId, Long variantId, Long productId, String productName,
+                    String color, String size, String sku, Integer quantity, BigDecimal priceAtTime) {
+            this(cartProductId, variantId, productId, productName, color, size, sku,
+                    quantity == null ? 0 : quantity, Money.toMinorUnits(priceAtTime));
+        }
+
+        public static Line of(CartProduct cartProduct, ProductVariant variant) {
+            Product product = variant != null ? variant.getProduct() : null;
+            return new Line(
+                    cartProduct.getId(),
+                    cartProduct.getVariantId(),
+                    product != null ? product.getProductId() : null,
+                    product != null ? product.getProductName() : null,
+                    variant != null ? variant.getColor() : null,
+                    variant != null ? variant.getSize() : null,
+                    variant != null ? variant.getSku() : null,
+                    cartProduct.getQuantity(),
+                    Money.toMinorUnits(cartProduct.getPriceAtTime()));
+        }
+
+        public long lineTotalMinor() {
+            return Money.times(unitPriceMinor, quantity);
+        }
+    }
+
+    public static CartView of(Long cartId, String email, Boolean isActive, List<Line> lines) {
+        long total = 0;
+        int quantity = 0;
+        for (Line line : lines) {
+            total = Math.addExact(total, line.lineTotalMinor());
+            quantity += line.quantity();
+        }
+        return new CartView(cartId, email, isActive, List.copyOf(lines), total, quantity);
+    }
+
+    /**
+     * This cart with {@code line} added, or replacing the line with the same id.
+     */
+    public CartView withLine(Line line) {
+        List<Line> updated = new ArrayList<>(lines.size() + 1);
+        long total = totalMinor;
+        int quantity = totalQuantity;
+        boolean replaced = false;
+        for (Line existing : lines) {
+            if (existing.cartProductId().equals(line.cartProductId())) {
+                total -= existing.lineTotalMinor();
+                quantity -= existing.quantity();
+                updated.add(line);
+                replaced = true;
+            } else {
+                updated.add(existing);
+            }
+        }
+        if (!replaced) {
+            updated.add(line);
+        }
+        return new CartView(cartId, email, isActive, List.copyOf(updated),
+                Math.addExact(total, line.lineTotalMinor()), quantity + line.quantity());
+    }
+
+    public CartView withoutLine(Long cartProductId) {
+        List<Line> updated = new ArrayList<>(lines.size());
+        long total = totalMinor;
+        int quantity = totalQuantity;
+        for (Line existing : lines) {
+            if (existing.cartProductId().equals(cartProductId)) {
+                total -= existing.lineTotalMinor();
+                quantity -= existing.quantity();
+            } else {
+                updated.add(existing);
+            }
+        }
+        return new CartView(cartId, email, isActive, List.copyOf(updated), total, quantity);
+    }
+
+    public BigDecimal totalPrice() {
+        return Money.fromMinorUnits(totalMinor);
+    }
+}
@@ -0,0 +1,46 @@
+package com.victusstore.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Everything the product page renders, assembled from two queries.
+ * Stock is deliberately left out so checkouts do not invalidate the cached
+ * detail; use /api/variants/{id}/check-availability for live stock.
+ */
+public record ProductDetail(
+        Long productId,
+        String productName,
+        String description,
+        BigDecimal basePrice,
+        Long categoryId,
+        Long sellerId,
+        BigDecimal productRating,
+        Boolean isActive,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        CategoryRef category,
+        SellerRef seller,
+        List<VariantDetail> variants,
+        List<ImageRef> images) {
+
+    public record CategoryRef(Long categoryId, String categoryName, Long parentCategoryId) {
+    }
+
+    public record SellerRef(Long sellerId, String sellerName, BigDecimal rating) {
+    }
+
+    public record VariantDetail(
+            Long variantId,
+            String color,
+            String size,
+            BigDecimal price,
+            String sku,
+            Boolean isActive,
+            List<ImageRef> images) {
+    }
+
+    public record ImageRef(Long imageId, Long variantId, String imageUrl, Boolean isPrimary) {
+    }
+}
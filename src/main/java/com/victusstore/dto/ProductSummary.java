@@ -0,0 +1,23 @@
+package com.victusstore.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * List-view projection of a product, built in a single SQL statement.
+ * Prices are what a shopper pays (base price plus variant price) across the
+ * product's active variants; both fall back to the base price without variants.
+ */
+public record ProductSummary(
+        Long productId,
+        String productName,
+        BigDecimal basePrice,
+        Long categoryId,
+        Long sellerId,
+        BigDecimal productRating,
+        Boolean isActive,
+        LocalDateTime createdAt,
+        String primaryImageUrl,
+        BigDecimal minPrice,
+        BigDecimal maxPrice) {
+}
@@ -0,0 +1,65 @@
+package com.victusstore.event;
+
+import java.util.List;
+
+/**
+ * Published by the catalog controllers after a write so read models
+ * (caches, indexes) can refresh. {@code productId} is null for category changes.
+ * {@link Type#STOCK} is published by checkout and only concerns stock figures.
+ * {@link Type#REMOTE} means another replica changed the catalog; what changed
+ * is unknown, so listeners refresh everything.
+ *
+ * {@link Type#SELLER} and {@link Type#PRODUCTS_REMOVED} cover many products in
+ * one event, listed in {@code productIds} (their {@code productId} is null): a
+ * seller's own fields changed, which only product details embed, or a seller
+ * or account was deleted and its products with it.
+ */
+public record CatalogChangedEvent(Type type, Long productId, List<Long> productIds) {
+
+    public enum Type {
+        PRODUCT,
+        VARIANT,
+        IMAGE,
+        CATEGORY,
+        STOCK,
+        SELLER,
+        PRODUCTS_REMOVED,
+        REMOTE
+    }
+
+    public CatalogChangedEvent(Type type, Long productId) {
+        this(type, productId, productId == null ? List.of() : List.of(productId));
+    }
+
+    public static CatalogChangedEvent product(Long productId) {
+        return new CatalogChangedEvent(Type.PRODUCT, productId);
+    }
+
+    public static CatalogChangedEvent variant(Long productId) {
+        return new CatalogChangedEvent(Type.VARIANT, productId);
+    }
+
+    public static CatalogChangedEvent image(Long productId) {
+        return new CatalogChangedEvent(Type.IMAGE, productId);
+    }
+
+    public static CatalogChangedEvent category() {
+        return new CatalogChangedEvent(Type.CATEGORY, null);
+    }
+
+    public static CatalogChangedEvent stock(Long productId) {
+        return new CatalogChangedEvent(Type.STOCK, productId);
+    }
+
+    public static CatalogChangedEvent seller(List<Long> productIds) {
+        return new CatalogChangedEvent(Type.SELLER, null, List.copyOf(productIds));
+    }
+
+    public static CatalogChangedEvent productsRemoved(List<Long> productIds) {
+        return new CatalogChangedEvent(Type.PRODUCTS_REMOVED, null, List.copyOf(productIds));
+    }
+
+    public static CatalogChangedEvent remote() {
+        return new CatalogChangedEvent(Type.REMOTE, null);
+    }
+}
@@ -120,6 +120,22 @@ public class GlobalExceptionHandler {
                 .body(ErrorResponse.builder().error(errorDetail).build());
     }
 
+    @ExceptionHandler(IdempotencyInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyInProgressException(
+            IdempotencyInProgressException ex) {
+        String traceId = MDC.get("traceId");
+        logger.warn("Idempotent request still in progress: {}", ex.getMessage());
+
+        ErrorResponse.ErrorDetail errorDetail = ErrorResponse.ErrorDetail.builder()
+                .code("IDEMPOTENCY_KEY_IN_PROGRESS")
+                .message(ex.getMessage())
+                .traceId(traceId)
+                .build();
+
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ErrorResponse.builder().error(errorDetail).build());
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ErrorResponse> handleAccessDeniedException(
             AccessDeniedException ex) {
@@ -37,23 +37,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String authHeader = request.getHeader(AUTHORIZATION_HEADER);
         String token = null;
-        String email = null;
 
         if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
             token = authHeader.substring(BEARER_PREFIX.length());
             try {
-                email = jwtUtil.extractEmail(token);
+                // One cached verification instead of a signature check per extracted claim
+                JwtUtil.TokenClaims claims = jwtUtil.verify(token);
+                String email = claims.email();
                 if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    if (!jwtUtil.isTokenExpired(token)) {
-                        String role = jwtUtil.extractRole(token);
-                        List<SimpleGrantedAuthority> authorities = Collections.singletonList(
-                                new SimpleGrantedAuthority("ROLE_" + role));
+                    List<SimpleGrantedAuthority> authorities = Collections.singletonList(
+                            new SimpleGrantedAuthority("ROLE_" + claims.role()));
 
-                        UsernamePasswordAuthenticationToken authentication =
-                                new UsernamePasswordAuthenticationToken(email, null, authorities);
-                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                    }
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(email, null, authorities);
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
             } catch (Exception e) {
                 logger.warn("JWT token validation failed: {}", e.getMessage());
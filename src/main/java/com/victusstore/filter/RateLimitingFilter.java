@@ -1,5 +1,8 @@
 package com.victusstore.filter;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.victusstore.config.RateLimitApiKeys;
+import com.victusstore.config.RateLimitRuleMatcher;
 import com.victusstore.config.RateLimitingConfig;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -10,10 +13,14 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Map;
 
 @Component
 @Order(2)
@@ -24,54 +31,64 @@ public class RateLimitingFilter extends OncePerRequestFilter {
     @Autowired
     private RateLimitingConfig.RateLimiter rateLimiter;
 
+    @Autowired
+    private RateLimitRuleMatcher ruleMatcher;
+
+    @Autowired
+    private RateLimitApiKeys apiKeys;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
 
-        String path = request.getRequestURI();
-        String clientId = getClientId(request);
-
-        // Rate limit rules
-        if (path.startsWith("/api/auth/login")) {
-            if (!rateLimiter.allowRequest(clientId + ":login", 5, 60000)) { // 5 requests per minute
-                logger.warn("Rate limit exceeded for login: {}", clientId);
+        RateLimitRuleMatcher.CompiledRule rule = ruleMatcher.match(request.getMethod(), request.getRequestURI());
+        if (rule != null) {
+            String clientId = getClientId(request, rule);
+            if (!rateLimiter.allowRequest(rule.name(), clientId, rule.limit(), rule.windowMs())) {
+                rule.recordLimited();
+                logger.warn("Rate limit exceeded for {}: {}", rule.name(), clientId);
                 response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
                 response.setContentType("application/json");
-                response.getWriter().write("{\"error\":{\"code\":\"RATE_LIMIT_EXCEEDED\",\"message\":\"Too many login attempts. Please try again later.\"}}");
+                // The message comes from configuration, so let Jackson do the escaping
+                objectMapper.writeValue(response.getWriter(), Map.of("error", Map.of(
+                        "code", "RATE_LIMIT_EXCEEDED",
+                        "message", rule.message())));
                 return;
             }
-        } else if (path.startsWith("/api/auth/register")) {
-            if (!rateLimiter.allowRequest(clientId + ":register", 3, 60000)) { // 3 requests per minute
-                logger.warn("Rate limit exceeded for register: {}", clientId);
-                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-                response.setContentType("application/json");
-                response.getWriter().write("{\"error\":{\"code\":\"RATE_LIMIT_EXCEEDED\",\"message\":\"Too many registration attempts. Please try again later.\"}}");
-                return;
+            rule.recordAllowed();
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private String getClientId(HttpServletRequest request, RateLimitRuleMatcher.CompiledRule rule) {
+        switch (rule.keyStrategy()) {
+            case USER -> {
+                // The security filter chain has already run, so a valid JWT is in the context
+                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+                if (authentication != null && authentication.isAuthenticated()
+                        && !(authentication instanceof AnonymousAuthenticationToken)) {
+                    return authentication.getName();
+                }
             }
-        } else if (path.startsWith("/api/orders/from-cart")) {
-            if (!rateLimiter.allowRequest(clientId + ":checkout", 10, 60000)) { // 10 requests per minute
-                logger.warn("Rate limit exceeded for checkout: {}", clientId);
-                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-                response.setContentType("application/json");
-                response.getWriter().write("{\"error\":{\"code\":\"RATE_LIMIT_EXCEEDED\",\"message\":\"Too many checkout attempts. Please try again later.\"}}");
-                return;
+            case API_KEY -> {
+                String client = apiKeys.clientFor(request.getHeader(rule.keyHeader()));
+                if (client != null) {
+                    return client;
+                }
             }
-        } else if (path.startsWith("/api/admin/coupons/validate")) {
-            if (!rateLimiter.allowRequest(clientId + ":validate", 20, 60000)) { // 20 requests per minute
-                logger.warn("Rate limit exceeded for coupon validation: {}", clientId);
-                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-                response.setContentType("application/json");
-                response.getWriter().write("{\"error\":{\"code\":\"RATE_LIMIT_EXCEEDED\",\"message\":\"Too many coupon validation attempts. Please try again later.\"}}");
-                return;
+            default -> {
             }
         }
-
-        filterChain.doFilter(request, response);
+        return getClientIp(request);
     }
 
-    private String getClientId(HttpServletRequest request) {
+    private String getClientIp(HttpServletRequest request) {
         // Try to get client IP
         String ip = request.getRemoteAddr();
         String forwarded = request.getHeader("X-Forwarded-For");
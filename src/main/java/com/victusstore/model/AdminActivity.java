@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
 public class AdminActivity {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "admin_activities_activity_id_gen")
+    @SequenceGenerator(name = "admin_activities_activity_id_gen", sequenceName = "admin_activities_activity_id_seq", allocationSize = 50)
     @Column(name = "activity_id")
     private Long activityId;
     
@@ -38,12 +39,16 @@ public class AdminActivity {
     @Column(name = "user_agent", length = 500)
     private String userAgent;
     
-    @Column(name = "created_at")
+    // Partition key of admin_activities (monthly ranges)
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
     
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        // Set when the activity is recorded; the audit writer may persist it later
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
     }
 }
 
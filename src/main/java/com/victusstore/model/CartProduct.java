@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 public class CartProduct {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_products_id_gen")
+    @SequenceGenerator(name = "cart_products_id_gen", sequenceName = "cart_products_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "variant_id", nullable = false)
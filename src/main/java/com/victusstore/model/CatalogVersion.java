@@ -0,0 +1,24 @@
+package com.victusstore.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Single-row counter shared by every replica; bumped after each catalog write
+ * so nodes that did not see the write can drop their catalog caches.
+ */
+@Entity
+@Table(name = "catalog_version")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogVersion {
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class Image {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "images_image_id_gen")
+    @SequenceGenerator(name = "images_image_id_gen", sequenceName = "images_image_id_seq", allocationSize = 50)
     @Column(name = "image_id")
     private Long imageId;
 
@@ -16,7 +16,8 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_order_id_gen")
+    @SequenceGenerator(name = "orders_order_id_gen", sequenceName = "orders_order_id_seq", allocationSize = 50)
     @Column(name = "order_id")
     private Long orderId;
 
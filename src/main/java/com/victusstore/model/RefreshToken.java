@@ -8,7 +8,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "refresh_tokens", indexes = {
     @Index(name = "idx_refresh_token_token", columnList = "token", unique = true),
-    @Index(name = "idx_refresh_token_user_email", columnList = "user_email")
+    @Index(name = "idx_refresh_token_user_email", columnList = "user_email"),
+    @Index(name = "idx_refresh_token_expires_at", columnList = "expires_at")
 })
 @Data
 @NoArgsConstructor
@@ -4,15 +4,43 @@ import com.victusstore.model.AdminActivity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * admin_activities is partitioned by month on created_at, so every listing
+ * takes a [from, to) range and PostgreSQL only scans the matching partitions.
+ */
 @Repository
 public interface AdminActivityRepository extends JpaRepository<AdminActivity, Long> {
-    List<AdminActivity> findByAdminEmail(String adminEmail);
-    List<AdminActivity> findByEntityType(String entityType);
-    List<AdminActivity> findByActionType(String actionType);
-    Page<AdminActivity> findByAdminEmailOrderByCreatedAtDesc(String adminEmail, Pageable pageable);
-    Page<AdminActivity> findAllByOrderByCreatedAtDesc(Pageable pageable);
-}
 
+    @Query("SELECT a FROM AdminActivity a WHERE a.createdAt >= :from AND a.createdAt < :to ORDER BY a.createdAt DESC")
+    Page<AdminActivity> findInRange(@Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to,
+                                    Pageable pageable);
+
+    @Query("SELECT a FROM AdminActivity a WHERE a.adminEmail = :adminEmail "
+            + "AND a.createdAt >= :from AND a.createdAt < :to ORDER BY a.createdAt DESC")
+    Page<AdminActivity> findByAdminEmailInRange(@Param("adminEmail") String adminEmail,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to,
+                                                Pageable pageable);
+
+    @Query("SELECT a FROM AdminActivity a WHERE a.entityType = :entityType "
+            + "AND a.createdAt >= :from AND a.createdAt < :to ORDER BY a.createdAt DESC")
+    List<AdminActivity> findByEntityTypeInRange(@Param("entityType") String entityType,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to,
+                                                Pageable pageable);
+
+    @Query("SELECT a FROM AdminActivity a WHERE a.actionType = :actionType "
+            + "AND a.createdAt >= :from AND a.createdAt < :to ORDER BY a.createdAt DESC")
+    List<AdminActivity> findByActionTypeInRange(@Param("actionType") String actionType,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to,
+                                                Pageable pageable);
+}
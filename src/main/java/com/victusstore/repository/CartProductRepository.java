@@ -1,8 +1,12 @@
 package com.victusstore.repository;
 
+import com.victusstore.dto.CartView;
 import com.victusstore.model.CartProduct;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,5 +14,12 @@ import java.util.Optional;
 public interface CartProductRepository extends JpaRepository<CartProduct, Long> {
     List<CartProduct> findByCartId(Long cartId);
     Optional<CartProduct> findByCartIdAndVariantId(Long cartId, Long variantId);
+    List<CartProduct> findByCartIdAndVariantIdIn(Long cartId, Collection<Long> variantIds);
     List<CartProduct> findByOrderId(Long orderId);
+
+    @Query("SELECT new com.victusstore.dto.CartView$Line("
+            + "cp.id, cp.variantId, p.productId, p.productName, v.color, v.size, v.sku, cp.quantity, cp.priceAtTime) "
+            + "FROM CartProduct cp LEFT JOIN cp.variant v LEFT JOIN v.product p "
+            + "WHERE cp.cartId = :cartId ORDER BY cp.id")
+    List<CartView.Line> findCartLines(@Param("cartId") Long cartId);
 }
@@ -0,0 +1,19 @@
+package com.victusstore.repository;
+
+import com.victusstore.model.CatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, Integer> {
+
+    @Modifying
+    @Query("UPDATE CatalogVersion c SET c.version = c.version + 1 WHERE c.id = :id")
+    int increment(@Param("id") Integer id);
+
+    @Query("SELECT c.version FROM CatalogVersion c WHERE c.id = :id")
+    Long findVersion(@Param("id") Integer id);
+}
@@ -27,8 +27,13 @@ public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey,
             @Param("userEmail") String userEmail,
             @Param("endpoint") String endpoint);
     
+    // Bounded delete walking the expires_at index, so each sweep transaction stays short
     @Modifying
-    @Query("DELETE FROM IdempotencyKey i WHERE i.expiresAt < :now")
-    int deleteExpiredKeys(@Param("now") LocalDateTime now);
+    @Query(value = "DELETE FROM idempotency_keys WHERE id IN "
+            + "(SELECT id FROM idempotency_keys WHERE expires_at < :now ORDER BY expires_at LIMIT :limit)",
+            nativeQuery = true)
+    int deleteExpiredChunk(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    long countByExpiresAtBefore(LocalDateTime now);
 }
 
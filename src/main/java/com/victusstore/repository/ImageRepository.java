@@ -1,11 +1,18 @@
 package com.victusstore.repository;
 
+import com.victusstore.dto.ProductDetail;
 import com.victusstore.model.Image;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
 public interface ImageRepository extends JpaRepository<Image, Long> {
     List<Image> findByProductId(Long productId);
+
+    @Query("SELECT new com.victusstore.dto.ProductDetail$ImageRef(i.imageId, i.variantId, i.imageUrl, i.isPrimary) "
+            + "FROM Image i WHERE i.productId = :productId ORDER BY i.isPrimary DESC, i.imageId")
+    List<ProductDetail.ImageRef> findImageRefsByProductId(@Param("productId") Long productId);
 }
@@ -1,16 +1,84 @@
 package com.victusstore.repository;
 
+import com.victusstore.dto.ProductSummary;
 import com.victusstore.model.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    String SUMMARY_SELECT = "SELECT new com.victusstore.dto.ProductSummary("
+            + "p.productId, p.productName, p.basePrice, p.categoryId, p.sellerId, p.productRating, p.isActive, p.createdAt, "
+            + "(SELECT MIN(i.imageUrl) FROM Image i WHERE i.productId = p.productId AND i.isPrimary = true), "
+            + "COALESCE(p.basePrice + MIN(v.price), p.basePrice), "
+            + "COALESCE(p.basePrice + MAX(v.price), p.basePrice)) "
+            + "FROM Product p LEFT JOIN p.variants v ON (v.isActive IS NULL OR v.isActive = true) ";
+
+    String SUMMARY_GROUP_BY = " GROUP BY p.productId, p.productName, p.basePrice, p.categoryId, p.sellerId, "
+            + "p.productRating, p.isActive, p.createdAt";
+
     Page<Product> findByIsActive(Boolean isActive, Pageable pageable);
     List<Product> findByCategoryId(Long categoryId);
     Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
     List<Product> findBySellerId(Long sellerId);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.sellerId IN :sellerIds")
+    List<Long> findIdsBySellerIdIn(@Param("sellerIds") Collection<Long> sellerIds);
+
+    // Product page: the to-one associations plus the one collection, so the join stays one row per variant
+    @Query("SELECT DISTINCT p FROM Product p "
+            + "LEFT JOIN FETCH p.category "
+            + "LEFT JOIN FETCH p.seller s LEFT JOIN FETCH s.account "
+            + "LEFT JOIN FETCH p.variants "
+            + "WHERE p.productId = :id")
+    Optional<Product> findDetailById(@Param("id") Long id);
+
+    @Query(value = SUMMARY_SELECT + SUMMARY_GROUP_BY + " ORDER BY p.productId",
+            countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductSummary> findSummaries(Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE p.categoryId = :categoryId" + SUMMARY_GROUP_BY + " ORDER BY p.productId",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.categoryId = :categoryId")
+    Page<ProductSummary> findSummariesByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE p.productId IN :ids" + SUMMARY_GROUP_BY)
+    List<ProductSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(value = SUMMARY_SELECT + "WHERE p.categoryId IN :categoryIds" + SUMMARY_GROUP_BY + " ORDER BY p.productId",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.categoryId IN :categoryIds")
+    Page<ProductSummary> findSummariesByCategoryIdIn(
+            @Param("categoryIds") Collection<Long> categoryIds, Pageable pageable);
+
+    // Keyset listings: newest first by primary key, no OFFSET and no count query
+
+    @Query(SUMMARY_SELECT + SUMMARY_GROUP_BY + " ORDER BY p.productId DESC")
+    List<ProductSummary> findSummariesNewestFirst(Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE p.productId < :after" + SUMMARY_GROUP_BY + " ORDER BY p.productId DESC")
+    List<ProductSummary> findSummariesNewestFirstAfter(@Param("after") Long after, Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE p.categoryId = :categoryId" + SUMMARY_GROUP_BY + " ORDER BY p.productId DESC")
+    List<ProductSummary> findSummariesByCategoryIdNewestFirst(@Param("categoryId") Long categoryId, Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE p.categoryId = :categoryId AND p.productId < :after" + SUMMARY_GROUP_BY
+            + " ORDER BY p.productId DESC")
+    List<ProductSummary> findSummariesByCategoryIdNewestFirstAfter(
+            @Param("categoryId") Long categoryId, @Param("after") Long after, Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE p.categoryId IN :categoryIds" + SUMMARY_GROUP_BY + " ORDER BY p.productId DESC")
+    List<ProductSummary> findSummariesByCategoryIdInNewestFirst(
+            @Param("categoryIds") Collection<Long> categoryIds, Pageable limit);
+
+    @Query(SUMMARY_SELECT + "WHERE p.categoryId IN :categoryIds AND p.productId < :after" + SUMMARY_GROUP_BY
+            + " ORDER BY p.productId DESC")
+    List<ProductSummary> findSummariesByCategoryIdInNewestFirstAfter(
+            @Param("categoryIds") Collection<Long> categoryIds, @Param("after") Long after, Pageable limit);
 }
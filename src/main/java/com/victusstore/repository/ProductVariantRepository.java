@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +18,11 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT v FROM ProductVariant v WHERE v.variantId = :id")
     Optional<ProductVariant> findByIdWithLock(@Param("id") Long id);
+
+    @Query("SELECT v FROM ProductVariant v LEFT JOIN FETCH v.product WHERE v.variantId IN :ids")
+    List<ProductVariant> findAllWithProductByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM ProductVariant v WHERE v.variantId IN :ids ORDER BY v.variantId")
+    List<ProductVariant> findAllByIdInWithLock(@Param("ids") Collection<Long> ids);
 }
@@ -18,9 +18,14 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID
     
     Optional<RefreshToken> findByTokenAndUserEmail(String token, String userEmail);
     
+    // One chunk of the expiry sweep in CleanupService
     @Modifying
-    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :now")
-    int deleteExpiredTokens(@Param("now") LocalDateTime now);
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN "
+            + "(SELECT id FROM refresh_tokens WHERE expires_at < :now ORDER BY expires_at LIMIT :limit)",
+            nativeQuery = true)
+    int deleteExpiredChunk(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    long countByExpiresAtBefore(LocalDateTime now);
     
     @Modifying
     @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.userEmail = :userEmail")
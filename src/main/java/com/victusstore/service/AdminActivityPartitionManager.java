@@ -0,0 +1,182 @@
+package com.victusstore.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly partitions of admin_activities (see V5 migration).
+ *
+ * At startup and daily it creates partitions for the current month and
+ * {@code app.activities.partitions.months-ahead} months after it, so inserts
+ * never fall into the default partition. Rows that did land there for a
+ * month being created (say the application was down across a month
+ * boundary) are moved into the new partition in the same transaction;
+ * PostgreSQL refuses to attach a partition whose range the default partition
+ * still holds rows for. Months older than
+ * {@code retention-months} are detached: the table stays in place under its
+ * own name, out of every query, for archiving and dropping by hand. A month
+ * whose partition name is already taken by such a table is skipped with an
+ * error rather than recreated; its rows keep going to the default partition
+ * until the table is dropped or re-attached.
+ *
+ * Does nothing unless admin_activities is a partitioned PostgreSQL table, so
+ * tests on H2 and databases not yet migrated are left alone.
+ */
+@Service
+public class AdminActivityPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminActivityPartitionManager.class);
+
+    private static final String PARENT = "admin_activities";
+    private static final String DEFAULT_PARTITION = "admin_activities_default";
+    private static final Pattern PARTITION_NAME = Pattern.compile("admin_activities_y(\\d{4})m(\\d{2})");
+
+    private static final String IS_PARTITIONED_SQL =
+            "SELECT COUNT(*) FROM pg_class WHERE relname = ? AND relkind = 'p'";
+
+    private static final String TABLE_EXISTS_SQL =
+            "SELECT COUNT(*) FROM pg_class WHERE relname = ? AND pg_table_is_visible(oid)";
+
+    private static final String PARTITIONS_SQL =
+            "SELECT child.relname FROM pg_inherits "
+            + "JOIN pg_class parent ON parent.oid = pg_inherits.inhparent "
+            + "JOIN pg_class child ON child.oid = pg_inherits.inhrelid "
+            + "WHERE parent.relname = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.activities.partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.activities.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    // 0 keeps every month attached
+    @Value("${app.activities.partitions.retention-months:12}")
+    private int retentionMonths;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${app.activities.partitions.cron:0 15 1 * * ?}")
+    public synchronized void maintain() {
+        if (!enabled || !isPartitioned()) {
+            return;
+        }
+        try {
+            YearMonth current = YearMonth.now();
+            List<YearMonth> attached = attachedMonths();
+
+            for (int i = 0; i <= monthsAhead; i++) {
+                YearMonth month = current.plusMonths(i);
+                if (!attached.contains(month)) {
+                    createPartition(month);
+                }
+            }
+
+            if (retentionMonths > 0) {
+                YearMonth oldestKept = current.minusMonths(retentionMonths - 1L);
+                for (YearMonth month : attached) {
+                    if (month.isBefore(oldestKept)) {
+                        detachPartition(month);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("admin_activities partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Months that currently have an attached partition.
+     */
+    public List<YearMonth> attachedMonths() {
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : jdbcTemplate.queryForList(PARTITIONS_SQL, String.class, PARENT)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        return months;
+    }
+
+    private void createPartition(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        String partition = partitionName(month);
+        // Names and bounds are generated here, never taken from input
+        String bounds = " FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+        String inRange = " WHERE created_at >= '" + from + "' AND created_at < '" + to + "'";
+
+        // A detached partition keeps its name; CREATE ... IF NOT EXISTS would silently do nothing
+        Integer existing = jdbcTemplate.queryForObject(TABLE_EXISTS_SQL, Integer.class, partition);
+        if (existing != null && existing > 0) {
+            logger.error("Cannot create partition {} for {}: a table with that name exists but is not attached "
+                    + "to {}; drop or re-attach it", partition, month, PARENT);
+            return;
+        }
+
+        Integer stranded = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + DEFAULT_PARTITION + inRange, Integer.class);
+        if (stranded == null || stranded == 0) {
+            // Only another replica's maintenance can have created it since the check, attached
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + PARENT + bounds);
+            logger.info("Created partition {} for {}", partition, month);
+            return;
+        }
+
+        // Build the partition standalone, move the month's rows out of the default
+        // partition, then attach; all or nothing, so a failure leaves the default as it was
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + partition
+                    + " (LIKE " + PARENT + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            int moved = jdbcTemplate.update("INSERT INTO " + partition + " SELECT * FROM " + DEFAULT_PARTITION + inRange);
+            jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + inRange);
+            jdbcTemplate.execute("ALTER TABLE " + PARENT + " ATTACH PARTITION " + partition + bounds);
+            logger.warn("Created partition {} for {} and moved {} rows into it from {}",
+                    partition, month, moved, DEFAULT_PARTITION);
+        });
+    }
+
+    private void detachPartition(YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE " + PARENT + " DETACH PARTITION " + partitionName(month));
+        logger.info("Detached partition {}; archive or drop it when no longer needed", partitionName(month));
+    }
+
+    private boolean isPartitioned() {
+        try {
+            Integer count = jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Integer.class, PARENT);
+            return count != null && count > 0;
+        } catch (Exception e) {
+            // Not PostgreSQL (pg_class missing)
+            return false;
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("%s_y%04dm%02d", PARENT, month.getYear(), month.getMonthValue());
+    }
+}
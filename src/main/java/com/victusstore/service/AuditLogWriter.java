@@ -0,0 +1,594 @@
+package com.victusstore.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.victusstore.model.AdminActivity;
+import com.victusstore.repository.AdminActivityRepository;
+import com.victusstore.util.MpscRingBuffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes admin activity records, on the request thread or, when enabled,
+ * off it.
+ *
+ * {@code app.audit.mode}:
+ * <ul>
+ *   <li>{@code SYNC} (default): saved on the caller's thread, as before.</li>
+ *   <li>{@code ASYNC}: queued in a lock-free ring buffer and saved by a
+ *       background writer in batches (multi-row JDBC inserts). Records still
+ *       queued when the process dies are lost.</li>
+ *   <li>{@code ASYNC_JOURNAL}: as ASYNC, but each record is first appended to a
+ *       local journal file, and the caller returns once it is fsynced. Callers
+ *       share fsyncs (group commit): appends are serialized, but the fsync runs
+ *       outside that lock and covers everything appended before it started,
+ *       so callers arriving during one fsync wait for the next together.
+ *       Journal segments are deleted once their records are in the database
+ *       and replayed at startup otherwise, so a crash can repeat a few records
+ *       but not lose them.</li>
+ * </ul>
+ * When the buffer is full the caller saves its record itself, which slows the
+ * busiest callers down to database speed instead of dropping audit records.
+ * Records are checked against the column sizes before they are accepted, so
+ * the caller hears about a record the database would refuse. A batch that
+ * fails to save is retried with backoff; after a few failures it is saved one
+ * record at a time, and a record the database still refuses (a constraint or
+ * size violation) is logged in full and dropped rather than holding up the
+ * queue. Only database outages are retried indefinitely.
+ */
+@Service
+public class AuditLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    // Failed batch attempts before the writer switches to saving one record at a time
+    private static final int BATCH_ATTEMPTS = 3;
+
+    // Column sizes of admin_activities
+    private static final int MAX_EMAIL_LENGTH = 255;
+    private static final int MAX_TYPE_LENGTH = 50;
+    private static final int MAX_IP_LENGTH = 45;
+    private static final int MAX_USER_AGENT_LENGTH = 500;
+
+    public enum Mode {
+        SYNC, ASYNC, ASYNC_JOURNAL
+    }
+
+    @Autowired
+    private AdminActivityRepository activityRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+    private final Mode mode;
+    private final MpscRingBuffer<Entry> buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Path journalDir;
+    private final long segmentBytes;
+
+    private Journal journal;
+    private List<Path> journalToReplay = List.of();
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder callerWrites = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder journalSyncs = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private final AtomicLong lastBatchMs = new AtomicLong();
+
+    public AuditLogWriter(PlatformTransactionManager transactionManager,
+                          @Value("${app.audit.mode:SYNC}") Mode mode,
+                          @Value("${app.audit.buffer-capacity:8192}") int bufferCapacity,
+                          @Value("${app.audit.batch-size:200}") int batchSize,
+                          @Value("${app.audit.flush-interval-ms:200}") long flushIntervalMs,
+                          @Value("${app.audit.journal.dir:./data/audit-journal}") String journalDir,
+                          @Value("${app.audit.journal.segment-bytes:8388608}") long segmentBytes) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mode = mode;
+        this.buffer = new MpscRingBuffer<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.journalDir = Paths.get(journalDir).toAbsolutePath().normalize();
+        this.segmentBytes = segmentBytes;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (mode == Mode.SYNC) {
+            return;
+        }
+        if (mode == Mode.ASYNC_JOURNAL) {
+            Files.createDirectories(journalDir);
+            journalToReplay = listSegments();
+            journal = new Journal();
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        logger.info("Audit log writer started in {} mode", mode);
+    }
+
+    /**
+     * Records left in the journal by a previous run that did not get to save them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayJournal() {
+        for (Path segment : journalToReplay) {
+            List<Entry> entries = new ArrayList<>();
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        AdminActivity activity = objectMapper.readValue(line, AdminActivity.class);
+                        // Journals written before records were checked may hold over-long header values
+                        trimToColumns(activity);
+                        entries.add(new Entry(activity, 0));
+                    } catch (IOException e) {
+                        // A torn last line from a crash mid-write is expected
+                        logger.warn("Skipping unreadable line in audit journal {}: {}", segment.getFileName(), e.getMessage());
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Audit journal {} ends early: {}", segment.getFileName(), e.getMessage());
+            }
+            int count = entries.size();
+            if (entries.isEmpty() || writeBatch(entries) || writeIndividually(entries)) {
+                try {
+                    Files.deleteIfExists(segment);
+                } catch (IOException e) {
+                    logger.warn("Could not delete replayed audit journal {}: {}", segment.getFileName(), e.getMessage());
+                }
+                logger.info("Replayed {} audit records from {}", count, segment.getFileName());
+            } else {
+                logger.error("Could not replay audit journal {}; the database is unavailable, it is kept for the next start",
+                        segment.getFileName());
+            }
+        }
+        journalToReplay = List.of();
+    }
+
+    /**
+     * Record an activity. In SYNC mode (and when the buffer is full) it is saved
+     * before returning and the saved entity is returned; otherwise it is queued
+     * and returned as given, without an id. Throws IllegalArgumentException if
+     * a required field is missing or longer than its column; the IP address
+     * and user agent are cut to their column size.
+     */
+    public AdminActivity record(AdminActivity activity) {
+        requireFits("Admin email", activity.getAdminEmail(), MAX_EMAIL_LENGTH);
+        requireFits("Action type", activity.getActionType(), MAX_TYPE_LENGTH);
+        requireFits("Entity type", activity.getEntityType(), MAX_TYPE_LENGTH);
+        trimToColumns(activity);
+
+        if (mode == Mode.SYNC) {
+            return activityRepository.save(activity);
+        }
+
+        // The writer gets its own copy so the caller's object is never changed under it
+        AdminActivity queuedCopy = copyOf(activity);
+        boolean queued;
+        if (journal != null) {
+            long sequence = 0;
+            // Journal order must match queue order, so the writer can tell which segments are fully saved
+            synchronized (journal) {
+                if (buffer.size() < buffer.capacity()) {
+                    sequence = enqueueJournaled(queuedCopy);
+                }
+            }
+            queued = sequence > 0;
+            if (queued) {
+                awaitJournaled(sequence);
+            }
+        } else {
+            queued = buffer.offer(new Entry(queuedCopy, 0));
+        }
+
+        if (!queued) {
+            callerWrites.increment();
+            return activityRepository.save(activity);
+        }
+        enqueued.increment();
+        int depth = buffer.size();
+        maxDepth.accumulate(depth);
+        if (depth >= batchSize) {
+            LockSupport.unpark(writerThread);
+        }
+        return activity;
+    }
+
+    public boolean isSynchronous() {
+        return mode == Mode.SYNC;
+    }
+
+    public AuditStats stats() {
+        return new AuditStats(mode.name(), buffer.size(), buffer.capacity(), maxDepth.get(), enqueued.sum(),
+                written.sum(), batches.sum(), callerWrites.sum(), failedAttempts.sum(), rejected.sum(),
+                journalSyncs.sum(), lastBatchMs.get());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Append to the journal and queue the record; returns its journal sequence,
+     * or 0 if it could not be appended. Callers hold the journal lock.
+     */
+    private long enqueueJournaled(AdminActivity activity) {
+        long sequence;
+        try {
+            sequence = journal.append(objectMapper.writeValueAsBytes(activity));
+        } catch (IOException e) {
+            logger.error("Could not append to audit journal, saving directly: {}", e.getMessage());
+            return 0;
+        }
+        // Only this (locked) path adds to the buffer and there was room, so the offer succeeds
+        buffer.offer(new Entry(activity, sequence));
+        return sequence;
+    }
+
+    private void awaitJournaled(long sequence) {
+        try {
+            journal.awaitDurable(sequence);
+        } catch (IOException e) {
+            // Already queued, so it is still saved unless the process dies first
+            logger.error("Could not fsync audit journal; record {} may not survive a crash: {}",
+                    sequence, e.getMessage());
+        }
+    }
+
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        long batchEnd = 0;
+        int failures = 0;
+        while (true) {
+            if (batch.isEmpty()) {
+                buffer.drainTo(batch, batchSize);
+                if (!batch.isEmpty()) {
+                    batchEnd = batch.get(batch.size() - 1).sequence();
+                }
+            }
+            if (batch.isEmpty()) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(flushIntervalNanos);
+                continue;
+            }
+
+            // A batch that keeps failing goes row by row, so one bad record cannot hold back the rest
+            boolean saved = failures < BATCH_ATTEMPTS ? writeBatch(batch) : writeIndividually(batch);
+            if (saved) {
+                failures = 0;
+                if (journal != null) {
+                    journal.checkpoint(batchEnd);
+                }
+                batch.clear();
+            } else {
+                failures++;
+                if (!running) {
+                    logger.error("Dropping {} unsaved audit records at shutdown{}", batch.size(),
+                            journal != null ? " (kept in the journal)" : "");
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.min(5000, 100L << Math.min(failures, 6))));
+            }
+        }
+    }
+
+    private boolean writeBatch(List<Entry> batch) {
+        List<AdminActivity> activities = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            activities.add(entry.activity());
+        }
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> activityRepository.saveAll(activities));
+            written.add(activities.size());
+            batches.increment();
+            lastBatchMs.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        } catch (Exception e) {
+            failedAttempts.increment();
+            // saveAll may have assigned ids before the rollback; clear them so the retry inserts
+            activities.forEach(activity -> activity.setActivityId(null));
+            logger.error("Failed to save {} audit records, will retry: {}", activities.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Save entries one per transaction, removing each from the list once it is
+     * handled. A record the database refuses is logged in full and dropped;
+     * any other failure stops here and returns false, leaving the unsaved
+     * entries in the list for the next attempt.
+     */
+    private boolean writeIndividually(List<Entry> entries) {
+        Iterator<Entry> pending = entries.iterator();
+        while (pending.hasNext()) {
+            AdminActivity activity = pending.next().activity();
+            try {
+                transactionTemplate.executeWithoutResult(status -> activityRepository.saveAndFlush(activity));
+                written.increment();
+            } catch (NonTransientDataAccessException e) {
+                activity.setActivityId(null);
+                rejected.increment();
+                logger.error("Audit record refused by the database, dropping it: {} ({})",
+                        describe(activity), e.getMostSpecificCause().getMessage());
+            } catch (Exception e) {
+                failedAttempts.increment();
+                activity.setActivityId(null);
+                logger.error("Failed to save audit record, will retry: {}", e.getMessage());
+                return false;
+            }
+            pending.remove();
+        }
+        return true;
+    }
+
+    private String describe(AdminActivity activity) {
+        try {
+            return objectMapper.writeValueAsString(activity);
+        } catch (IOException e) {
+            return activity.toString();
+        }
+    }
+
+    private static void requireFits(String field, String value, int maxLength) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(field + " must be at most " + maxLength + " characters");
+        }
+    }
+
+    // The IP address and user agent come from request headers, so they are cut rather than refused
+    private static void trimToColumns(AdminActivity activity) {
+        activity.setIpAddress(truncate(activity.getIpAddress(), MAX_IP_LENGTH));
+        activity.setUserAgent(truncate(activity.getUserAgent(), MAX_USER_AGENT_LENGTH));
+    }
+
+    private static String truncate(String value, int maxLength) {
+        if (value == null || value.length() <= maxLength) {
+            return value;
+        }
+        // Do not split a surrogate pair
+        int end = Character.isHighSurrogate(value.charAt(maxLength - 1)) ? maxLength - 1 : maxLength;
+        return value.substring(0, end);
+    }
+
+    private static AdminActivity copyOf(AdminActivity activity) {
+        return AdminActivity.builder()
+                .adminEmail(activity.getAdminEmail())
+                .actionType(activity.getActionType())
+                .entityType(activity.getEntityType())
+                .entityId(activity.getEntityId())
+                .description(activity.getDescription())
+                .ipAddress(activity.getIpAddress())
+                .userAgent(activity.getUserAgent())
+                .createdAt(activity.getCreatedAt() != null ? activity.getCreatedAt() : LocalDateTime.now())
+                .build();
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(journalDir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private record Entry(AdminActivity activity, long sequence) {
+    }
+
+    private record Segment(Path path, long lastSequence) {
+    }
+
+    /**
+     * Append-only journal split into segments. A segment is deleted once the
+     * writer has saved every record in it.
+     *
+     * Appends only write; {@link #awaitDurable} makes them durable. One waiter
+     * at a time leads: it notes the last sequence appended so far and fsyncs
+     * the segment outside the journal lock, while later waiters park until a
+     * sync covers their sequence. A segment is fsynced before it is closed
+     * (unless its records are all in the database already), so records in
+     * closed segments are always durable. Lock order is the journal lock, then
+     * {@code syncLock}.
+     */
+    private final class Journal {
+
+        private final Deque<Segment> closed = new ArrayDeque<>();
+        private FileChannel channel;
+        private Path current;
+        private long currentBytes;
+        private long nextSequence = 1;
+        private long savedThrough;
+
+        private final Object syncLock = new Object();
+        // Guarded by syncLock
+        private long durableThrough;
+        private boolean syncing;
+
+        Journal() throws IOException {
+            openSegment();
+        }
+
+        // Callers hold the journal lock
+        long append(byte[] json) throws IOException {
+            ByteBuffer record = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            currentBytes += json.length + 1;
+            long sequence = nextSequence++;
+            if (currentBytes >= segmentBytes) {
+                rotate();
+            }
+            return sequence;
+        }
+
+        /**
+         * Return once every record up to {@code sequence} is on disk. Must not
+         * be called with the journal lock held.
+         */
+        void awaitDurable(long sequence) throws IOException {
+            synchronized (syncLock) {
+                while (durableThrough < sequence) {
+                    if (!syncing) {
+                        syncing = true;
+                        break;
+                    }
+                    try {
+                        syncLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted waiting for the audit journal fsync");
+                    }
+                }
+                if (durableThrough >= sequence) {
+                    return;
+                }
+            }
+
+            long synced = 0;
+            try {
+                long target;
+                FileChannel syncChannel;
+                synchronized (this) {
+                    target = nextSequence - 1;
+                    syncChannel = channel;
+                }
+                try {
+                    syncChannel.force(false);
+                    journalSyncs.increment();
+                } catch (ClosedChannelException e) {
+                    // Rotated or closed meanwhile, which fsynced it through at least target
+                }
+                synced = target;
+            } finally {
+                // Hand the lead on even if the fsync failed, so the next waiter retries it
+                synchronized (syncLock) {
+                    durableThrough = Math.max(durableThrough, synced);
+                    syncing = false;
+                    syncLock.notifyAll();
+                }
+            }
+        }
+
+        synchronized void checkpoint(long sequence) {
+            savedThrough = Math.max(savedThrough, sequence);
+            try {
+                // Start a fresh segment once everything written so far is saved, so the old one can go
+                if (currentBytes > 0 && nextSequence - 1 <= savedThrough) {
+                    rotate();
+                }
+                while (!closed.isEmpty() && closed.peekFirst().lastSequence() <= savedThrough) {
+                    Files.deleteIfExists(closed.pollFirst().path());
+                }
+            } catch (IOException e) {
+                logger.warn("Audit journal cleanup failed: {}", e.getMessage());
+            }
+        }
+
+        synchronized void close() {
+            try {
+                closeSegment();
+                if (currentBytes == 0 || nextSequence - 1 <= savedThrough) {
+                    Files.deleteIfExists(current);
+                }
+            } catch (IOException e) {
+                logger.warn("Could not close audit journal: {}", e.getMessage());
+            }
+        }
+
+        private void rotate() throws IOException {
+            closeSegment();
+            closed.addLast(new Segment(current, nextSequence - 1));
+            openSegment();
+        }
+
+        private void closeSegment() throws IOException {
+            if (nextSequence - 1 > savedThrough) {
+                channel.force(false);
+                journalSyncs.increment();
+            }
+            channel.close();
+            synchronized (syncLock) {
+                durableThrough = Math.max(durableThrough, nextSequence - 1);
+                syncLock.notifyAll();
+            }
+        }
+
+        private void openSegment() throws IOException {
+            // Zero-padded nanotime keeps segments in write order when listed
+            current = journalDir.resolve(String.format("%s%d-%019d%s",
+                    SEGMENT_PREFIX, System.currentTimeMillis(), System.nanoTime() & Long.MAX_VALUE, SEGMENT_SUFFIX));
+            channel = FileChannel.open(current, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            currentBytes = 0;
+        }
+    }
+
+    public record AuditStats(String mode, int queueDepth, int queueCapacity, long maxQueueDepth, long enqueued,
+                             long written, long batches, long callerWrites, long failedAttempts, long rejected,
+                             long journalSyncs, long lastBatchMs) {
+    }
+}
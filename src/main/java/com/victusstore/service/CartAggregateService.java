@@ -0,0 +1,138 @@
+package com.victusstore.service;
+
+import com.victusstore.dto.CartView;
+import com.victusstore.event.CatalogChangedEvent;
+import com.victusstore.model.Cart;
+import com.victusstore.model.CartProduct;
+import com.victusstore.model.ProductVariant;
+import com.victusstore.repository.CartProductRepository;
+import com.victusstore.repository.CartRepository;
+import com.victusstore.util.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cached {@link CartView} per cart. A cart is loaded once (cart row plus one
+ * line query) and then kept current by the cart-product endpoints, which apply
+ * each saved or deleted line to the cached view instead of re-reading and
+ * re-summing the whole cart. Writers that change a cart in other ways evict it.
+ *
+ * Lines embed product and variant names, so product and variant writes (local
+ * or from another replica) drop every cached cart. Cart lines written on
+ * another replica are not announced; a view is reloaded once it is older than
+ * {@code app.cart.view-cache.max-age-ms}, and writers of cart.total_price use
+ * {@link #refresh} so they never persist a cached total.
+ */
+@Service
+public class CartAggregateService {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartProductRepository cartProductRepository;
+
+    private final LruCache<Long, CachedView> cache;
+    private final long maxAgeNanos;
+
+    // Bumped on every change so a load that raced with a write is not cached
+    private long generation;
+
+    public CartAggregateService(@Value("${app.cart.view-cache.max-entries:10000}") int maxEntries,
+                                @Value("${app.cart.view-cache.max-age-ms:5000}") long maxAgeMs) {
+        this.cache = new LruCache<>(maxEntries);
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMs);
+    }
+
+    public Optional<CartView> getCart(Long cartId) {
+        synchronized (this) {
+            CachedView cached = cache.get(cartId);
+            if (cached != null && System.nanoTime() - cached.loadedAtNanos() <= maxAgeNanos) {
+                return Optional.of(cached.view());
+            }
+        }
+        return refresh(cartId);
+    }
+
+    /**
+     * Load the cart from the database, bypassing the cache, and cache the result.
+     */
+    public Optional<CartView> refresh(Long cartId) {
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+        long loadedAt = System.nanoTime();
+
+        Optional<Cart> cartOpt = cartRepository.findById(cartId);
+        if (cartOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        Cart cart = cartOpt.get();
+        CartView view = CartView.of(cart.getCartId(), cart.getEmail(), cart.getIsActive(),
+                cartProductRepository.findCartLines(cartId));
+
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                cache.put(cartId, new CachedView(view, loadedAt));
+            }
+        }
+        return Optional.of(view);
+    }
+
+    /**
+     * A cart line was inserted or updated; call after the save has committed.
+     */
+    public synchronized void lineSaved(CartProduct cartProduct, ProductVariant variant) {
+        generation++;
+        CachedView cached = cache.get(cartProduct.getCartId());
+        if (cached != null) {
+            cache.put(cartProduct.getCartId(),
+                    cached.with(cached.view().withLine(CartView.Line.of(cartProduct, variant))));
+        }
+    }
+
+    /**
+     * A cart line was deleted; call after the delete has committed.
+     */
+    public synchronized void lineRemoved(Long cartId, Long cartProductId) {
+        generation++;
+        CachedView cached = cache.get(cartId);
+        if (cached != null) {
+            cache.put(cartId, cached.with(cached.view().withoutLine(cartProductId)));
+        }
+    }
+
+    public synchronized void evict(Long cartId) {
+        generation++;
+        cache.remove(cartId);
+    }
+
+    public synchronized void evictAll() {
+        generation++;
+        cache.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        // Any cart may hold a line of the changed product; lines carry no stock
+        if (event.type() == CatalogChangedEvent.Type.PRODUCT || event.type() == CatalogChangedEvent.Type.VARIANT
+                || event.type() == CatalogChangedEvent.Type.PRODUCTS_REMOVED
+                || event.type() == CatalogChangedEvent.Type.REMOTE) {
+            evictAll();
+        }
+    }
+
+    // Patched views keep the time of their last full load, so they still expire
+    private record CachedView(CartView view, long loadedAtNanos) {
+
+        CachedView with(CartView updated) {
+            return new CachedView(updated, loadedAtNanos);
+        }
+    }
+}
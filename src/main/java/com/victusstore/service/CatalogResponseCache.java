@@ -0,0 +1,115 @@
+package com.victusstore.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.victusstore.event.CatalogChangedEvent;
+import com.victusstore.util.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Pre-serialized JSON bodies for catalog GETs, tagged with the catalog version
+ * they were built from.
+ *
+ * Every catalog write bumps the version, which invalidates all entries at once;
+ * writes on other replicas arrive as {@link CatalogChangedEvent.Type#REMOTE}
+ * events through {@link CatalogVersionSync}. Checkout only changes stock, so it
+ * bumps a per-product stock version instead and only responses scoped to that
+ * product are rebuilt. Checkouts on other replicas are not broadcast, so
+ * stock-scoped responses are also rebuilt once they are older than
+ * {@code app.catalog.response-cache.stock-max-age-ms}. Responses carry a
+ * strong ETag (MD5 of the body); Spring answers a matching If-None-Match with
+ * 304 for ResponseEntity return values.
+ */
+@Service
+public class CatalogResponseCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final Map<Long, AtomicLong> stockVersions = new ConcurrentHashMap<>();
+    private final LruCache<String, CachedBody> cache;
+    private final long stockMaxAgeNanos;
+
+    public CatalogResponseCache(@Value("${app.catalog.response-cache.max-entries:500}") int maxEntries,
+                                @Value("${app.catalog.response-cache.stock-max-age-ms:5000}") long stockMaxAgeMs) {
+        this.cache = new LruCache<>(maxEntries);
+        this.stockMaxAgeNanos = TimeUnit.MILLISECONDS.toNanos(stockMaxAgeMs);
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+    public ResponseEntity<byte[]> serve(String key, Supplier<?> loader) {
+        return serve(key, null, loader);
+    }
+
+    /**
+     * Serve {@code key} from the cache, building it with {@code loader} when missing or stale.
+     *
+     * @param stockScope product whose stock the response includes, or null if it has none
+     */
+    public ResponseEntity<byte[]> serve(String key, Long stockScope, Supplier<?> loader) {
+        long version = catalogVersion.get();
+        long stockVersion = stockVersion(stockScope);
+        long now = System.nanoTime();
+
+        CachedBody cached = cache.get(key);
+        if (cached == null || cached.catalogVersion() != version || cached.stockVersion() != stockVersion
+                || (stockScope != null && now - cached.builtAtNanos() > stockMaxAgeNanos)) {
+            // Stamped with the versions read before loading, so a write racing the load
+            // leaves an entry that is already stale rather than one that hides the write
+            cached = build(loader.get(), version, stockVersion, now);
+            cache.put(key, cached);
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(cached.etag())
+                .body(cached.body());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.type() == CatalogChangedEvent.Type.STOCK) {
+            stockVersions.computeIfAbsent(event.productId(), id -> new AtomicLong()).incrementAndGet();
+            return;
+        }
+        catalogVersion.incrementAndGet();
+        cache.clear();
+    }
+
+    private long stockVersion(Long productId) {
+        if (productId == null) {
+            return 0;
+        }
+        AtomicLong version = stockVersions.get(productId);
+        return version == null ? 0 : version.get();
+    }
+
+    private CachedBody build(Object value, long version, long stockVersion, long builtAtNanos) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+            return new CachedBody(version, stockVersion, builtAtNanos, body, etag);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize catalog response", e);
+        }
+    }
+
+    private record CachedBody(long catalogVersion, long stockVersion, long builtAtNanos, byte[] body, String etag) {
+    }
+}
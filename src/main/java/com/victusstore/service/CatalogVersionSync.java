@@ -0,0 +1,121 @@
+package com.victusstore.service;
+
+import com.victusstore.event.CatalogChangedEvent;
+import com.victusstore.model.CatalogVersion;
+import com.victusstore.repository.CatalogVersionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Carries catalog writes across replicas through the catalog_version row
+ * (see V6 migration).
+ *
+ * Every committed catalog write bumps the shared version. Each node polls it
+ * and, when it moved further than this node's own bumps account for, publishes
+ * a {@link CatalogChangedEvent.Type#REMOTE} event so the local read models
+ * refresh. Stock changes are not carried: they are too frequent for one shared
+ * row, and stock-scoped responses expire on their own instead.
+ */
+@Service
+public class CatalogVersionSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogVersionSync.class);
+
+    private static final int ROW_ID = 1;
+
+    @Autowired
+    private CatalogVersionRepository catalogVersionRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate bumpTransaction;
+
+    // Highest shared version this node has caught up with; null until the first read
+    private Long knownVersion;
+
+    public CatalogVersionSync(PlatformTransactionManager transactionManager) {
+        this.bumpTransaction = new TransactionTemplate(transactionManager);
+        // Runs after the write's commit, while its synchronization is still bound
+        this.bumpTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            if (!catalogVersionRepository.existsById(ROW_ID)) {
+                catalogVersionRepository.save(new CatalogVersion(ROW_ID, 0L));
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Another replica created the row first
+        }
+        poll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.type() == CatalogChangedEvent.Type.STOCK || event.type() == CatalogChangedEvent.Type.REMOTE) {
+            return;
+        }
+        Long bumped;
+        try {
+            // The row stays locked until commit, so the version read back is this bump's
+            bumped = bumpTransaction.execute(status -> catalogVersionRepository.increment(ROW_ID) == 0
+                    ? null
+                    : catalogVersionRepository.findVersion(ROW_ID));
+        } catch (Exception e) {
+            logger.error("Failed to bump the shared catalog version: {}", e.getMessage(), e);
+            return;
+        }
+        if (bumped == null) {
+            logger.warn("catalog_version row {} is missing; other replicas will not see this write", ROW_ID);
+            return;
+        }
+        synchronized (this) {
+            // Only skip our own bump; if another replica bumped in between, the next poll picks it up
+            if (knownVersion != null && bumped == knownVersion + 1) {
+                knownVersion = bumped;
+            }
+        }
+    }
+
+    /**
+     * Read the shared version and refresh the local read models if another replica moved it.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.version-poll-interval-ms:1000}")
+    public void poll() {
+        Long current;
+        try {
+            current = catalogVersionRepository.findVersion(ROW_ID);
+        } catch (Exception e) {
+            logger.warn("Failed to read the shared catalog version: {}", e.getMessage());
+            return;
+        }
+        if (current == null) {
+            return;
+        }
+        synchronized (this) {
+            if (knownVersion != null && current <= knownVersion) {
+                return;
+            }
+            boolean firstRead = knownVersion == null;
+            knownVersion = current;
+            if (firstRead) {
+                return;
+            }
+        }
+        logger.debug("Catalog changed on another replica (version {}); refreshing read models", current);
+        eventPublisher.publishEvent(CatalogChangedEvent.remote());
+    }
+}
@@ -0,0 +1,224 @@
+package com.victusstore.service;
+
+import com.victusstore.event.CatalogChangedEvent;
+import com.victusstore.model.Category;
+import com.victusstore.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Materialized view of the category hierarchy built from
+ * {@code Category.parentCategoryId}: children, ancestor paths, descendant sets
+ * and active product counts per node.
+ *
+ * The whole tree is rebuilt from two queries after any category or product
+ * write and published as an immutable snapshot, so readers never lock and
+ * never recurse in SQL. A parent reference that is missing or would close a
+ * cycle is ignored and the category becomes a root.
+ */
+@Service
+public class CategoryTreeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryTreeService.class);
+
+    private static final String PRODUCT_COUNTS_SQL =
+            "SELECT category_id, COUNT(*) FROM products "
+            + "WHERE category_id IS NOT NULL AND (is_active IS NULL OR is_active = TRUE) "
+            + "GROUP BY category_id";
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), List.of());
+
+    /**
+     * One category with its position in the tree.
+     *
+     * @param ancestorIds root first, excluding the category itself
+     * @param descendantIds every category below this one
+     * @param productCount active products directly in this category
+     * @param subtreeProductCount active products in this category and all descendants
+     */
+    public record CategoryNode(
+            Long categoryId,
+            String categoryName,
+            String categoryImage,
+            Long parentCategoryId,
+            Boolean isActive,
+            List<Long> childIds,
+            List<Long> ancestorIds,
+            Set<Long> descendantIds,
+            int productCount,
+            int subtreeProductCount) {
+    }
+
+    private record Snapshot(Map<Long, CategoryNode> nodes, List<Long> rootIds) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Category> categories = categoryRepository.findAll();
+        Map<Long, Integer> productCounts = new HashMap<>();
+        jdbcTemplate.query(PRODUCT_COUNTS_SQL, rs -> {
+            productCounts.put(rs.getLong(1), rs.getInt(2));
+        });
+
+        Map<Long, Category> byId = new HashMap<>();
+        for (Category category : categories) {
+            byId.put(category.getCategoryId(), category);
+        }
+
+        // Effective parent: the stored one unless it is missing or part of a cycle
+        Map<Long, Long> parents = new HashMap<>();
+        for (Category category : categories) {
+            Long parentId = category.getParentCategoryId();
+            if (parentId != null && byId.containsKey(parentId) && !closesCycle(category.getCategoryId(), byId)) {
+                parents.put(category.getCategoryId(), parentId);
+            }
+        }
+
+        Map<Long, List<Long>> children = new HashMap<>();
+        List<Long> rootIds = new ArrayList<>();
+        categories.stream()
+                .map(Category::getCategoryId)
+                .sorted()
+                .forEach(id -> {
+                    Long parentId = parents.get(id);
+                    if (parentId == null) {
+                        rootIds.add(id);
+                    } else {
+                        children.computeIfAbsent(parentId, p -> new ArrayList<>()).add(id);
+                    }
+                });
+
+        Map<Long, CategoryNode> nodes = new HashMap<>();
+        for (Long rootId : rootIds) {
+            buildSubtree(rootId, List.of(), byId, children, productCounts, nodes);
+        }
+
+        snapshot = new Snapshot(Collections.unmodifiableMap(nodes), List.copyOf(rootIds));
+        logger.info("Category tree rebuilt: {} categories, {} roots", nodes.size(), rootIds.size());
+    }
+
+    // Runs before the response cache bumps its version, so no response is cached against the old tree
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        // Product writes can move, (de)activate or remove products, which changes the counts
+        if (event.type() == CatalogChangedEvent.Type.CATEGORY || event.type() == CatalogChangedEvent.Type.PRODUCT
+                || event.type() == CatalogChangedEvent.Type.PRODUCTS_REMOVED
+                || event.type() == CatalogChangedEvent.Type.REMOTE) {
+            rebuild();
+        }
+    }
+
+    public CategoryNode getNode(Long categoryId) {
+        return snapshot.nodes().get(categoryId);
+    }
+
+    public List<CategoryNode> getRoots() {
+        Snapshot current = snapshot;
+        return current.rootIds().stream().map(current.nodes()::get).toList();
+    }
+
+    public List<CategoryNode> getChildren(CategoryNode node) {
+        Snapshot current = snapshot;
+        return node.childIds().stream().map(current.nodes()::get).toList();
+    }
+
+    /**
+     * The category and every category below it. Unknown ids resolve to themselves
+     * so callers can still run the query and get an empty result.
+     */
+    public Set<Long> getSubtreeIds(Long categoryId) {
+        CategoryNode node = getNode(categoryId);
+        if (node == null) {
+            return Set.of(categoryId);
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        ids.add(categoryId);
+        ids.addAll(node.descendantIds());
+        return ids;
+    }
+
+    /**
+     * Whether making {@code parentId} the parent of {@code categoryId} would create a cycle.
+     */
+    public boolean wouldCreateCycle(Long categoryId, Long parentId) {
+        if (categoryId.equals(parentId)) {
+            return true;
+        }
+        CategoryNode node = getNode(categoryId);
+        return node != null && node.descendantIds().contains(parentId);
+    }
+
+    private static boolean closesCycle(Long categoryId, Map<Long, Category> byId) {
+        Set<Long> visited = new HashSet<>();
+        Long current = byId.get(categoryId).getParentCategoryId();
+        while (current != null && byId.containsKey(current)) {
+            if (current.equals(categoryId)) {
+                return true;
+            }
+            if (!visited.add(current)) {
+                // A loop further up that does not include this category; the loop's own
+                // members become roots, so this chain still terminates
+                return false;
+            }
+            current = byId.get(current).getParentCategoryId();
+        }
+        return false;
+    }
+
+    private static CategoryNode buildSubtree(Long categoryId, List<Long> ancestorIds, Map<Long, Category> byId,
+                                             Map<Long, List<Long>> children, Map<Long, Integer> productCounts,
+                                             Map<Long, CategoryNode> nodes) {
+        Category category = byId.get(categoryId);
+        List<Long> childIds = children.getOrDefault(categoryId, List.of());
+        List<Long> childAncestors = new ArrayList<>(ancestorIds);
+        childAncestors.add(categoryId);
+
+        Set<Long> descendantIds = new LinkedHashSet<>();
+        int productCount = productCounts.getOrDefault(categoryId, 0);
+        int subtreeProductCount = productCount;
+        for (Long childId : childIds) {
+            CategoryNode child = buildSubtree(childId, List.copyOf(childAncestors), byId, children, productCounts, nodes);
+            descendantIds.add(childId);
+            descendantIds.addAll(child.descendantIds());
+            subtreeProductCount += child.subtreeProductCount();
+        }
+
+        CategoryNode node = new CategoryNode(
+                categoryId,
+                category.getCategoryName(),
+                category.getCategoryImage(),
+                category.getParentCategoryId(),
+                category.getIsActive(),
+                List.copyOf(childIds),
+                ancestorIds,
+                Collections.unmodifiableSet(descendantIds),
+                productCount,
+                subtreeProductCount);
+        nodes.put(categoryId, node);
+        return node;
+    }
+}
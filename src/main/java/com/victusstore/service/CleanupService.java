@@ -4,56 +4,198 @@ import com.victusstore.repository.IdempotencyKeyRepository;
 import com.victusstore.repository.RefreshTokenRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
+/**
+ * Continuously removes expired idempotency keys and refresh tokens.
+ *
+ * Rows are deleted in bounded chunks along the expires_at index, each chunk
+ * in its own short transaction, so there is never one long purge holding
+ * locks. The chunk size adapts to how long chunks take: it halves when a
+ * chunk runs over {@code app.cleanup.target-chunk-ms} and doubles while
+ * chunks stay well under it. Between chunks the sweeper pauses for as long as
+ * the last chunk took, so it uses at most half of the database time it sees.
+ * A run stops when a table is drained or its time budget is spent; the rest
+ * waits for the next run.
+ */
 @Service
 public class CleanupService {
 
     private static final Logger logger = LoggerFactory.getLogger(CleanupService.class);
 
-    @Autowired
-    private IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final List<TableSweep> sweeps;
+    private final int minChunkSize;
+    private final int maxChunkSize;
+    private final long targetChunkMs;
+    private final long maxRunMs;
 
-    @Autowired
-    private RefreshTokenRepository refreshTokenRepository;
+    public CleanupService(IdempotencyKeyRepository idempotencyKeyRepository,
+                          RefreshTokenRepository refreshTokenRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.cleanup.chunk-size:1000}") int chunkSize,
+                          @Value("${app.cleanup.min-chunk-size:100}") int minChunkSize,
+                          @Value("${app.cleanup.max-chunk-size:10000}") int maxChunkSize,
+                          @Value("${app.cleanup.target-chunk-ms:200}") long targetChunkMs,
+                          @Value("${app.cleanup.max-run-ms:10000}") long maxRunMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.targetChunkMs = targetChunkMs;
+        this.maxRunMs = maxRunMs;
+        this.sweeps = List.of(
+                new TableSweep("idempotency_keys", idempotencyKeyRepository::deleteExpiredChunk,
+                        idempotencyKeyRepository::countByExpiresAtBefore, chunkSize),
+                new TableSweep("refresh_tokens", refreshTokenRepository::deleteExpiredChunk,
+                        refreshTokenRepository::countByExpiresAtBefore, chunkSize));
+    }
 
     /**
-     * Cleanup expired idempotency keys and refresh tokens.
-     * Runs daily at 2 AM.
+     * Sweep expired rows, within each table's time budget.
      */
-    @Scheduled(cron = "0 0 2 * * ?")
-    @Transactional
-    public void cleanupExpiredKeys() {
-        LocalDateTime now = LocalDateTime.now();
-        
-        try {
-            int deletedIdempotencyKeys = idempotencyKeyRepository.deleteExpiredKeys(now);
-            int deletedRefreshTokens = refreshTokenRepository.deleteExpiredTokens(now);
-            
-            logger.info("Cleanup completed: {} expired idempotency keys, {} expired refresh tokens deleted", 
-                    deletedIdempotencyKeys, deletedRefreshTokens);
-        } catch (Exception e) {
-            logger.error("Error during cleanup: {}", e.getMessage(), e);
+    @Scheduled(fixedDelayString = "${app.cleanup.sweep-interval-ms:60000}",
+            initialDelayString = "${app.cleanup.sweep-interval-ms:60000}")
+    public void sweepExpired() {
+        for (TableSweep sweep : sweeps) {
+            try {
+                sweep(sweep, maxRunMs);
+            } catch (Exception e) {
+                logger.error("Error sweeping expired {}: {}", sweep.table, e.getMessage(), e);
+            }
         }
     }
 
     /**
-     * Manual cleanup method for testing or on-demand cleanup.
+     * Manual cleanup method for testing or on-demand cleanup. Still chunked,
+     * but runs until both tables are drained.
      */
-    @Transactional
     public CleanupResult cleanupNow() {
-        LocalDateTime now = LocalDateTime.now();
-        int deletedIdempotencyKeys = idempotencyKeyRepository.deleteExpiredKeys(now);
-        int deletedRefreshTokens = refreshTokenRepository.deleteExpiredTokens(now);
-        
+        int deletedIdempotencyKeys = sweep(sweeps.get(0), Long.MAX_VALUE);
+        int deletedRefreshTokens = sweep(sweeps.get(1), Long.MAX_VALUE);
+
         return new CleanupResult(deletedIdempotencyKeys, deletedRefreshTokens);
     }
 
+    /**
+     * Progress of each table's sweeper, with the number of expired rows still
+     * waiting (counted on the expires_at index when called). Reads the
+     * progress fields without taking the sweep lock, so it answers while a
+     * sweep is running; totals then include the chunks deleted so far.
+     */
+    public List<SweepStats> stats() {
+        LocalDateTime now = LocalDateTime.now();
+        return sweeps.stream()
+                .map(sweep -> new SweepStats(sweep.table, sweep.backlog.apply(now), sweep.chunkSize,
+                        sweep.totalDeleted.get(), sweep.lastRunDeleted, sweep.lastChunkMs, sweep.lastRunAt,
+                        sweep.drained, sweep.running))
+                .toList();
+    }
+
+    private int sweep(TableSweep sweep, long budgetMs) {
+        synchronized (sweep) {
+            sweep.running = true;
+            try {
+                return sweepChunks(sweep, budgetMs);
+            } finally {
+                sweep.running = false;
+            }
+        }
+    }
+
+    // Caller holds the sweep's lock; the progress fields are published as each chunk finishes
+    private int sweepChunks(TableSweep sweep, long budgetMs) {
+        LocalDateTime now = LocalDateTime.now();
+        long deadline = budgetMs == Long.MAX_VALUE ? Long.MAX_VALUE : System.currentTimeMillis() + budgetMs;
+        int deleted = 0;
+        boolean drained = false;
+
+        while (true) {
+            int limit = sweep.chunkSize;
+            long start = System.nanoTime();
+            Integer chunk = transactionTemplate.execute(status -> sweep.deleteChunk.apply(now, limit));
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            int chunkDeleted = chunk != null ? chunk : 0;
+            deleted += chunkDeleted;
+            sweep.totalDeleted.addAndGet(chunkDeleted);
+            sweep.lastChunkMs = elapsedMs;
+
+            if (elapsedMs > targetChunkMs) {
+                sweep.chunkSize = Math.max(minChunkSize, limit / 2);
+            } else if (elapsedMs < targetChunkMs / 2 && chunkDeleted == limit) {
+                sweep.chunkSize = Math.min(maxChunkSize, limit * 2);
+            }
+
+            if (chunkDeleted < limit) {
+                drained = true;
+                break;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                break;
+            }
+            if (!pause(elapsedMs)) {
+                break;
+            }
+        }
+
+        sweep.lastRunDeleted = deleted;
+        sweep.lastRunAt = now;
+        sweep.drained = drained;
+        if (deleted > 0) {
+            logger.info("Expiry sweep: {} expired rows deleted from {}{}", deleted, sweep.table,
+                    drained ? "" : " (backlog remains, continuing next run)");
+        }
+        return deleted;
+    }
+
+    // Give the database as much idle time as the last chunk took
+    private static boolean pause(long ms) {
+        if (ms <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(ms);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class TableSweep {
+
+        private final String table;
+        private final BiFunction<LocalDateTime, Integer, Integer> deleteChunk;
+        private final Function<LocalDateTime, Long> backlog;
+        // Written by the sweep holding the lock, read by stats() without it
+        private final AtomicLong totalDeleted = new AtomicLong();
+        private volatile int chunkSize;
+        private volatile long lastRunDeleted;
+        private volatile long lastChunkMs;
+        private volatile LocalDateTime lastRunAt;
+        private volatile boolean drained;
+        private volatile boolean running;
+
+        TableSweep(String table, BiFunction<LocalDateTime, Integer, Integer> deleteChunk,
+                   Function<LocalDateTime, Long> backlog, int chunkSize) {
+            this.table = table;
+            this.deleteChunk = deleteChunk;
+            this.backlog = backlog;
+            this.chunkSize = chunkSize;
+        }
+    }
+
     public record CleanupResult(int deletedIdempotencyKeys, int deletedRefreshTokens) {}
-}
 
+    public record SweepStats(String table, long backlog, int chunkSize, long totalDeleted, long lastRunDeleted,
+                             long lastChunkMs, LocalDateTime lastRunAt, boolean drained, boolean running) {}
+}
@@ -0,0 +1,383 @@
+package com.victusstore.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams orders and admin activities to an output stream as NDJSON or CSV.
+ *
+ * Rows are read with plain JDBC through a forward-only cursor
+ * ({@code app.exports.fetch-size} rows per round trip; Postgres only uses a
+ * cursor inside a transaction, hence the read-only one) and written out as they
+ * arrive. Nothing goes through the persistence context, so memory use does not
+ * grow with the size of the export.
+ *
+ * Each export holds a pooled connection until it finishes, so at most
+ * {@code app.exports.max-concurrent} run at once.
+ */
+@Service
+public class ExportService {
+
+    private static final String ORDERS_SQL =
+            "SELECT o.order_id, o.email, o.address, o.phone_num, o.total_price, o.order_status, "
+            + "o.payment_status, o.payment_method, o.order_date, o.updated_at, "
+            + "cp.id AS item_id, cp.variant_id, cp.quantity, cp.price_at_time, "
+            + "v.sku, v.color, v.size, p.product_id, p.product_name "
+            + "FROM orders o "
+            + "LEFT JOIN cart_products cp ON cp.order_id = o.order_id "
+            + "LEFT JOIN product_variants v ON v.variant_id = cp.variant_id "
+            + "LEFT JOIN products p ON p.product_id = v.product_id "
+            + "WHERE o.order_date >= ? AND o.order_date < ? ";
+
+    private static final String ACTIVITIES_SQL =
+            "SELECT activity_id, admin_email, action_type, entity_type, entity_id, description, "
+            + "ip_address, user_agent, created_at "
+            + "FROM admin_activities WHERE created_at >= ? AND created_at < ? ";
+
+    private static final String[] ORDER_COLUMNS = {
+            "order_id", "email", "address", "phone_num", "total_price", "order_status",
+            "payment_status", "payment_method", "order_date", "updated_at"};
+
+    private static final String[] ITEM_COLUMNS = {
+            "item_id", "variant_id", "quantity", "price_at_time", "sku", "color", "size",
+            "product_id", "product_name"};
+
+    private static final String[] ACTIVITY_COLUMNS = {
+            "activity_id", "admin_email", "action_type", "entity_type", "entity_id", "description",
+            "ip_address", "user_agent", "created_at"};
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        /**
+         * The format named by a {@code format} request parameter, or null.
+         */
+        public static Format fromParam(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final Semaphore permits;
+
+    public ExportService(DataSource dataSource,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper,
+                         @Value("${app.exports.fetch-size:500}") int fetchSize,
+                         @Value("${app.exports.max-concurrent:2}") int maxConcurrent) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Claim one of the concurrent export slots; false if all are in use.
+     * A successful claim must be given back with {@link #release()}.
+     */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Orders placed in [from, to), oldest first. NDJSON has one object per
+     * order with its items nested; CSV has one row per item, repeating the
+     * order columns (an order without items gets a single row). The status
+     * filter is compared case-insensitively and must be given in lower case.
+     */
+    public void exportOrders(OutputStream out, Format format, LocalDateTime from, LocalDateTime to,
+                             String orderStatus) throws IOException {
+        StringBuilder sql = new StringBuilder(ORDERS_SQL);
+        List<Object> args = new ArrayList<>(List.of(Timestamp.valueOf(from), Timestamp.valueOf(to)));
+        if (orderStatus != null) {
+            sql.append("AND LOWER(o.order_status) = ? ");
+            args.add(orderStatus);
+        }
+        sql.append("ORDER BY o.order_date, o.order_id, cp.id");
+
+        if (format == Format.CSV) {
+            String[] header = concat(ORDER_COLUMNS, ITEM_COLUMNS);
+            stream(sql.toString(), args, new CsvRows(out, header) {
+                @Override
+                Object value(ResultSet rs, int index) throws SQLException {
+                    return read(rs, header[index]);
+                }
+            });
+        } else {
+            stream(sql.toString(), args, new NdjsonOrders(out));
+        }
+    }
+
+    /**
+     * Admin activities created in [from, to), oldest first, one record per line or row.
+     */
+    public void exportActivities(OutputStream out, Format format, LocalDateTime from, LocalDateTime to,
+                                 String entityType, String actionType) throws IOException {
+        StringBuilder sql = new StringBuilder(ACTIVITIES_SQL);
+        List<Object> args = new ArrayList<>(List.of(Timestamp.valueOf(from), Timestamp.valueOf(to)));
+        if (entityType != null) {
+            sql.append("AND entity_type = ? ");
+            args.add(entityType);
+        }
+        if (actionType != null) {
+            sql.append("AND action_type = ? ");
+            args.add(actionType);
+        }
+        sql.append("ORDER BY created_at, activity_id");
+
+        if (format == Format.CSV) {
+            stream(sql.toString(), args, new CsvRows(out, ACTIVITY_COLUMNS) {
+                @Override
+                Object value(ResultSet rs, int index) throws SQLException {
+                    return read(rs, ACTIVITY_COLUMNS[index]);
+                }
+            });
+        } else {
+            stream(sql.toString(), args, new NdjsonRows(out, ACTIVITY_COLUMNS));
+        }
+    }
+
+    private void stream(String sql, List<Object> args, RowSink sink) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(sql, sink, args.toArray()));
+            sink.finish();
+        } catch (UncheckedIOException e) {
+            // The client went away or the connection broke mid-export
+            throw e.getCause();
+        }
+    }
+
+    private static Object read(ResultSet rs, String column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return value;
+    }
+
+    private static String[] concat(String[] first, String[] second) {
+        String[] all = new String[first.length + second.length];
+        System.arraycopy(first, 0, all, 0, first.length);
+        System.arraycopy(second, 0, all, first.length, second.length);
+        return all;
+    }
+
+    private abstract static class RowSink implements RowCallbackHandler {
+
+        @Override
+        public final void processRow(ResultSet rs) throws SQLException {
+            try {
+                write(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        abstract void write(ResultSet rs) throws SQLException, IOException;
+
+        abstract void finish() throws IOException;
+    }
+
+    private abstract static class CsvRows extends RowSink {
+
+        private final Writer writer;
+        private final int columns;
+
+        CsvRows(OutputStream out, String[] header) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.columns = header.length;
+            for (int i = 0; i < header.length; i++) {
+                writeCell(header[i]);
+                writer.write(i < header.length - 1 ? ',' : '\n');
+            }
+        }
+
+        abstract Object value(ResultSet rs, int index) throws SQLException;
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < columns; i++) {
+                Object value = value(rs, i);
+                if (value instanceof String text) {
+                    writeCell(neutralizeFormula(text));
+                } else if (value != null) {
+                    writeCell(value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString());
+                }
+                writer.write(i < columns - 1 ? ',' : '\n');
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+
+        // Spreadsheets run text starting with one of these as a formula; a leading quote keeps it text
+        private static String neutralizeFormula(String text) {
+            if (text.isEmpty()) {
+                return text;
+            }
+            char first = text.charAt(0);
+            boolean formula = first == '=' || first == '+' || first == '-' || first == '@'
+                    || first == '\t' || first == '\r';
+            return formula ? "'" + text : text;
+        }
+
+        // RFC 4180: quote cells containing a separator, quote or line break, doubling inner quotes
+        private void writeCell(String cell) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < cell.length() && !quote; i++) {
+                char c = cell.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(cell);
+                return;
+            }
+            writer.write('"');
+            writer.write(cell.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private class NdjsonRows extends RowSink {
+
+        final JsonGenerator generator;
+        private final String[] columns;
+
+        NdjsonRows(OutputStream out, String[] columns) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            // Compact output with nothing between top-level values; each record ends its own line
+            this.generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            this.columns = columns;
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            writeFields(rs, columns);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.flush();
+        }
+
+        void writeFields(ResultSet rs, String[] names) throws SQLException, IOException {
+            for (String name : names) {
+                Object value = read(rs, name);
+                generator.writeFieldName(name);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.longValue());
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * Rows arrive ordered by order, so an order's object stays open while its
+     * item rows are appended and is closed when the next order starts.
+     */
+    private class NdjsonOrders extends NdjsonRows {
+
+        private long currentOrderId = -1;
+
+        NdjsonOrders(OutputStream out) throws IOException {
+            super(out, ORDER_COLUMNS);
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            long orderId = rs.getLong("order_id");
+            if (orderId != currentOrderId) {
+                closeOrder();
+                currentOrderId = orderId;
+                generator.writeStartObject();
+                writeFields(rs, ORDER_COLUMNS);
+                generator.writeArrayFieldStart("items");
+            }
+            rs.getLong("item_id");
+            if (!rs.wasNull()) {
+                generator.writeStartObject();
+                writeFields(rs, ITEM_COLUMNS);
+                generator.writeEndObject();
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            closeOrder();
+            super.finish();
+        }
+
+        private void closeOrder() throws IOException {
+            if (currentOrderId != -1) {
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+    }
+}
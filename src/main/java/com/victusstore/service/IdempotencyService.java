@@ -1,42 +1,162 @@
 package com.victusstore.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.victusstore.exception.IdempotencyInProgressException;
 import com.victusstore.exception.IdempotencyMismatchException;
 import com.victusstore.model.IdempotencyKey;
 import com.victusstore.repository.IdempotencyKeyRepository;
+import com.victusstore.util.LruCache;
+import com.victusstore.util.RequestHasher;
+import com.victusstore.util.TransactionCallbacks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
+/**
+ * Runs keyed requests at most once and replays their stored response.
+ *
+ * Completed keys are kept in a bounded in-process cache, so a retry of a
+ * finished request is answered without touching the database. Concurrent
+ * retries of a key that is still running wait for that one execution instead
+ * of queueing on the row lock. The idempotency_keys table stays the durable
+ * record, consulted under lock on a cache miss, and covers other replicas and
+ * restarts.
+ */
 @Service
 public class IdempotencyService {
 
     private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
-    
+
+    private static final TypeReference<Map<String, Object>> RESPONSE_TYPE = new TypeReference<>() {
+    };
+
     @Autowired
     private IdempotencyKeyRepository idempotencyKeyRepository;
-    
+
     @Autowired
     private ObjectMapper objectMapper;
-    
+
     @Value("${app.idempotency.ttl-hours:24}")
     private int ttlHours;
 
+    @Value("${app.idempotency.in-flight-timeout-seconds:30}")
+    private long inFlightTimeoutSeconds;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final LruCache<CacheKey, CompletedResponse> completed;
+
+    private final Map<CacheKey, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private final RequestHasher requestHasher;
+
+    public IdempotencyService(PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${app.idempotency.cache.max-entries:10000}") int maxEntries) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requestHasher = new RequestHasher(objectMapper);
+        this.completed = new LruCache<>(maxEntries);
+    }
+
     /**
-     * Fetch cached response or enforce mismatch rules under lock.
-     * If the key exists and request hash differs, throw IdempotencyMismatchException.
-     * If the hash matches and response exists, return it. Expired keys are removed.
+     * Run {@code action} in a transaction, at most once per idempotency key,
+     * user and endpoint. The request hash is computed once here and used for
+     * every comparison and for the stored row. A repeat with the same payload gets the stored
+     * response; a repeat with a different payload throws
+     * IdempotencyMismatchException. Retries that arrive while the key is
+     * running wait for it and share its response, or the exception it failed
+     * with; after in-flight-timeout-seconds they get
+     * IdempotencyInProgressException. Without a key the action simply runs.
      */
-    @Transactional
-    public Optional<String> getCachedResponseOrThrowOnMismatch(String idempotencyKey, String userEmail, String endpoint, Object requestBody) {
+    public Map<String, Object> execute(String idempotencyKey, String userEmail, String endpoint,
+                                       Object requestBody, Supplier<Map<String, Object>> action) {
+        if (idempotencyKey == null || idempotencyKey.isEmpty()) {
+            return transactionTemplate.execute(status -> action.get());
+        }
+
+        CacheKey cacheKey = new CacheKey(idempotencyKey, userEmail, endpoint);
+        String requestHash = computeRequestHash(requestBody);
+
+        CompletedResponse done = completed.get(cacheKey);
+        if (done != null) {
+            if (done.expiresAt().isAfter(LocalDateTime.now())) {
+                checkRequestHash(done.requestHash(), requestHash, idempotencyKey);
+                logger.info("Returning cached response for idempotency key: {}", idempotencyKey);
+                return readResponse(done.responseBody());
+            }
+            completed.remove(cacheKey);
+        }
+
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(cacheKey, mine);
+        if (running != null) {
+            checkRequestHash(running.requestHash(), requestHash, idempotencyKey);
+            String responseBody = await(running);
+            if (responseBody != null) {
+                logger.info("Returning response of in-flight request for idempotency key: {}", idempotencyKey);
+                return readResponse(responseBody);
+            }
+            // The first execution could not record its response; go through the database ourselves
+            return execute(idempotencyKey, userEmail, endpoint, requestBody, action);
+        }
+
+        try {
+            return transactionTemplate.execute(status -> {
+                Optional<IdempotencyKey> stored = findStoredResponse(idempotencyKey, userEmail, endpoint, requestHash, requestBody);
+                IdempotencyKey row;
+                Map<String, Object> response;
+                if (stored.isPresent()) {
+                    row = stored.get();
+                    response = readResponse(row.getResponseBody());
+                } else {
+                    response = action.get();
+                    row = storeResponse(idempotencyKey, userEmail, endpoint, requestHash, response);
+                }
+                // Hand the response to the cache and to waiting retries only once it is committed;
+                // the row's own expiry bounds the cache entry, so a key loaded late is not kept past it
+                TransactionCallbacks.afterCommit(() -> {
+                    if (row != null) {
+                        completed.put(cacheKey, new CompletedResponse(requestHash, row.getResponseBody(),
+                                row.getExpiresAt()));
+                    }
+                    mine.result().complete(row != null ? row.getResponseBody() : null);
+                });
+                return response;
+            });
+        } catch (RuntimeException e) {
+            // Waiting retries fail with the same exception rather than running the action again
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            // Rolled back without an exception: nothing was recorded, so waiters go to the database
+            mine.result().complete(null);
+            inFlight.remove(cacheKey, mine);
+        }
+    }
+
+    /**
+     * Stored row for the key if it holds a response, read under lock. Expired
+     * keys are removed; a stored hash that differs from this request's throws.
+     */
+    private Optional<IdempotencyKey> findStoredResponse(String idempotencyKey, String userEmail, String endpoint,
+                                                String requestHash, Object requestBody) {
         Optional<IdempotencyKey> existing = idempotencyKeyRepository.findByKeyAndUserEmailAndEndpoint(
                 idempotencyKey, userEmail, endpoint);
 
@@ -50,6 +170,8 @@ public class IdempotencyService {
         if (key.getExpiresAt().isBefore(LocalDateTime.now())) {
             logger.debug("Idempotency key expired: {}", idempotencyKey);
             idempotencyKeyRepository.delete(key);
+            // Hibernate runs inserts before deletes at flush; the new row for this key must not precede it
+            idempotencyKeyRepository.flush();
             return Optional.empty();
         }
 
@@ -59,27 +181,28 @@ public class IdempotencyService {
             return Optional.empty();
         }
 
-        // Verify request hash
-        String requestHash = computeRequestHash(requestBody);
-        if (key.getRequestHash() != null && requestHash != null && !key.getRequestHash().equals(requestHash)) {
-            logger.warn("Idempotency key request hash mismatch for key {}", idempotencyKey);
-            throw new IdempotencyMismatchException("Idempotency key reuse with different request payload");
+        // Rows written before canonical hashing carry the old hash; accept that too until they expire
+        String storedHash = key.getRequestHash();
+        if (storedHash != null && requestHash != null && !storedHash.equals(requestHash)
+                && !storedHash.equals(legacyRequestHash(requestBody))) {
+            checkRequestHash(storedHash, requestHash, idempotencyKey);
         }
 
         if (key.getResponseBody() != null) {
-            logger.info("Returning cached response for idempotency key: {}", idempotencyKey);
-            return Optional.of(key.getResponseBody());
+            logger.info("Returning stored response for idempotency key: {}", idempotencyKey);
+            return Optional.of(key);
         }
 
         return Optional.empty();
     }
 
-    @Transactional
-    public void storeResponse(String idempotencyKey, String userEmail, String endpoint, Object requestBody, Object response) {
+    /**
+     * Persist the response and return the stored row, or null if it could not be stored.
+     */
+    private IdempotencyKey storeResponse(String idempotencyKey, String userEmail, String endpoint, String requestHash, Object response) {
         try {
             String responseBody = objectMapper.writeValueAsString(response);
-            String requestHash = computeRequestHash(requestBody);
-            
+
             IdempotencyKey key = IdempotencyKey.builder()
                     .key(idempotencyKey)
                     .userEmail(userEmail)
@@ -89,33 +212,74 @@ public class IdempotencyService {
                     .createdAt(LocalDateTime.now())
                     .expiresAt(LocalDateTime.now().plusHours(ttlHours))
                     .build();
-            
+
             idempotencyKeyRepository.save(key);
             logger.debug("Stored idempotency key: {}", idempotencyKey);
+            return key;
         } catch (Exception e) {
             logger.error("Failed to store idempotency key: {}", e.getMessage(), e);
             // Don't throw - idempotency is best-effort
+            return null;
         }
     }
 
-    private String computeRequestHash(Object requestBody) {
+    private String await(InFlight running) {
         try {
-            String json = objectMapper.writeValueAsString(requestBody);
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(json.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
+            return running.result().get(inFlightTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            // Concurrent retries share the outcome of the execution they waited for
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
-            return hexString.toString();
+            throw new IllegalStateException("Idempotent request failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyInProgressException("Request with this idempotency key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for idempotent request", e);
+        }
+    }
+
+    private static void checkRequestHash(String storedHash, String requestHash, String idempotencyKey) {
+        if (storedHash != null && requestHash != null && !storedHash.equals(requestHash)) {
+            logger.warn("Idempotency key request hash mismatch for key {}", idempotencyKey);
+            throw new IdempotencyMismatchException("Idempotency key reuse with different request payload");
+        }
+    }
+
+    private Map<String, Object> readResponse(String responseBody) {
+        try {
+            return objectMapper.readValue(responseBody, RESPONSE_TYPE);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to parse stored idempotent response", e);
+        }
+    }
+
+    private String computeRequestHash(Object requestBody) {
+        try {
+            return requestHasher.hash(requestBody);
         } catch (Exception e) {
             logger.warn("Failed to compute request hash: {}", e.getMessage());
             return null;
         }
     }
-}
 
+    // Hash of the non-canonical JSON used before RequestHasher; only needed for keys stored by older builds
+    private String legacyRequestHash(Object requestBody) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(requestBody);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private record CacheKey(String key, String userEmail, String endpoint) {
+    }
+
+    private record CompletedResponse(String requestHash, String responseBody, LocalDateTime expiresAt) {
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<String> result) {
+    }
+}
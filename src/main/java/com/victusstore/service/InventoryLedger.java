@@ -0,0 +1,302 @@
+package com.victusstore.service;
+
+import com.victusstore.event.CatalogChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process view of available stock per variant, kept in front of
+ * product_variants.stock_quantity.
+ *
+ * Reservations are lock-free compare-and-set updates on a per-variant counter
+ * that tracks both the available stock and how much of it is reserved by
+ * checkouts that have not committed yet. Committed reservations accumulate as
+ * pending deltas that a scheduled job writes back to product_variants in one
+ * JDBC batch and then announces as stock changes; on startup the counters are
+ * reconciled from the table.
+ *
+ * Everything that writes stock to the database (flush, admin stock writes,
+ * reconciliation) and the hand-over of committed reservations to the pending
+ * deltas run under the ledger's monitor, so an absolute admin write can never
+ * be overtaken by an older delta.
+ *
+ * The ledger assumes it is the only writer of stock for the variants it tracks,
+ * so enable it only when a single node serves checkout. When disabled, every
+ * method falls back to the database value and checkout uses row locks.
+ */
+@Service
+public class InventoryLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedger.class);
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE product_variants SET stock_quantity = stock_quantity + ?, updated_at = ? WHERE variant_id = ?";
+
+    private static final String SET_STOCK_SQL =
+            "UPDATE product_variants SET stock_quantity = ?, updated_at = ? WHERE variant_id = ?";
+
+    private static final String PRODUCT_IDS_SQL =
+            "SELECT DISTINCT product_id FROM product_variants WHERE variant_id IN (";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.inventory.ledger.enabled:false}")
+    private boolean enabled;
+
+    private final Map<Long, Counter> available = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> pendingDeltas = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start tracking a variant with the given stock unless it is already tracked.
+     */
+    public void track(Long variantId, int stockQuantity) {
+        available.putIfAbsent(variantId, new Counter(stockQuantity));
+    }
+
+    /**
+     * Available stock for a variant, falling back to the given database value
+     * when the ledger is disabled or does not track the variant yet.
+     */
+    public int availableStock(Long variantId, int databaseStock) {
+        if (!enabled) {
+            return databaseStock;
+        }
+        return available.computeIfAbsent(variantId, id -> new Counter(databaseStock)).available();
+    }
+
+    /**
+     * Atomically reserve every requested quantity, or nothing.
+     *
+     * @param requested quantities keyed by variant id; every variant must already be tracked
+     * @return the id of the first variant that could not be reserved, or null on success
+     */
+    public Long tryReserve(Map<Long, Integer> requested) {
+        List<Map.Entry<Long, Integer>> reserved = new ArrayList<>(requested.size());
+        for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+            Counter counter = available.get(entry.getKey());
+            if (counter == null || !counter.tryReserve(entry.getValue())) {
+                release(toMap(reserved));
+                return entry.getKey();
+            }
+            reserved.add(entry);
+        }
+        return null;
+    }
+
+    /**
+     * Return reserved quantities to the ledger, e.g. after a failed checkout.
+     */
+    public void release(Map<Long, Integer> reserved) {
+        reserved.forEach((variantId, quantity) -> {
+            Counter counter = available.get(variantId);
+            if (counter != null) {
+                counter.release(quantity);
+            }
+        });
+    }
+
+    /**
+     * Record committed reservations so the next flush writes them to the database.
+     */
+    public synchronized void commit(Map<Long, Integer> reserved) {
+        reserved.forEach((variantId, quantity) -> {
+            Counter counter = available.get(variantId);
+            if (counter != null) {
+                counter.commit(quantity);
+            }
+            pendingDeltas.computeIfAbsent(variantId, id -> new AtomicInteger()).addAndGet(-quantity);
+        });
+    }
+
+    /**
+     * An admin wrote an absolute stock value. It is written again here, after
+     * any flush in progress, and replaces the decrements not flushed yet; the
+     * counter keeps the quantity still reserved by uncommitted checkouts,
+     * which will be subtracted from the new value when they commit.
+     */
+    public synchronized void setStock(Long variantId, int stockQuantity) {
+        if (!enabled) {
+            return;
+        }
+        pendingDeltas.remove(variantId);
+        jdbcTemplate.update(SET_STOCK_SQL, stockQuantity, Timestamp.valueOf(LocalDateTime.now()), variantId);
+        Counter counter = available.computeIfAbsent(variantId, id -> new Counter(stockQuantity));
+        counter.set(stockQuantity);
+    }
+
+    public int getAvailableStock(Long variantId) {
+        Counter counter = available.get(variantId);
+        return counter != null ? counter.available() : 0;
+    }
+
+    /**
+     * Write pending deltas to product_variants in one batch.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.ledger.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (!enabled || pendingDeltas.isEmpty()) {
+            return;
+        }
+
+        List<Long> variantIds = new ArrayList<>();
+        List<Object[]> batchArgs = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Map.Entry<Long, AtomicInteger> entry : pendingDeltas.entrySet()) {
+            int delta = entry.getValue().getAndSet(0);
+            if (delta != 0) {
+                variantIds.add(entry.getKey());
+                batchArgs.add(new Object[]{delta, now, entry.getKey()});
+            }
+        }
+        if (batchArgs.isEmpty()) {
+            return;
+        }
+
+        List<Long> productIds;
+        try {
+            productIds = new TransactionTemplate(transactionManager).execute(status -> {
+                jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, batchArgs);
+                return jdbcTemplate.queryForList(
+                        PRODUCT_IDS_SQL + String.join(",", Collections.nCopies(variantIds.size(), "?")) + ")",
+                        Long.class, variantIds.toArray());
+            });
+            logger.debug("Flushed stock deltas for {} variants", batchArgs.size());
+        } catch (Exception e) {
+            // Put the deltas back so the next flush retries them
+            for (int i = 0; i < variantIds.size(); i++) {
+                int delta = (Integer) batchArgs.get(i)[0];
+                pendingDeltas.computeIfAbsent(variantIds.get(i), id -> new AtomicInteger()).addAndGet(delta);
+            }
+            logger.error("Failed to flush inventory ledger: {}", e.getMessage(), e);
+            return;
+        }
+        // Only now does product_variants hold the new stock; announcing it at checkout
+        // would let a reader cache the pre-flush rows under the new stock version
+        productIds.forEach(productId -> eventPublisher.publishEvent(CatalogChangedEvent.stock(productId)));
+    }
+
+    /**
+     * Reload every counter from product_variants after flushing pending deltas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        AtomicInteger loaded = new AtomicInteger();
+        jdbcTemplate.query("SELECT variant_id, stock_quantity FROM product_variants", rs -> {
+            Counter counter = available.computeIfAbsent(rs.getLong(1), id -> new Counter(0));
+            counter.set(rs.getInt(2));
+            loaded.incrementAndGet();
+        });
+        logger.info("Inventory ledger reconciled {} variants from the database", loaded.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static Map<Long, Integer> toMap(List<Map.Entry<Long, Integer>> entries) {
+        Map<Long, Integer> map = new HashMap<>();
+        entries.forEach(entry -> map.put(entry.getKey(), entry.getValue()));
+        return map;
+    }
+
+    /**
+     * Stock of one variant, packed into a long so that available and reserved
+     * quantities change together: [ 32 bits: available | 32 bits: reserved ].
+     */
+    private static final class Counter {
+
+        private final AtomicLong state;
+
+        Counter(int available) {
+            this.state = new AtomicLong(pack(available, 0));
+        }
+
+        int available() {
+            return (int) (state.get() >> 32);
+        }
+
+        boolean tryReserve(int quantity) {
+            while (true) {
+                long current = state.get();
+                int available = (int) (current >> 32);
+                if (available < quantity) {
+                    return false;
+                }
+                if (state.compareAndSet(current, pack(available - quantity, (int) current + quantity))) {
+                    return true;
+                }
+            }
+        }
+
+        void release(int quantity) {
+            update(quantity, -quantity);
+        }
+
+        void commit(int quantity) {
+            update(0, -quantity);
+        }
+
+        // The new stock less whatever is still reserved
+        void set(int stockQuantity) {
+            while (true) {
+                long current = state.get();
+                int reserved = (int) current;
+                if (state.compareAndSet(current, pack(stockQuantity - reserved, reserved))) {
+                    return;
+                }
+            }
+        }
+
+        private void update(int availableDelta, int reservedDelta) {
+            while (true) {
+                long current = state.get();
+                long next = pack((int) (current >> 32) + availableDelta, (int) current + reservedDelta);
+                if (state.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+
+        private static long pack(int available, int reserved) {
+            return ((long) available << 32) | (reserved & 0xFFFFFFFFL);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.victusstore.service;
+
+import com.victusstore.dto.ProductDetail;
+import com.victusstore.event.CatalogChangedEvent;
+import com.victusstore.model.Category;
+import com.victusstore.model.Product;
+import com.victusstore.model.ProductVariant;
+import com.victusstore.model.Seller;
+import com.victusstore.repository.ImageRepository;
+import com.victusstore.repository.ProductRepository;
+import com.victusstore.util.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Read path for the product page.
+ *
+ * A detail is assembled from two queries (product with category, seller and
+ * variants; then the image rows) and cached per product. Catalog writes publish
+ * {@link CatalogChangedEvent}s which evict the affected product once the write
+ * has committed. A load that overlaps an eviction is served but not cached.
+ */
+@Service
+public class ProductDetailService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final LruCache<Long, ProductDetail> cache;
+
+    // Bumped on every eviction so a load that raced with a write does not repopulate the cache
+    private long generation;
+
+    public ProductDetailService(PlatformTransactionManager transactionManager,
+                                @Value("${app.catalog.product-detail-cache.max-entries:1000}") int maxEntries) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.cache = new LruCache<>(maxEntries);
+    }
+
+    public Optional<ProductDetail> getDetail(Long productId) {
+        long loadGeneration;
+        synchronized (this) {
+            ProductDetail cached = cache.get(productId);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+            loadGeneration = generation;
+        }
+
+        ProductDetail detail = readOnlyTransaction.execute(status -> load(productId));
+        if (detail == null) {
+            return Optional.empty();
+        }
+
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                cache.put(productId, detail);
+            }
+        }
+        return Optional.of(detail);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.type() == CatalogChangedEvent.Type.STOCK) {
+            // Details carry no stock
+            return;
+        }
+        if (event.type() == CatalogChangedEvent.Type.SELLER
+                || event.type() == CatalogChangedEvent.Type.PRODUCTS_REMOVED) {
+            evict(event.productIds());
+        } else if (event.productId() == null) {
+            // Category changes touch the embedded category of many products
+            evictAll();
+        } else {
+            evict(event.productId());
+        }
+    }
+
+    public synchronized void evict(Long productId) {
+        generation++;
+        cache.remove(productId);
+    }
+
+    public synchronized void evict(Collection<Long> productIds) {
+        generation++;
+        productIds.forEach(cache::remove);
+    }
+
+    public synchronized void evictAll() {
+        generation++;
+        cache.clear();
+    }
+
+    private ProductDetail load(Long productId) {
+        Optional<Product> productOpt = productRepository.findDetailById(productId);
+        if (productOpt.isEmpty()) {
+            return null;
+        }
+        Product product = productOpt.get();
+        List<ProductDetail.ImageRef> images = imageRepository.findImageRefsByProductId(productId);
+
+        Map<Long, List<ProductDetail.ImageRef>> imagesByVariant = images.stream()
+                .filter(image -> image.variantId() != null)
+                .collect(Collectors.groupingBy(ProductDetail.ImageRef::variantId));
+
+        List<ProductDetail.VariantDetail> variants = new ArrayList<>();
+        if (product.getVariants() != null) {
+            product.getVariants().stream()
+                    .sorted(Comparator.comparing(ProductVariant::getVariantId))
+                    .forEach(variant -> variants.add(new ProductDetail.VariantDetail(
+                            variant.getVariantId(),
+                            variant.getColor(),
+                            variant.getSize(),
+                            variant.getPrice(),
+                            variant.getSku(),
+                            variant.getIsActive(),
+                            imagesByVariant.getOrDefault(variant.getVariantId(), List.of()))));
+        }
+
+        Category category = product.getCategory();
+        Seller seller = product.getSeller();
+        return new ProductDetail(
+                product.getProductId(),
+                product.getProductName(),
+                product.getDescription(),
+                product.getBasePrice(),
+                product.getCategoryId(),
+                product.getSellerId(),
+                product.getProductRating(),
+                product.getIsActive(),
+                product.getCreatedAt(),
+                product.getUpdatedAt(),
+                category == null ? null : new ProductDetail.CategoryRef(
+                        category.getCategoryId(), category.getCategoryName(), category.getParentCategoryId()),
+                seller == null ? null : new ProductDetail.SellerRef(
+                        seller.getSellerId(), seller.getSellerName(), seller.getRating()),
+                List.copyOf(variants),
+                List.copyOf(images));
+    }
+}
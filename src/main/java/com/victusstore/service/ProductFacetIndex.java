@@ -0,0 +1,491 @@
+package com.victusstore.service;
+
+import com.victusstore.event.CatalogChangedEvent;
+import com.victusstore.util.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap indexes over active products for faceted filtering by category,
+ * variant color, variant size, price and rating.
+ *
+ * Each facet value owns a {@link BitSet} of product ids; product ids are dense
+ * sequence values, so plain bitsets stay compact. A query ANDs the per-facet
+ * filters (values within one facet are ORed) and counts every facet value
+ * against the other facets' filters, so each facet shows what selecting one
+ * more value would return.
+ *
+ * Prices are base price plus variant price in cents, one per active variant.
+ * A product matches a price filter if any of its variants does.
+ *
+ * Rebuilds and re-indexes are serialized from the database read through to
+ * the swap, so an older read can never overwrite a newer one; queries only
+ * wait for the swap itself.
+ */
+@Service
+public class ProductFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    // Lower bounds in cents; the last bucket is open-ended
+    private static final long[] PRICE_BUCKET_BOUNDS = {0, 2_500, 5_000, 10_000, 20_000};
+    private static final String[] PRICE_BUCKET_LABELS = {"0-25", "25-50", "50-100", "100-200", "200+"};
+    private static final int MAX_RATING = 5;
+
+    private static final String PRODUCTS_SQL =
+            "SELECT product_id, category_id, base_price, product_rating FROM products "
+            + "WHERE (is_active IS NULL OR is_active = TRUE)";
+    private static final String VARIANTS_SQL =
+            "SELECT product_id, color, size, price FROM product_variants "
+            + "WHERE (is_active IS NULL OR is_active = TRUE)";
+    private static final String BY_PRODUCT = " AND product_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final BitSet active = new BitSet();
+    private final Map<Long, BitSet> byCategory = new HashMap<>();
+    private final Map<String, BitSet> byColor = new HashMap<>();
+    private final Map<String, BitSet> bySize = new HashMap<>();
+    private final BitSet[] byPriceBucket = newBitSets(PRICE_BUCKET_BOUNDS.length);
+    private final BitSet[] byRating = newBitSets(MAX_RATING + 1);
+
+    // Forward index so a product's bits can be cleared before re-indexing
+    private final Map<Integer, FacetDocument> documents = new HashMap<>();
+
+    /**
+     * Filters for one facet query; empty sets and null bounds do not filter.
+     */
+    public record FacetQuery(
+            Set<Long> categoryIds,
+            Set<String> colors,
+            Set<String> sizes,
+            BigDecimal minPrice,
+            BigDecimal maxPrice,
+            BigDecimal minRating) {
+    }
+
+    /**
+     * One page of matching product ids (newest first), the total number of
+     * matches and counts per facet value.
+     */
+    public record FacetResult(List<Long> productIds, int total, Map<String, Map<String, Integer>> facets) {
+    }
+
+    private record FacetDocument(Long categoryId, Set<String> colors, Set<String> sizes,
+                                 long[] pricesInCents, BigDecimal rating) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Map<Long, DocumentBuilder> loaded = new HashMap<>();
+        jdbcTemplate.query(PRODUCTS_SQL, rs -> {
+            loaded.put(rs.getLong("product_id"), DocumentBuilder.fromProductRow(rs));
+        });
+        jdbcTemplate.query(VARIANTS_SQL, rs -> {
+            DocumentBuilder builder = loaded.get(rs.getLong("product_id"));
+            if (builder != null) {
+                builder.addVariantRow(rs);
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            active.clear();
+            byCategory.clear();
+            byColor.clear();
+            bySize.clear();
+            Arrays.stream(byPriceBucket).forEach(BitSet::clear);
+            Arrays.stream(byRating).forEach(BitSet::clear);
+            documents.clear();
+            loaded.forEach((productId, builder) -> put(toIndex(productId), builder.build()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Product facet index built: {} products, {} colors, {} sizes",
+                loaded.size(), byColor.size(), bySize.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.type() == CatalogChangedEvent.Type.REMOTE) {
+            rebuild();
+            return;
+        }
+        if (event.type() == CatalogChangedEvent.Type.PRODUCTS_REMOVED) {
+            removeAll(event.productIds());
+            return;
+        }
+        if (event.productId() == null) {
+            return;
+        }
+        if (event.type() == CatalogChangedEvent.Type.PRODUCT || event.type() == CatalogChangedEvent.Type.VARIANT) {
+            reindex(event.productId());
+        }
+    }
+
+    /**
+     * Re-read one product and its variants and replace its bits.
+     */
+    public synchronized void reindex(Long productId) {
+        List<DocumentBuilder> found = new ArrayList<>(1);
+        jdbcTemplate.query(PRODUCTS_SQL + BY_PRODUCT, rs -> {
+            found.add(DocumentBuilder.fromProductRow(rs));
+        }, productId);
+        DocumentBuilder builder = found.isEmpty() ? null : found.get(0);
+        if (builder != null) {
+            jdbcTemplate.query(VARIANTS_SQL + BY_PRODUCT, rs -> {
+                builder.addVariantRow(rs);
+            }, productId);
+        }
+
+        int index = toIndex(productId);
+        lock.writeLock().lock();
+        try {
+            remove(index);
+            if (builder != null) {
+                put(index, builder.build());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop products known to be deleted, without reading them back.
+     */
+    public synchronized void removeAll(Collection<Long> productIds) {
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(productId -> remove(toIndex(productId)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public FacetResult query(FacetQuery query, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet categoryFilter = union(byCategory, query.categoryIds());
+            BitSet colorFilter = union(byColor, normalize(query.colors()));
+            BitSet sizeFilter = union(bySize, normalize(query.sizes()));
+            BitSet priceFilter = priceFilter(query.minPrice(), query.maxPrice());
+            BitSet ratingFilter = ratingFilter(query.minRating());
+
+            BitSet matches = intersect(categoryFilter, colorFilter, sizeFilter, priceFilter, ratingFilter);
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            facets.put("category", countValues(byCategory,
+                    intersect(colorFilter, sizeFilter, priceFilter, ratingFilter)));
+            facets.put("color", countValues(byColor,
+                    intersect(categoryFilter, sizeFilter, priceFilter, ratingFilter)));
+            facets.put("variant_size", countValues(bySize,
+                    intersect(categoryFilter, colorFilter, priceFilter, ratingFilter)));
+            facets.put("price", countPriceBuckets(
+                    intersect(categoryFilter, colorFilter, sizeFilter, ratingFilter)));
+            facets.put("rating", countRatings(
+                    intersect(categoryFilter, colorFilter, sizeFilter, priceFilter)));
+
+            return new FacetResult(page(matches, offset, limit), matches.cardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold the write lock
+
+    private void put(int index, FacetDocument document) {
+        documents.put(index, document);
+        active.set(index);
+        if (document.categoryId() != null) {
+            byCategory.computeIfAbsent(document.categoryId(), id -> new BitSet()).set(index);
+        }
+        document.colors().forEach(color -> byColor.computeIfAbsent(color, c -> new BitSet()).set(index));
+        document.sizes().forEach(size -> bySize.computeIfAbsent(size, s -> new BitSet()).set(index));
+        for (long price : document.pricesInCents()) {
+            byPriceBucket[priceBucket(price)].set(index);
+        }
+        byRating[ratingBucket(document.rating())].set(index);
+    }
+
+    private void remove(int index) {
+        FacetDocument document = documents.remove(index);
+        if (document == null) {
+            return;
+        }
+        active.clear(index);
+        if (document.categoryId() != null) {
+            clearBit(byCategory, document.categoryId(), index);
+        }
+        document.colors().forEach(color -> clearBit(byColor, color, index));
+        document.sizes().forEach(size -> clearBit(bySize, size, index));
+        Arrays.stream(byPriceBucket).forEach(bits -> bits.clear(index));
+        byRating[ratingBucket(document.rating())].clear(index);
+    }
+
+    private static <K> void clearBit(Map<K, BitSet> bitmaps, K key, int index) {
+        BitSet bits = bitmaps.get(key);
+        if (bits != null) {
+            bits.clear(index);
+            if (bits.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    // Callers hold the read lock
+
+    private <K> BitSet union(Map<K, BitSet> bitmaps, Set<K> values) {
+        if (values == null || values.isEmpty()) {
+            return active;
+        }
+        BitSet result = new BitSet();
+        for (K value : values) {
+            BitSet bits = bitmaps.get(value);
+            if (bits != null) {
+                result.or(bits);
+            }
+        }
+        return result;
+    }
+
+    // Buckets wholly inside the range are ORed in; only products in the boundary buckets are checked one by one
+    private BitSet priceFilter(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return active;
+        }
+        long min = minPrice == null ? Long.MIN_VALUE : Money.toMinorUnits(minPrice);
+        long max = maxPrice == null ? Long.MAX_VALUE : Money.toMinorUnits(maxPrice);
+        BitSet result = new BitSet();
+        BitSet boundary = new BitSet();
+        for (int bucket = 0; bucket < byPriceBucket.length; bucket++) {
+            // The first bucket also holds anything below its bound, the last anything above
+            long low = bucket == 0 ? Long.MIN_VALUE : PRICE_BUCKET_BOUNDS[bucket];
+            long high = bucket == byPriceBucket.length - 1 ? Long.MAX_VALUE : PRICE_BUCKET_BOUNDS[bucket + 1] - 1;
+            if (high < min || low > max) {
+                continue;
+            }
+            if (low >= min && high <= max) {
+                result.or(byPriceBucket[bucket]);
+            } else {
+                boundary.or(byPriceBucket[bucket]);
+            }
+        }
+        boundary.andNot(result);
+        for (int index = boundary.nextSetBit(0); index >= 0; index = boundary.nextSetBit(index + 1)) {
+            if (anyPriceBetween(documents.get(index).pricesInCents(), min, max)) {
+                result.set(index);
+            }
+        }
+        return result;
+    }
+
+    // Bucket r holds ratings in [r, r + 1); bucket 0 also holds unrated products
+    private BitSet ratingFilter(BigDecimal minRating) {
+        if (minRating == null) {
+            return active;
+        }
+        int boundaryBucket = ratingBucket(minRating);
+        BitSet result = new BitSet();
+        BitSet boundary = new BitSet();
+        for (int bucket = 0; bucket <= MAX_RATING; bucket++) {
+            if (bucket > 0 && minRating.compareTo(BigDecimal.valueOf(bucket)) <= 0) {
+                result.or(byRating[bucket]);
+            } else if (bucket == 0 || bucket == boundaryBucket) {
+                boundary.or(byRating[bucket]);
+            }
+        }
+        for (int index = boundary.nextSetBit(0); index >= 0; index = boundary.nextSetBit(index + 1)) {
+            BigDecimal rating = documents.get(index).rating();
+            if (rating != null && rating.compareTo(minRating) >= 0) {
+                result.set(index);
+            }
+        }
+        return result;
+    }
+
+    private static BitSet intersect(BitSet... filters) {
+        BitSet result = (BitSet) filters[0].clone();
+        for (int i = 1; i < filters.length; i++) {
+            result.and(filters[i]);
+        }
+        return result;
+    }
+
+    private static <K> Map<String, Integer> countValues(Map<K, BitSet> bitmaps, BitSet base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        bitmaps.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey((a, b) -> String.valueOf(a).compareTo(String.valueOf(b))))
+                .forEach(entry -> {
+                    int count = countIntersection(entry.getValue(), base);
+                    if (count > 0) {
+                        counts.put(String.valueOf(entry.getKey()), count);
+                    }
+                });
+        return counts;
+    }
+
+    private Map<String, Integer> countPriceBuckets(BitSet base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int i = 0; i < byPriceBucket.length; i++) {
+            counts.put(PRICE_BUCKET_LABELS[i], countIntersection(byPriceBucket[i], base));
+        }
+        return counts;
+    }
+
+    // Cumulative: "4+" counts every product rated 4.0 or higher
+    private Map<String, Integer> countRatings(BitSet base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        BitSet atLeast = new BitSet();
+        for (int rating = MAX_RATING; rating >= 1; rating--) {
+            atLeast.or(byRating[rating]);
+            if (rating < MAX_RATING) {
+                counts.put(rating + "+", countIntersection(atLeast, base));
+            }
+        }
+        return counts;
+    }
+
+    private static int countIntersection(BitSet bits, BitSet base) {
+        BitSet intersection = (BitSet) bits.clone();
+        intersection.and(base);
+        return intersection.cardinality();
+    }
+
+    private static List<Long> page(BitSet matches, int offset, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, matches.cardinality()));
+        int skipped = 0;
+        for (int index = matches.previousSetBit(matches.length() - 1);
+             index >= 0 && ids.size() < limit;
+             index = matches.previousSetBit(index - 1)) {
+            if (skipped++ >= offset) {
+                ids.add((long) index);
+            }
+        }
+        return ids;
+    }
+
+    private static boolean anyPriceBetween(long[] sortedPrices, long min, long max) {
+        int position = Arrays.binarySearch(sortedPrices, min);
+        int first = position >= 0 ? position : -position - 1;
+        return first < sortedPrices.length && sortedPrices[first] <= max;
+    }
+
+    private static int priceBucket(long priceInCents) {
+        for (int i = PRICE_BUCKET_BOUNDS.length - 1; i > 0; i--) {
+            if (priceInCents >= PRICE_BUCKET_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static int ratingBucket(BigDecimal rating) {
+        if (rating == null) {
+            return 0;
+        }
+        return Math.max(0, Math.min(MAX_RATING, rating.intValue()));
+    }
+
+    private static Set<String> normalize(Set<String> values) {
+        if (values == null || values.isEmpty()) {
+            return values;
+        }
+        Set<String> normalized = new TreeSet<>();
+        for (String value : values) {
+            String key = normalizeValue(value);
+            if (key != null) {
+                normalized.add(key);
+            }
+        }
+        return normalized;
+    }
+
+    private static String normalizeValue(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int toIndex(Long productId) {
+        return Math.toIntExact(productId);
+    }
+
+    private static BitSet[] newBitSets(int count) {
+        BitSet[] bitSets = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            bitSets[i] = new BitSet();
+        }
+        return bitSets;
+    }
+
+    private static final class DocumentBuilder {
+
+        private final Long categoryId;
+        private final BigDecimal basePrice;
+        private final BigDecimal rating;
+        private final Set<String> colors = new TreeSet<>();
+        private final Set<String> sizes = new TreeSet<>();
+        private final List<Long> prices = new ArrayList<>();
+
+        private DocumentBuilder(Long categoryId, BigDecimal basePrice, BigDecimal rating) {
+            this.categoryId = categoryId;
+            this.basePrice = basePrice;
+            this.rating = rating;
+        }
+
+        static DocumentBuilder fromProductRow(ResultSet rs) throws SQLException {
+            long categoryId = rs.getLong("category_id");
+            return new DocumentBuilder(rs.wasNull() ? null : categoryId,
+                    rs.getBigDecimal("base_price"), rs.getBigDecimal("product_rating"));
+        }
+
+        void addVariantRow(ResultSet rs) throws SQLException {
+            String color = normalizeValue(rs.getString("color"));
+            String size = normalizeValue(rs.getString("size"));
+            if (color != null) {
+                colors.add(color);
+            }
+            if (size != null) {
+                sizes.add(size);
+            }
+            BigDecimal price = rs.getBigDecimal("price");
+            if (price != null) {
+                prices.add(Money.toMinorUnits(basePrice == null ? price : basePrice.add(price)));
+            }
+        }
+
+        FacetDocument build() {
+            long[] pricesInCents = prices.isEmpty()
+                    ? (basePrice == null ? new long[0] : new long[]{Money.toMinorUnits(basePrice)})
+                    : prices.stream().mapToLong(Long::longValue).sorted().toArray();
+            return new FacetDocument(categoryId, Set.copyOf(colors), Set.copyOf(sizes), pricesInCents, rating);
+        }
+    }
+}
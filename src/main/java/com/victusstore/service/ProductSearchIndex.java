@@ -0,0 +1,285 @@
+package com.victusstore.service;
+
+import com.victusstore.event.CatalogChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over active products: name, description, and the
+ * color, size and SKU of their active variants.
+ *
+ * Terms live in a sorted map so the query tokens can also match as prefixes.
+ * Every query token must match (exactly or as a prefix) for a product to be
+ * returned. Ranking sums, per query token, the best field weight times the
+ * term's inverse document frequency; prefix matches count for less than exact
+ * ones.
+ *
+ * The index is built from the database on startup and a product is re-read and
+ * re-indexed after each product or variant write; a write on another replica
+ * rebuilds the whole index. Rebuilds and re-indexes are serialized from the
+ * database read through to the swap, so an older read can never overwrite a
+ * newer one; searches only wait for the swap itself.
+ */
+@Service
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float SKU_WEIGHT = 2.5f;
+    private static final float ATTRIBUTE_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float PREFIX_FACTOR = 0.6f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final String PRODUCTS_SQL =
+            "SELECT product_id, product_name, description FROM products WHERE (is_active IS NULL OR is_active = TRUE)";
+    private static final String VARIANTS_SQL =
+            "SELECT product_id, color, size, sku FROM product_variants WHERE (is_active IS NULL OR is_active = TRUE)";
+    private static final String BY_PRODUCT = " AND product_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> product id -> best field weight of that term in the product
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+    // product id -> its terms, so a product can be removed before re-indexing
+    private final Map<Long, Map<String, Float>> documents = new HashMap<>();
+
+    public record SearchHit(Long productId, float score) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Map<Long, Map<String, Float>> loaded = new HashMap<>();
+        jdbcTemplate.query(PRODUCTS_SQL, rs -> {
+            Map<String, Float> terms = new HashMap<>();
+            addTerms(terms, rs.getString("product_name"), NAME_WEIGHT);
+            addTerms(terms, rs.getString("description"), DESCRIPTION_WEIGHT);
+            loaded.put(rs.getLong("product_id"), terms);
+        });
+        jdbcTemplate.query(VARIANTS_SQL, rs -> {
+            Map<String, Float> terms = loaded.get(rs.getLong("product_id"));
+            if (terms != null) {
+                addVariantTerms(terms, rs.getString("color"), rs.getString("size"), rs.getString("sku"));
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            loaded.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Product search index built: {} products, {} terms", loaded.size(), postings.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.type() == CatalogChangedEvent.Type.REMOTE) {
+            rebuild();
+            return;
+        }
+        if (event.type() == CatalogChangedEvent.Type.PRODUCTS_REMOVED) {
+            removeAll(event.productIds());
+            return;
+        }
+        if (event.productId() == null) {
+            return;
+        }
+        if (event.type() == CatalogChangedEvent.Type.PRODUCT || event.type() == CatalogChangedEvent.Type.VARIANT) {
+            reindex(event.productId());
+        }
+    }
+
+    /**
+     * Re-read one product and its variants and replace its index entries.
+     */
+    public synchronized void reindex(Long productId) {
+        List<Map<String, Float>> found = new ArrayList<>(1);
+        jdbcTemplate.query(PRODUCTS_SQL + BY_PRODUCT, rs -> {
+            Map<String, Float> terms = new HashMap<>();
+            addTerms(terms, rs.getString("product_name"), NAME_WEIGHT);
+            addTerms(terms, rs.getString("description"), DESCRIPTION_WEIGHT);
+            found.add(terms);
+        }, productId);
+
+        Map<String, Float> terms = found.isEmpty() ? null : found.get(0);
+        if (terms != null) {
+            jdbcTemplate.query(VARIANTS_SQL + BY_PRODUCT,
+                    rs -> {
+                        addVariantTerms(terms, rs.getString("color"), rs.getString("size"), rs.getString("sku"));
+                    },
+                    productId);
+        }
+
+        lock.writeLock().lock();
+        try {
+            remove(productId);
+            if (terms != null) {
+                put(productId, terms);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop products known to be deleted, without reading them back.
+     */
+    public synchronized void removeAll(Collection<Long> productIds) {
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked product ids matching every token of {@code query}, best first.
+     */
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> tokens = new LinkedHashSet<>(tokenize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<Long, Float> scores = null;
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            for (String token : tokens) {
+                Map<Long, Float> tokenScores = new HashMap<>();
+                Map<Long, Float> exact = postings.get(token);
+                if (exact != null) {
+                    accumulate(tokenScores, exact, idf(documentCount, exact.size()));
+                }
+                if (token.length() >= MIN_PREFIX_LENGTH) {
+                    for (Map.Entry<String, Map<Long, Float>> entry
+                            : postings.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+                        accumulate(tokenScores, entry.getValue(),
+                                idf(documentCount, entry.getValue().size()) * PREFIX_FACTOR);
+                    }
+                }
+
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    scores.replaceAll((productId, score) -> score + tokenScores.get(productId));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return scores.entrySet().stream()
+                .map(entry -> new SearchHit(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingDouble((SearchHit hit) -> hit.score()).reversed()
+                        .thenComparing(SearchHit::productId, Comparator.reverseOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-cased runs of letters and digits; everything else separates tokens.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Callers hold the write lock
+    private void put(Long productId, Map<String, Float> terms) {
+        documents.put(productId, terms);
+        terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(productId, weight));
+    }
+
+    private void remove(Long productId) {
+        Map<String, Float> terms = documents.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Long, Float> products = postings.get(term);
+            if (products != null) {
+                products.remove(productId);
+                if (products.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addVariantTerms(Map<String, Float> terms, String color, String size, String sku) {
+        addTerms(terms, color, ATTRIBUTE_WEIGHT);
+        addTerms(terms, size, ATTRIBUTE_WEIGHT);
+        addTerms(terms, sku, SKU_WEIGHT);
+    }
+
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Math::max);
+        }
+    }
+
+    private static void accumulate(Map<Long, Float> tokenScores, Map<Long, Float> matches, float factor) {
+        matches.forEach((productId, weight) -> tokenScores.merge(productId, weight * factor, Math::max));
+    }
+
+    private static float idf(int documentCount, int documentFrequency) {
+        return (float) Math.log(1.0 + (double) documentCount / documentFrequency);
+    }
+}
@@ -3,8 +3,6 @@ package com.victusstore.service;
 import com.victusstore.config.JwtUtil;
 import com.victusstore.model.RefreshToken;
 import com.victusstore.repository.RefreshTokenRepository;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -16,8 +14,6 @@ import java.util.Optional;
 @Service
 public class RefreshTokenService {
 
-    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
-
     @Autowired
     private RefreshTokenRepository refreshTokenRepository;
 
@@ -83,11 +79,5 @@ public class RefreshTokenService {
             refreshTokenRepository.save(refreshToken);
         });
     }
-
-    @Transactional
-    public void deleteExpiredTokens() {
-        int deleted = refreshTokenRepository.deleteExpiredTokens(LocalDateTime.now());
-        logger.info("Deleted {} expired refresh tokens", deleted);
-    }
 }
 
@@ -0,0 +1,190 @@
+package com.victusstore.service;
+
+import com.victusstore.event.CatalogChangedEvent;
+import com.victusstore.exception.StockInsufficientException;
+import com.victusstore.model.CartProduct;
+import com.victusstore.model.ProductVariant;
+import com.victusstore.repository.ProductVariantRepository;
+import com.victusstore.util.TransactionCallbacks;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reserves stock for a whole cart in two statements: one ordered
+ * SELECT ... FOR UPDATE over every variant in the cart, and one JDBC batch of
+ * conditional decrements. Locking in variant_id order means two checkouts
+ * touching the same variants always queue instead of deadlocking.
+ *
+ * When the {@link InventoryLedger} is enabled, admission is decided in memory
+ * instead and the decrements are written back by the ledger after commit.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationService.class);
+
+    private static final String DECREMENT_SQL =
+            "UPDATE product_variants SET stock_quantity = stock_quantity - ?, updated_at = ? " +
+            "WHERE variant_id = ? AND stock_quantity >= ?";
+
+    @Autowired
+    private ProductVariantRepository variantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Lock, validate and decrement stock for every line of a cart.
+     * Must run inside the caller's transaction so the row locks are held until commit.
+     *
+     * @return the locked variants keyed by variant id, in lock order
+     * @throws StockInsufficientException if any variant cannot cover the requested quantity
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, ProductVariant> reserve(List<CartProduct> cartProducts) {
+        Map<Long, Integer> requested = aggregateQuantities(cartProducts);
+        if (inventoryLedger.isEnabled()) {
+            return reserveInLedger(requested);
+        }
+
+        // Variants reached through the cart lines were loaded without a lock; evict them
+        // so the locking query below reads current stock instead of returning stale copies.
+        for (CartProduct cartProduct : cartProducts) {
+            if (cartProduct.getVariant() != null) {
+                entityManager.detach(cartProduct.getVariant());
+            }
+        }
+
+        List<ProductVariant> locked = variantRepository.findAllByIdInWithLock(requested.keySet());
+        Map<Long, ProductVariant> variants = new LinkedHashMap<>();
+        for (ProductVariant variant : locked) {
+            variants.put(variant.getVariantId(), variant);
+        }
+
+        for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+            ProductVariant variant = variants.get(entry.getKey());
+            if (variant == null) {
+                throw new IllegalArgumentException(
+                        "Product variant not found for cart item: " + entry.getKey());
+            }
+            int availableStock = variant.getStockQuantity();
+            int requestedQuantity = entry.getValue();
+            if (availableStock < requestedQuantity) {
+                throw new StockInsufficientException(
+                        "Not enough stock for variant " + variant.getVariantId() +
+                        ". Available: " + availableStock + ", Requested: " + requestedQuantity,
+                        variant.getVariantId(),
+                        availableStock,
+                        requestedQuantity);
+            }
+        }
+
+        applyDecrements(requested, variants);
+        publishStockChanged(variants);
+        return variants;
+    }
+
+    private Map<Long, ProductVariant> reserveInLedger(Map<Long, Integer> requested) {
+        Map<Long, ProductVariant> variants = new LinkedHashMap<>();
+        for (ProductVariant variant : variantRepository.findAllById(requested.keySet())) {
+            variants.put(variant.getVariantId(), variant);
+            inventoryLedger.track(variant.getVariantId(), variant.getStockQuantity());
+        }
+        for (Long variantId : requested.keySet()) {
+            if (!variants.containsKey(variantId)) {
+                throw new IllegalArgumentException("Product variant not found for cart item: " + variantId);
+            }
+        }
+
+        Long rejectedId = inventoryLedger.tryReserve(requested);
+        if (rejectedId != null) {
+            int availableStock = inventoryLedger.getAvailableStock(rejectedId);
+            int requestedQuantity = requested.get(rejectedId);
+            throw new StockInsufficientException(
+                    "Not enough stock for variant " + rejectedId +
+                    ". Available: " + availableStock + ", Requested: " + requestedQuantity,
+                    rejectedId,
+                    availableStock,
+                    requestedQuantity);
+        }
+
+        // The ledger announces the stock change once its flush has written it
+        TransactionCallbacks.afterCompletion(
+                () -> inventoryLedger.commit(requested),
+                () -> inventoryLedger.release(requested));
+        return variants;
+    }
+
+    // Listeners run after commit, so cached stock figures are dropped only for checkouts that went through
+    private void publishStockChanged(Map<Long, ProductVariant> variants) {
+        variants.values().stream()
+                .map(ProductVariant::getProductId)
+                .distinct()
+                .forEach(productId -> eventPublisher.publishEvent(CatalogChangedEvent.stock(productId)));
+    }
+
+    private void applyDecrements(Map<Long, Integer> requested, Map<Long, ProductVariant> variants) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>(requested.size());
+        List<Long> ids = new ArrayList<>(requested.size());
+        for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+            batchArgs.add(new Object[]{entry.getValue(), now, entry.getKey(), entry.getValue()});
+            ids.add(entry.getKey());
+        }
+
+        int[] updateCounts = jdbcTemplate.batchUpdate(DECREMENT_SQL, batchArgs);
+        for (int i = 0; i < updateCounts.length; i++) {
+            // The rows are locked, so a zero count means stock moved underneath us
+            // through a path that bypassed the lock; fail the whole checkout.
+            if (updateCounts[i] == 0) {
+                ProductVariant variant = variants.get(ids.get(i));
+                throw new StockInsufficientException(
+                        "Stock changed during processing for variant " + variant.getVariantId(),
+                        variant.getVariantId(),
+                        variant.getStockQuantity(),
+                        requested.get(variant.getVariantId()));
+            }
+        }
+
+        // The managed copies still hold the pre-decrement stock; drop them so later
+        // reads in this persistence context go back to the database.
+        for (ProductVariant variant : variants.values()) {
+            entityManager.detach(variant);
+        }
+        logger.debug("Reserved stock for {} variants in one batch", ids.size());
+    }
+
+    private Map<Long, Integer> aggregateQuantities(List<CartProduct> cartProducts) {
+        // TreeMap keeps the ids sorted, matching the lock order of the bulk query
+        Map<Long, Integer> requested = new TreeMap<>();
+        for (CartProduct cartProduct : cartProducts) {
+            requested.merge(cartProduct.getVariantId(), cartProduct.getQuantity(), Integer::sum);
+        }
+        return requested;
+    }
+}
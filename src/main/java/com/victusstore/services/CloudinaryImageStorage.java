@@ -0,0 +1,71 @@
+package com.victusstore.services;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@ConditionalOnProperty(name = "app.images.storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryImageStorage implements ImageStorage {
+
+    @Autowired
+    private Cloudinary cloudinary;
+
+    // HTTP connect and socket timeout, so a stalled call cannot hold its thread (possibly a request thread)
+    @Value("${app.images.upload.timeout-seconds:120}")
+    private int timeoutSeconds;
+
+    @Override
+    public StoredImage store(Path file, String contentType, String folder) throws IOException {
+        // Generate unique public ID
+        String publicId = UUID.randomUUID().toString();
+
+        // Upload parameters
+        Map<?, ?> uploadParams = ObjectUtils.asMap(
+                "public_id", publicId,
+                "folder", folder != null ? folder : "victusstore",
+                "resource_type", "image",
+                "overwrite", false,
+                "use_filename", false,
+                "unique_filename", true,
+                "timeout", timeoutSeconds
+        );
+
+        try {
+            // The client streams a File from disk rather than holding it in memory
+            Map<?, ?> uploadResult = cloudinary.uploader().upload(file.toFile(), uploadParams);
+            return new StoredImage(
+                    uploadResult.get("secure_url").toString(),
+                    uploadResult.get("public_id").toString(),
+                    uploadResult.get("format").toString(),
+                    toInteger(uploadResult.get("width")),
+                    toInteger(uploadResult.get("height")),
+                    uploadResult.get("bytes") instanceof Number bytes ? bytes.longValue() : null
+            );
+        } catch (IOException e) {
+            throw new IOException("Failed to upload image to Cloudinary: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean delete(String publicId) throws IOException {
+        try {
+            Map<?, ?> result = cloudinary.uploader().destroy(publicId, ObjectUtils.asMap("timeout", timeoutSeconds));
+            return "ok".equals(result.get("result").toString());
+        } catch (IOException e) {
+            throw new IOException("Failed to delete image from Cloudinary: " + e.getMessage(), e);
+        }
+    }
+
+    private static Integer toInteger(Object value) {
+        return value instanceof Number number ? number.intValue() : null;
+    }
+}
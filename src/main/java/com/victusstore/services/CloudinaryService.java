@@ -1,20 +1,69 @@
 package com.victusstore.services;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class CloudinaryService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CloudinaryService.class);
+
+    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+
     @Autowired
-    private Cloudinary cloudinary;
+    private ImageStorage imageStorage;
+
+    @Value("${app.images.upload.timeout-seconds:120}")
+    private long uploadTimeoutSeconds;
+
+    // Bounded in both threads and queued work; once full, the request thread uploads itself
+    private final ThreadPoolExecutor uploadExecutor;
+
+    /**
+     * Outcome of one file in a multi-file upload.
+     *
+     * @param upload the same map {@link #uploadImage} returns, or null if the file failed
+     * @param rejected the file failed validation rather than the upload itself
+     */
+    public record UploadResult(int index, String filename, Map<String, Object> upload, String error, boolean rejected) {
+
+        public boolean succeeded() {
+            return upload != null;
+        }
+    }
+
+    public CloudinaryService(@Value("${app.images.upload.parallelism:4}") int parallelism) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.uploadExecutor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(parallelism * 16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-upload-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.uploadExecutor.allowCoreThreadTimeOut(true);
+    }
 
     /**
      * Upload image to Cloudinary
@@ -24,6 +73,98 @@ public class CloudinaryService {
      * @throws IOException if upload fails
      */
     public Map<String, Object> uploadImage(MultipartFile file, String folder) throws IOException {
+        validate(file);
+        return storeSpooled(spool(file), file.getContentType(), folder);
+    }
+
+    /**
+     * Delete image from Cloudinary
+     * @param publicId The public ID of the image to delete
+     * @return Map containing deletion result
+     * @throws IOException if deletion fails
+     */
+    public Map<String, Object> deleteImage(String publicId) throws IOException {
+        boolean deleted = imageStorage.delete(publicId);
+        return Map.of(
+                "result", deleted ? "ok" : "not found",
+                "success", deleted
+        );
+    }
+
+    /**
+     * Upload multiple images in parallel. Each file is validated and spooled to
+     * a temp file on the calling thread, then uploaded from disk on the upload
+     * pool, so the whole batch takes about as long as its slowest file.
+     *
+     * A failing file does not fail the others; every file gets its own result,
+     * in the order the files were given. A file that takes longer than
+     * {@code app.images.upload.timeout-seconds} is reported as timed out; if
+     * its upload still lands afterwards, the stored image is deleted, since
+     * the caller was told it failed and will never record it.
+     * @param files Array of image files
+     * @param folder Optional folder name
+     * @return One result per file
+     */
+    public List<UploadResult> uploadMultipleImages(MultipartFile[] files, String folder) {
+        if (files == null || files.length == 0) {
+            throw new IllegalArgumentException("No files provided");
+        }
+
+        List<CompletableFuture<UploadResult>> futures = new ArrayList<>(files.length);
+        for (int i = 0; i < files.length; i++) {
+            MultipartFile file = files[i];
+            int index = i;
+            String filename = file != null ? file.getOriginalFilename() : null;
+
+            Path spooled;
+            try {
+                validate(file);
+                spooled = spool(file);
+            } catch (IllegalArgumentException e) {
+                futures.add(CompletableFuture.completedFuture(
+                        new UploadResult(index, filename, null, e.getMessage(), true)));
+                continue;
+            } catch (IOException e) {
+                futures.add(CompletableFuture.completedFuture(
+                        new UploadResult(index, filename, null, e.getMessage(), false)));
+                continue;
+            }
+
+            String contentType = file.getContentType();
+            CompletableFuture<Map<String, Object>> upload = new CompletableFuture<Map<String, Object>>()
+                    .orTimeout(uploadTimeoutSeconds, TimeUnit.SECONDS);
+            uploadExecutor.execute(() -> {
+                try {
+                    Map<String, Object> stored = storeSpooled(spooled, contentType, folder);
+                    if (!upload.complete(stored)) {
+                        // Already reported as timed out, so nothing will ever reference this image
+                        discardLateUpload(stored, filename);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    upload.completeExceptionally(e);
+                }
+            });
+            futures.add(upload
+                    .handle((stored, failure) -> {
+                        if (failure == null) {
+                            logger.debug("Uploaded file {} of {}: {}", index + 1, files.length, filename);
+                            return new UploadResult(index, filename, stored, null, false);
+                        }
+                        String error = describe(failure);
+                        logger.warn("Upload of file {} ({}) failed: {}", index + 1, filename, error);
+                        return new UploadResult(index, filename, null, error, false);
+                    }));
+        }
+
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
+
+    private static void validate(MultipartFile file) {
         // Validate file
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("File cannot be empty");
@@ -36,78 +177,66 @@ public class CloudinaryService {
         }
 
         // Validate file size (max 10MB)
-        long maxSize = 10 * 1024 * 1024; // 10MB
-        if (file.getSize() > maxSize) {
+        if (file.getSize() > MAX_FILE_SIZE) {
             throw new IllegalArgumentException("File size must not exceed 10MB");
         }
+    }
 
-        // Generate unique public ID
-        String publicId = UUID.randomUUID().toString();
-
-        // Upload parameters
-        Map<String, Object> uploadParams = ObjectUtils.asMap(
-                "public_id", publicId,
-                "folder", folder != null ? folder : "victusstore",
-                "resource_type", "image",
-                "overwrite", false,
-                "use_filename", false,
-                "unique_filename", true
-        );
-
+    /**
+     * Move the multipart upload into a temp file we own. The servlet container
+     * has usually written the part to disk already, so this is a rename or a
+     * stream copy, never a full read onto the heap.
+     */
+    private static Path spool(MultipartFile file) throws IOException {
+        Path target = Files.createTempFile("victus-upload-", ".img");
         try {
-            // Upload to Cloudinary
-            Map uploadResult = cloudinary.uploader().upload(file.getBytes(), uploadParams);
-            
-            // Return relevant information
-            return Map.of(
-                    "url", uploadResult.get("secure_url").toString(),
-                    "public_id", uploadResult.get("public_id").toString(),
-                    "format", uploadResult.get("format").toString(),
-                    "width", uploadResult.get("width"),
-                    "height", uploadResult.get("height"),
-                    "bytes", uploadResult.get("bytes")
-            );
-        } catch (IOException e) {
-            throw new IOException("Failed to upload image to Cloudinary: " + e.getMessage(), e);
+            file.transferTo(target);
+            return target;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
         }
     }
 
-    /**
-     * Delete image from Cloudinary
-     * @param publicId The public ID of the image to delete
-     * @return Map containing deletion result
-     * @throws IOException if deletion fails
-     */
-    public Map<String, Object> deleteImage(String publicId) throws IOException {
+    private Map<String, Object> storeSpooled(Path spooled, String contentType, String folder) throws IOException {
         try {
-            Map result = cloudinary.uploader().destroy(publicId, ObjectUtils.emptyMap());
-            return Map.of(
-                    "result", result.get("result").toString(),
-                    "success", "ok".equals(result.get("result").toString())
-            );
-        } catch (IOException e) {
-            throw new IOException("Failed to delete image from Cloudinary: " + e.getMessage(), e);
+            ImageStorage.StoredImage stored = imageStorage.store(spooled, contentType, folder);
+
+            // Return relevant information
+            Map<String, Object> result = new HashMap<>();
+            result.put("url", stored.url());
+            result.put("public_id", stored.publicId());
+            result.put("format", stored.format());
+            result.put("width", stored.width());
+            result.put("height", stored.height());
+            result.put("bytes", stored.bytes());
+            return result;
+        } finally {
+            try {
+                Files.deleteIfExists(spooled);
+            } catch (IOException e) {
+                logger.warn("Could not delete spooled upload {}: {}", spooled, e.getMessage());
+            }
         }
     }
 
-    /**
-     * Upload multiple images
-     * @param files Array of image files
-     * @param folder Optional folder name
-     * @return Array of upload results
-     */
-    public Map<String, Object>[] uploadMultipleImages(MultipartFile[] files, String folder) throws IOException {
-        if (files == null || files.length == 0) {
-            throw new IllegalArgumentException("No files provided");
+    private void discardLateUpload(Map<String, Object> stored, String filename) {
+        Object publicId = stored.get("public_id");
+        try {
+            imageStorage.delete(publicId.toString());
+            logger.info("Deleted image {} ({}) whose upload finished after it timed out", publicId, filename);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not delete image {} ({}) whose upload finished after it timed out; it is orphaned: {}",
+                    publicId, filename, e.getMessage());
         }
+    }
 
-        @SuppressWarnings("unchecked")
-        Map<String, Object>[] results = new Map[files.length];
-        
-        for (int i = 0; i < files.length; i++) {
-            results[i] = uploadImage(files[i], folder);
+    private static String describe(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        if (cause instanceof TimeoutException) {
+            return "Upload timed out";
         }
-        
-        return results;
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
     }
-}
\ No newline at end of file
+}
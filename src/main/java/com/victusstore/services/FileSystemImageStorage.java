@@ -0,0 +1,382 @@
+package com.victusstore.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stores images on the local filesystem, for development, tests and single-node
+ * deployments that do not want to depend on Cloudinary.
+ *
+ * Originals are written under {@code app.images.filesystem.root} as
+ * {@code <folder>/<uuid>.<ext>}, and that relative key is the public id. After
+ * each upload a small worker pool renders the {@link Rendition} sizes under
+ * {@code .renditions/<size>/}. A rendition that is requested before the worker
+ * got to it is rendered on the spot, but only while one of
+ * {@code app.images.filesystem.request-render-permits} is free: decoding takes
+ * up to four bytes per pixel, so beyond that the original stands in until the
+ * rendition exists. When a size is served by the original for good (already
+ * small enough, a format that cannot be resized, or more than
+ * {@code app.images.filesystem.max-pixels}) an empty marker file records that,
+ * so the original is not decoded again on every request. Files are served by
+ * ImageFileController.
+ */
+@Service
+@ConditionalOnProperty(name = "app.images.storage", havingValue = "filesystem")
+public class FileSystemImageStorage implements ImageStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSystemImageStorage.class);
+
+    private static final String RENDITIONS_DIR = ".renditions";
+    private static final String USE_ORIGINAL_SUFFIX = ".original";
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/jpg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif",
+            "image/webp", "webp",
+            "image/bmp", "bmp"
+    );
+
+    /**
+     * Resized copies, bounded by their longest side. Images already smaller
+     * than a rendition are served as they are.
+     */
+    public enum Rendition {
+        THUMBNAIL(200),
+        MEDIUM(600),
+        LARGE(1200);
+
+        private final int maxDimension;
+
+        Rendition(int maxDimension) {
+            this.maxDimension = maxDimension;
+        }
+
+        public int maxDimension() {
+            return maxDimension;
+        }
+
+        public String paramName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * The rendition named by a {@code size} request parameter, or null.
+         */
+        public static Rendition fromParam(String value) {
+            for (Rendition rendition : values()) {
+                if (rendition.paramName().equalsIgnoreCase(value)) {
+                    return rendition;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The file to serve for a rendition. {@code pending} means the original is
+     * standing in for a rendition that is not made yet, so it must not be
+     * cached as that rendition.
+     */
+    public record RenditionFile(Path path, boolean pending) {
+    }
+
+    private final Path root;
+    private final String baseUrl;
+    private final long maxPixels;
+    private final ThreadPoolExecutor renditionExecutor;
+    private final Semaphore requestRenders;
+
+    public FileSystemImageStorage(@Value("${app.images.filesystem.root:./data/images}") String root,
+                                  @Value("${app.images.filesystem.base-url:/api/images/files}") String baseUrl,
+                                  @Value("${app.images.filesystem.rendition-threads:2}") int renditionThreads,
+                                  @Value("${app.images.filesystem.request-render-permits:1}") int requestRenderPermits,
+                                  @Value("${app.images.filesystem.max-pixels:12000000}") long maxPixels) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.maxPixels = maxPixels;
+        this.requestRenders = new Semaphore(requestRenderPermits);
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        // When the queue is full the work is dropped; the rendition is then made on first request
+        this.renditionExecutor = new ThreadPoolExecutor(renditionThreads, renditionThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-rendition-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+        this.renditionExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(root);
+        logger.info("Filesystem image storage at {}", root);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renditionExecutor.shutdown();
+    }
+
+    @Override
+    public StoredImage store(Path file, String contentType, String folder) throws IOException {
+        String extension = EXTENSIONS.getOrDefault(
+                contentType != null ? contentType.toLowerCase(Locale.ROOT) : "", "img");
+        String key = sanitizeFolder(folder) + "/" + UUID.randomUUID() + "." + extension;
+        Path target = resolveKey(key);
+        Files.createDirectories(target.getParent());
+
+        // Channel-to-channel copy; the kernel moves the bytes without a user-space buffer
+        long size;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+
+        int[] dimensions = readDimensions(target);
+        renditionExecutor.execute(() -> {
+            for (Rendition rendition : Rendition.values()) {
+                try {
+                    resolve(key, rendition, false);
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Could not render {} of {}: {}", rendition.paramName(), key, e.getMessage());
+                }
+            }
+        });
+
+        return new StoredImage(
+                baseUrl + "/" + key,
+                key,
+                extension,
+                dimensions != null ? dimensions[0] : null,
+                dimensions != null ? dimensions[1] : null,
+                size);
+    }
+
+    @Override
+    public boolean delete(String publicId) throws IOException {
+        Path original = resolveKey(publicId);
+        for (Rendition rendition : Rendition.values()) {
+            Path rendered = renditionPath(publicId, rendition);
+            Files.deleteIfExists(rendered);
+            Files.deleteIfExists(useOriginalMarker(rendered));
+        }
+        return Files.deleteIfExists(original);
+    }
+
+    /**
+     * The stored original for {@code key}, or null if there is none.
+     *
+     * @throws IllegalArgumentException if the key points outside the storage root
+     */
+    public Path resolveOriginal(String key) {
+        Path original = resolveKey(key);
+        return Files.isRegularFile(original) ? original : null;
+    }
+
+    /**
+     * The file to serve for {@code key} at the given size, rendering it now if
+     * the background worker has not and a request render permit is free;
+     * otherwise the original, marked pending. Falls back to the original for
+     * good when it is already small enough or its format cannot be resized.
+     * Null if the original does not exist.
+     */
+    public RenditionFile resolveRendition(String key, Rendition rendition) throws IOException {
+        return resolve(key, rendition, true);
+    }
+
+    private RenditionFile resolve(String key, Rendition rendition, boolean onRequest) throws IOException {
+        Path original = resolveOriginal(key);
+        if (original == null) {
+            return null;
+        }
+        Path target = renditionPath(key, rendition);
+        if (Files.isRegularFile(target)) {
+            return new RenditionFile(target, false);
+        }
+        Path marker = useOriginalMarker(target);
+        if (Files.exists(marker)) {
+            return new RenditionFile(original, false);
+        }
+        // The worker is bounded by its pool; requests must not pile up decodes on top of it
+        if (onRequest && !requestRenders.tryAcquire()) {
+            return new RenditionFile(original, true);
+        }
+        boolean rendered;
+        try {
+            rendered = render(original, target, rendition);
+        } finally {
+            if (onRequest) {
+                requestRenders.release();
+            }
+        }
+        if (rendered) {
+            return new RenditionFile(target, false);
+        }
+        Files.createDirectories(marker.getParent());
+        try {
+            Files.createFile(marker);
+        } catch (FileAlreadyExistsException e) {
+            // Another request got there first
+        }
+        return new RenditionFile(original, false);
+    }
+
+    private boolean render(Path original, Path target, Rendition rendition) throws IOException {
+        String format = formatOf(original);
+        if (format == null) {
+            return false;
+        }
+        // Check the header before decoding: a small file can still expand to an enormous bitmap
+        int[] dimensions = readDimensions(original);
+        if (dimensions == null || (long) dimensions[0] * dimensions[1] > maxPixels) {
+            if (dimensions != null) {
+                logger.warn("Not rendering {}: {}x{} exceeds {} pixels",
+                        original.getFileName(), dimensions[0], dimensions[1], maxPixels);
+            }
+            return false;
+        }
+        if (Math.max(dimensions[0], dimensions[1]) <= rendition.maxDimension()) {
+            return false;
+        }
+        BufferedImage source = ImageIO.read(original.toFile());
+        if (source == null) {
+            return false;
+        }
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int longest = Math.max(width, height);
+        if (longest <= rendition.maxDimension()) {
+            return false;
+        }
+
+        double scale = (double) rendition.maxDimension() / longest;
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        // JPEG has no alpha channel
+        int type = "jpg".equals(format) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight, type);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        // Write to a temp file and move it into place so readers never see a partial rendition
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".render-", "." + format);
+        try {
+            if (!ImageIO.write(scaled, format, temp.toFile())) {
+                return false;
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path renditionPath(String key, Rendition rendition) {
+        return root.resolve(RENDITIONS_DIR).resolve(rendition.paramName()).resolve(key).normalize();
+    }
+
+    private static Path useOriginalMarker(Path rendition) {
+        return rendition.resolveSibling(rendition.getFileName() + USE_ORIGINAL_SUFFIX);
+    }
+
+    private Path resolveKey(String key) {
+        Path resolved = root.resolve(key).normalize();
+        if (!resolved.startsWith(root) || resolved.equals(root)
+                || root.relativize(resolved).startsWith(RENDITIONS_DIR)) {
+            throw new IllegalArgumentException("Invalid image key");
+        }
+        return resolved;
+    }
+
+    // Formats ImageIO can both read and write; others are only ever served as originals
+    private static String formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".jpg")) {
+            return "jpg";
+        }
+        if (name.endsWith(".png")) {
+            return "png";
+        }
+        if (name.endsWith(".bmp")) {
+            return "bmp";
+        }
+        return null;
+    }
+
+    // Reads only the image header, not the pixels
+    private static int[] readDimensions(Path file) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new int[] {reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String sanitizeFolder(String folder) {
+        String cleaned = folder == null ? "" : folder.replaceAll("[^A-Za-z0-9_-]", "");
+        return cleaned.isEmpty() ? "victusstore" : cleaned;
+    }
+}
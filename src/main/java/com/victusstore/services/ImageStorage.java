@@ -0,0 +1,27 @@
+package com.victusstore.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Backend that stores uploaded image files and hands back a public URL.
+ * {@link CloudinaryService} validates uploads and spools them to disk before
+ * calling it, so implementations only ever see a readable file.
+ */
+public interface ImageStorage {
+
+    /**
+     * Store the image at {@code file} under {@code folder}.
+     */
+    StoredImage store(Path file, String contentType, String folder) throws IOException;
+
+    /**
+     * Delete a stored image by the id returned from {@link #store}.
+     *
+     * @return whether an image was deleted
+     */
+    boolean delete(String publicId) throws IOException;
+
+    record StoredImage(String url, String publicId, String format, Integer width, Integer height, Long bytes) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.victusstore.util;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ *
+ * Producers claim a slot by advancing the tail with compare-and-set and then
+ * publish the element into it; the consumer takes elements in claim order,
+ * stopping at a claimed slot whose element is not published yet. Offers
+ * never block: a full buffer is reported to the caller.
+ */
+public class MpscRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Add an element; returns false without waiting if the buffer is full.
+     */
+    public boolean offer(T element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        while (true) {
+            long claim = tail.get();
+            if (claim - head.get() >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(claim, claim + 1)) {
+                slots.set((int) claim & mask, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Move up to {@code max} elements into {@code sink}. Only one thread may drain.
+     */
+    public int drainTo(Collection<? super T> sink, int max) {
+        long position = head.get();
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) position & mask;
+            T element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            slots.set(index, null);
+            sink.add(element);
+            position++;
+            drained++;
+        }
+        if (drained > 0) {
+            head.set(position);
+        }
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+}
@@ -0,0 +1,92 @@
+package com.victusstore.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 of a request body in canonical JSON form: map keys and bean
+ * properties in sorted order, so equal payloads hash equally whatever order
+ * they were built in.
+ *
+ * The JSON is streamed straight into a per-thread digest, so no intermediate
+ * String or byte array is built; the only allocation per call is the
+ * resulting 64-character hex string.
+ */
+public class RequestHasher {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int HASH_BYTES = 32;
+
+    private static final ThreadLocal<DigestSink> SINK = ThreadLocal.withInitial(DigestSink::new);
+
+    private final ObjectWriter writer;
+
+    public RequestHasher(ObjectMapper objectMapper) {
+        // Copy so the application's mapper keeps its own settings
+        ObjectMapper canonical = objectMapper.copy()
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        canonical.setConfig(canonical.getSerializationConfig()
+                .with(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS));
+        this.writer = canonical.writer();
+    }
+
+    /**
+     * Lower-case hex SHA-256 of the canonical JSON of {@code body}.
+     */
+    public String hash(Object body) throws IOException {
+        DigestSink sink = SINK.get();
+        sink.digest.reset();
+        writer.writeValue(sink, body);
+        try {
+            sink.digest.digest(sink.hash, 0, HASH_BYTES);
+        } catch (DigestException e) {
+            throw new IllegalStateException("SHA-256 digest failed", e);
+        }
+        return toHex(sink.hash, sink.hex);
+    }
+
+    private static String toHex(byte[] bytes, char[] out) {
+        for (int i = 0; i < bytes.length; i++) {
+            int value = bytes[i] & 0xff;
+            out[i * 2] = HEX_DIGITS[value >>> 4];
+            out[i * 2 + 1] = HEX_DIGITS[value & 0x0f];
+        }
+        return new String(out);
+    }
+
+    // An OutputStream that feeds the digest, plus reusable buffers for the result
+    private static final class DigestSink extends OutputStream {
+
+        private final MessageDigest digest;
+        private final byte[] hash = new byte[HASH_BYTES];
+        private final char[] hex = new char[HASH_BYTES * 2];
+
+        DigestSink() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        @Override
+        public void write(int b) {
+            digest.update((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            digest.update(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.victusstore.config;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Key selection by kid header, across a rotation and for tokens issued before
+ * kid headers existed, and the startup checks on the configured keys.
+ */
+class JwtKeyringTest {
+
+    private static final String OLD_SECRET = "old-rotation-secret-old-rotation-secret-0123";
+    private static final String NEW_SECRET = "new-rotation-secret-new-rotation-secret-0123";
+    private static final String LEGACY_SECRET = "legacy-plain-secret-legacy-plain-secret-0123";
+
+    @Test
+    void testActiveKeyIsUsedForTheActiveKid() {
+        JwtKeyring keyring = keyring("old:" + OLD_SECRET + ", new:" + NEW_SECRET, "new", "");
+
+        assertEquals("new", keyring.activeKid());
+        assertEquals(key(NEW_SECRET), keyring.activeKey());
+        assertEquals("someone@example.com", parser(keyring).parseClaimsJws(sign("new", NEW_SECRET)).getBody().getSubject());
+    }
+
+    @Test
+    void testOldKidIsStillAcceptedDuringRotation() {
+        JwtKeyring keyring = keyring("old:" + OLD_SECRET + ",new:" + NEW_SECRET, "new", "");
+
+        assertEquals(key(OLD_SECRET), keyring.keyFor("old"));
+        assertEquals("someone@example.com", parser(keyring).parseClaimsJws(sign("old", OLD_SECRET)).getBody().getSubject());
+    }
+
+    @Test
+    void testTokenWithoutKidResolvesToTheLegacySecret() {
+        JwtKeyring keyring = keyring("new:" + NEW_SECRET, "new", LEGACY_SECRET);
+
+        assertEquals(key(LEGACY_SECRET), keyring.keyFor(null));
+        assertEquals(key(LEGACY_SECRET), keyring.keyFor(JwtKeyring.LEGACY_KID));
+        assertEquals("someone@example.com", parser(keyring).parseClaimsJws(sign(null, LEGACY_SECRET)).getBody().getSubject());
+    }
+
+    @Test
+    void testLegacySecretAloneBecomesTheActiveKey() {
+        JwtKeyring keyring = keyring("", "", LEGACY_SECRET);
+
+        assertEquals(JwtKeyring.LEGACY_KID, keyring.activeKid());
+        assertEquals(key(LEGACY_SECRET), keyring.activeKey());
+    }
+
+    @Test
+    void testUnknownKidIsRejected() {
+        JwtKeyring keyring = keyring("new:" + NEW_SECRET, "new", "");
+
+        assertNull(keyring.keyFor("retired"));
+        assertThrows(SignatureException.class, () -> parser(keyring).parseClaimsJws(sign("retired", OLD_SECRET)));
+        // No legacy secret configured, so a token without a kid has no key either
+        assertThrows(SignatureException.class, () -> parser(keyring).parseClaimsJws(sign(null, NEW_SECRET)));
+    }
+
+    @Test
+    void testKnownKidWithTheWrongKeyIsRejected() {
+        JwtKeyring keyring = keyring("old:" + OLD_SECRET + ",new:" + NEW_SECRET, "new", "");
+
+        assertThrows(SignatureException.class, () -> parser(keyring).parseClaimsJws(sign("new", OLD_SECRET)));
+    }
+
+    @Test
+    void testShortSecretFailsStartup() {
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> keyring("short:too-short", "short", ""));
+        assertTrue(error.getMessage().contains("'short'"), error.getMessage());
+
+        assertThrows(IllegalStateException.class, () -> keyring("", "", "too-short"));
+    }
+
+    @Test
+    void testActiveKidMustNameAConfiguredKey() {
+        assertThrows(IllegalStateException.class, () -> keyring("new:" + NEW_SECRET, "missing", ""));
+        // With more than one key there is no default to fall back on
+        assertThrows(IllegalStateException.class, () -> keyring("old:" + OLD_SECRET + ",new:" + NEW_SECRET, "", ""));
+    }
+
+    @Test
+    void testMalformedOrDuplicateEntriesFailStartup() {
+        assertThrows(IllegalStateException.class, () -> keyring(NEW_SECRET, "", ""));
+        assertThrows(IllegalStateException.class, () -> keyring("new:", "new", ""));
+        assertThrows(IllegalStateException.class, () -> keyring("new:" + NEW_SECRET + ",new:" + OLD_SECRET, "new", ""));
+    }
+
+    private static JwtKeyring keyring(String keys, String activeKid, String legacySecret) {
+        JwtKeyring keyring = new JwtKeyring();
+        ReflectionTestUtils.setField(keyring, "configuredKeys", keys);
+        ReflectionTestUtils.setField(keyring, "configuredActiveKid", activeKid);
+        ReflectionTestUtils.setField(keyring, "legacySecret", legacySecret);
+        keyring.load();
+        return keyring;
+    }
+
+    private static JwtParser parser(JwtKeyring keyring) {
+        return Jwts.parserBuilder().setSigningKeyResolver(keyring.resolver()).build();
+    }
+
+    private static String sign(String kid, String secret) {
+        JwtBuilder builder = Jwts.builder()
+                .setSubject("someone@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000));
+        if (kid != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, kid);
+        }
+        return builder.signWith(key(secret), SignatureAlgorithm.HS256).compact();
+    }
+
+    private static Key key(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+}
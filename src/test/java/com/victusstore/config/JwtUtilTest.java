@@ -0,0 +1,126 @@
+package com.victusstore.config;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The verification cache behind {@link JwtUtil#verify}: it must never answer
+ * for a token it would reject on a fresh parse.
+ */
+class JwtUtilTest {
+
+    private JwtKeyring keyring;
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        keyring = new JwtKeyring();
+        ReflectionTestUtils.setField(keyring, "configuredKeys", "");
+        ReflectionTestUtils.setField(keyring, "configuredActiveKid", "");
+        ReflectionTestUtils.setField(keyring, "legacySecret", "verify-cache-secret-verify-cache-secret-0123");
+        keyring.load();
+
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "keyring", keyring);
+        ReflectionTestUtils.setField(jwtUtil, "verificationCacheSize", 100);
+        jwtUtil.init();
+    }
+
+    @Test
+    void testRepeatedVerifyIsServedFromTheCache() {
+        String token = jwtUtil.generateAccessToken("cached@example.com", "SELLER");
+
+        JwtUtil.TokenClaims first = jwtUtil.verify(token);
+
+        assertEquals("cached@example.com", first.email());
+        assertEquals("SELLER", first.role());
+        assertSame(first, jwtUtil.verify(token));
+        assertEquals(1, cacheSize());
+    }
+
+    @Test
+    void testCachedTokenPastItsExpiryIsRejectedAndEvicted() throws Exception {
+        // exp has whole-second precision; 1.5s keeps it in the future for the first verify
+        String token = Jwts.builder()
+                .setSubject("expiring@example.com")
+                .claim("role", "CUSTOMER")
+                .setExpiration(new Date(System.currentTimeMillis() + 1500))
+                .setHeaderParam(JwsHeader.KEY_ID, keyring.activeKid())
+                .signWith(keyring.activeKey(), SignatureAlgorithm.HS256)
+                .compact();
+        JwtUtil.TokenClaims claims = jwtUtil.verify(token);
+        assertEquals(1, cacheSize());
+
+        Thread.sleep(Math.max(0, claims.expiration().getTime() - System.currentTimeMillis()) + 50);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verify(token));
+        assertEquals(0, cacheSize());
+        // Not cached again on the way through the parser either
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verify(token));
+        assertEquals(0, cacheSize());
+    }
+
+    @Test
+    void testTamperedTokenIsNotServedFromTheCache() {
+        String token = jwtUtil.generateAccessToken("tampered@example.com", "CUSTOMER");
+        jwtUtil.verify(token);
+
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+        String escalated = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replace("CUSTOMER", "ADMIN").getBytes(StandardCharsets.UTF_8));
+        String tampered = parts[0] + "." + escalated + "." + parts[2];
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+        assertEquals(1, cacheSize());
+        assertEquals("CUSTOMER", jwtUtil.verify(token).role());
+    }
+
+    @Test
+    void testTokenSignedWithAnotherKeyIsRejected() {
+        String foreign = Jwts.builder()
+                .setSubject("foreign@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .setHeaderParam(JwsHeader.KEY_ID, keyring.activeKid())
+                .signWith(Keys.hmacShaKeyFor(
+                        "some-other-secret-some-other-secret-0123456".getBytes(StandardCharsets.UTF_8)),
+                        SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(foreign));
+        assertEquals(0, cacheSize());
+    }
+
+    @Test
+    void testFullCacheOfLiveTokensStillVerifiesNewOnes() {
+        ReflectionTestUtils.setField(jwtUtil, "verificationCacheSize", 2);
+        jwtUtil.verify(jwtUtil.generateAccessToken("first@example.com", "CUSTOMER"));
+        jwtUtil.verify(jwtUtil.generateAccessToken("second@example.com", "CUSTOMER"));
+
+        String third = jwtUtil.generateAccessToken("third@example.com", "CUSTOMER");
+
+        assertEquals("third@example.com", jwtUtil.verify(third).email());
+        assertEquals(2, cacheSize());
+        // Not cached, so every verify parses again and still succeeds
+        assertEquals("third@example.com", jwtUtil.verify(third).email());
+        assertEquals(2, cacheSize());
+    }
+
+    private int cacheSize() {
+        return ((Map<?, ?>) ReflectionTestUtils.getField(jwtUtil, "verified")).size();
+    }
+}
@@ -0,0 +1,72 @@
+package com.victusstore.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitRuleMatcherTest {
+
+    private final RateLimitRuleMatcher matcher = new RateLimitRuleMatcher(List.of(
+            rule("orders", "/api/orders/**", 10),
+            rule("checkout", "/api/orders/from-cart", 3, "POST"),
+            rule("product-reviews", "/api/products/*/reviews", 5),
+            rule("product-one", "/api/products/featured/reviews", 7)));
+
+    @Test
+    void testDeepestMatchWins() {
+        assertEquals("checkout", matcher.match("POST", "/api/orders/from-cart/12").name());
+        assertEquals("orders", matcher.match("GET", "/api/orders/from-cart/12").name());
+        assertEquals("orders", matcher.match("GET", "/api/orders").name());
+    }
+
+    @Test
+    void testWildcardMatchesOneSegmentAndLiteralBeatsIt() {
+        assertEquals("product-reviews", matcher.match("GET", "/api/products/42/reviews").name());
+        assertEquals("product-one", matcher.match("GET", "/api/products/featured/reviews").name());
+        assertNull(matcher.match("GET", "/api/products/42"));
+    }
+
+    @Test
+    void testSegmentsMatchWhole() {
+        assertNull(matcher.match("GET", "/api/ordersx"));
+        assertNull(matcher.match("GET", "/api"));
+        assertNull(matcher.match("GET", "relative/path"));
+    }
+
+    @Test
+    void testLimitAboveBucketCapacityIsRejectedAtStartup() {
+        IllegalStateException error = assertThrows(IllegalStateException.class, () ->
+                new RateLimitRuleMatcher(List.of(rule("huge", "/api/x", TokenBucketRateLimiter.MAX_CAPACITY + 1))));
+        assertTrue(error.getMessage().contains("huge"));
+    }
+
+    @Test
+    void testDuplicateNamesAreRejected() {
+        assertThrows(IllegalStateException.class, () ->
+                new RateLimitRuleMatcher(List.of(rule("a", "/api/x", 1), rule("a", "/api/y", 1))));
+    }
+
+    @Test
+    void testOnlyConfiguredApiKeysIdentifyClients() {
+        RateLimitApiKeys apiKeys = new RateLimitApiKeys(List.of("partner-key-1", " "));
+
+        String client = apiKeys.clientFor("partner-key-1");
+        assertNotNull(client);
+        assertFalse(client.contains("partner-key-1"));
+        assertNull(apiKeys.clientFor("made-up-key"));
+        assertNull(apiKeys.clientFor(null));
+    }
+
+    private static RateLimitProperties.Rule rule(String name, String path, int limit, String... methods) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setName(name);
+        rule.setPath(path);
+        rule.setLimit(limit);
+        rule.setWindow(Duration.ofMinutes(1));
+        rule.setMethods(List.of(methods));
+        return rule;
+    }
+}
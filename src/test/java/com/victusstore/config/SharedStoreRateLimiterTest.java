@@ -0,0 +1,120 @@
+package com.victusstore.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two limiters sharing one {@link InMemoryRateLimitStore} stand in for two
+ * replicas sharing the database. Syncs are driven by hand.
+ */
+class SharedStoreRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(120_000);
+    private final RecordingStore store = new RecordingStore();
+    private final SharedStoreRateLimiter first = new SharedStoreRateLimiter(store, 1000, clock::get);
+    private final SharedStoreRateLimiter second = new SharedStoreRateLimiter(store, 1000, clock::get);
+
+    @Test
+    void testLimitIsSharedAfterSync() {
+        assertTrue(second.allowRequest("login", "10.0.0.1", 5, 60_000));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(first.allowRequest("login", "10.0.0.1", 5, 60_000));
+        }
+        first.sync();
+        second.sync();
+
+        assertTrue(second.allowRequest("login", "10.0.0.1", 5, 60_000));
+        assertFalse(second.allowRequest("login", "10.0.0.1", 5, 60_000));
+    }
+
+    @Test
+    void testIdleCountersAreReadNotWritten() {
+        first.allowRequest("login", "10.0.0.1", 5, 60_000);
+        first.sync();
+        store.upserted.clear();
+
+        second.allowRequest("login", "10.0.0.1", 5, 60_000);
+        second.sync();
+        first.sync();
+
+        // Only the replica with new hits wrote; the other refreshed with a read
+        assertEquals(List.of("login:10.0.0.1|120000"), store.upserted);
+        assertTrue(store.read.contains("login:10.0.0.1|120000"));
+        assertTrue(first.allowRequest("login", "10.0.0.1", 3, 60_000));
+        assertFalse(first.allowRequest("login", "10.0.0.1", 3, 60_000));
+    }
+
+    @Test
+    void testWindowsRollOverAndExpiredCountersAreDropped() {
+        for (int i = 0; i < 2; i++) {
+            first.allowRequest("login", "10.0.0.1", 2, 60_000);
+        }
+        assertFalse(first.allowRequest("login", "10.0.0.1", 2, 60_000));
+
+        clock.addAndGet(60_000);
+        assertTrue(first.allowRequest("login", "10.0.0.1", 2, 60_000));
+        first.sync();
+        assertEquals(1, first.size());
+    }
+
+    @Test
+    void testHitsAreKeptWhenTheStoreFails() {
+        assertTrue(second.allowRequest("login", "10.0.0.1", 4, 60_000));
+        first.allowRequest("login", "10.0.0.1", 4, 60_000);
+        first.allowRequest("login", "10.0.0.1", 4, 60_000);
+        store.failing = true;
+        first.sync();
+        store.failing = false;
+        first.sync();
+        second.sync();
+
+        assertTrue(second.allowRequest("login", "10.0.0.1", 4, 60_000));
+        assertFalse(second.allowRequest("login", "10.0.0.1", 4, 60_000));
+    }
+
+    @Test
+    void testClientsBeyondMaxKeysAreLetThrough() {
+        SharedStoreRateLimiter small = new SharedStoreRateLimiter(store, 2, clock::get);
+        small.allowRequest("login", "a", 1, 60_000);
+        small.allowRequest("login", "b", 1, 60_000);
+
+        assertTrue(small.allowRequest("login", "c", 1, 60_000));
+        assertTrue(small.allowRequest("login", "c", 1, 60_000));
+        assertEquals(2, small.size());
+    }
+
+    private static final class RecordingStore extends InMemoryRateLimitStore {
+
+        private final List<String> upserted = new ArrayList<>();
+        private final List<String> read = new ArrayList<>();
+        private volatile boolean failing;
+
+        @Override
+        public Map<String, Long> addAndGet(List<CounterDelta> deltas) {
+            if (failing) {
+                throw new IllegalStateException("store down");
+            }
+            deltas.forEach(delta -> {
+                assertNotEquals(0, delta.delta());
+                upserted.add(delta.counterKey());
+            });
+            return super.addAndGet(deltas);
+        }
+
+        @Override
+        public Map<String, Long> read(Collection<String> counterKeys) {
+            if (failing) {
+                throw new IllegalStateException("store down");
+            }
+            read.addAll(counterKeys);
+            return super.read(counterKeys);
+        }
+    }
+}
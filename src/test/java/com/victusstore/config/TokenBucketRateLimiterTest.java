@@ -0,0 +1,71 @@
+package com.victusstore.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, 60_000, clock::get);
+
+    @Test
+    void testBucketAllowsCapacityThenRejects() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.allowRequest("login", "10.0.0.1", 5, 60_000));
+        }
+        assertFalse(limiter.allowRequest("login", "10.0.0.1", 5, 60_000));
+    }
+
+    @Test
+    void testTokensRefillContinuously() {
+        for (int i = 0; i < 5; i++) {
+            limiter.allowRequest("login", "10.0.0.1", 5, 60_000);
+        }
+        // One token every 12 seconds
+        clock.addAndGet(11_999);
+        assertFalse(limiter.allowRequest("login", "10.0.0.1", 5, 60_000));
+        clock.addAndGet(1);
+        assertTrue(limiter.allowRequest("login", "10.0.0.1", 5, 60_000));
+        assertFalse(limiter.allowRequest("login", "10.0.0.1", 5, 60_000));
+    }
+
+    @Test
+    void testRulesAndClientsHaveSeparateBuckets() {
+        assertTrue(limiter.allowRequest("login", "10.0.0.1", 1, 60_000));
+        assertFalse(limiter.allowRequest("login", "10.0.0.1", 1, 60_000));
+        assertTrue(limiter.allowRequest("login", "10.0.0.2", 1, 60_000));
+        assertTrue(limiter.allowRequest("register", "10.0.0.1", 1, 60_000));
+    }
+
+    @Test
+    void testClockGoingBackwardsDoesNotStallBuckets() {
+        assertTrue(limiter.allowRequest("login", "10.0.0.1", 1, 1_000));
+        // Behind the limiter's own epoch
+        clock.set(0);
+        assertFalse(limiter.allowRequest("login", "10.0.0.1", 1, 1_000));
+        clock.set(1_002_000);
+        assertTrue(limiter.allowRequest("login", "10.0.0.1", 1, 1_000));
+    }
+
+    @Test
+    void testIdleBucketsAreSweptAndKeysStayBounded() {
+        TokenBucketRateLimiter small = new TokenBucketRateLimiter(10, 1_000, clock::get);
+        for (int i = 0; i < 50; i++) {
+            small.allowRequest("login", "client-" + i, 5, 60_000);
+        }
+        assertTrue(small.size() <= 11, "size " + small.size());
+
+        clock.addAndGet(61_000);
+        small.allowRequest("login", "late", 5, 60_000);
+        assertEquals(1, small.size());
+    }
+
+    @Test
+    void testRejectsLimitsTheStateCannotHold() {
+        assertThrows(IllegalArgumentException.class, () ->
+                limiter.allowRequest("login", "10.0.0.1", TokenBucketRateLimiter.MAX_CAPACITY + 1, 60_000));
+    }
+}
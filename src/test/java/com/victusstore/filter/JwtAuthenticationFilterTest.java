@@ -0,0 +1,121 @@
+package com.victusstore.filter;
+
+import com.victusstore.config.JwtKeyring;
+import com.victusstore.config.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The filter authenticates through {@link JwtUtil#verify} (and so its cache),
+ * and lets a rejected token through unauthenticated.
+ */
+class JwtAuthenticationFilterTest {
+
+    private final AtomicInteger verifications = new AtomicInteger();
+    private JwtUtil jwtUtil;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        JwtKeyring keyring = new JwtKeyring();
+        ReflectionTestUtils.setField(keyring, "configuredKeys", "");
+        ReflectionTestUtils.setField(keyring, "configuredActiveKid", "");
+        ReflectionTestUtils.setField(keyring, "legacySecret", "filter-test-secret-filter-test-secret-01234");
+        keyring.load();
+
+        jwtUtil = new JwtUtil() {
+            @Override
+            public TokenClaims verify(String token) {
+                verifications.incrementAndGet();
+                return super.verify(token);
+            }
+        };
+        ReflectionTestUtils.setField(jwtUtil, "keyring", keyring);
+        ReflectionTestUtils.setField(jwtUtil, "verificationCacheSize", 100);
+        jwtUtil.init();
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testValidTokenAuthenticatesThroughVerify() throws Exception {
+        String token = jwtUtil.generateAccessToken("filter@example.com", "SELLER");
+
+        MockFilterChain chain = filter(token);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("filter@example.com", authentication.getPrincipal());
+        assertEquals(List.of("ROLE_SELLER"),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        assertEquals(1, verifications.get());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void testRepeatedRequestsReuseTheCachedClaims() throws Exception {
+        String token = jwtUtil.generateAccessToken("repeat@example.com", "CUSTOMER");
+        JwtUtil.TokenClaims cached = jwtUtil.verify(token);
+
+        filter(token);
+
+        assertSame(cached, jwtUtil.verify(token));
+        assertEquals(3, verifications.get());
+        assertEquals("repeat@example.com", SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
+    @Test
+    void testRejectedTokenLeavesTheRequestUnauthenticated() throws Exception {
+        String token = jwtUtil.generateAccessToken("filter@example.com", "CUSTOMER");
+
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+        String escalated = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replace("CUSTOMER", "ADMIN").getBytes(StandardCharsets.UTF_8));
+
+        MockFilterChain chain = filter(parts[0] + "." + escalated + "." + parts[2]);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1, verifications.get());
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    void testRequestWithoutBearerTokenIsNotVerified() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/carts"), new MockHttpServletResponse(), chain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(0, verifications.get());
+        assertNotNull(chain.getRequest());
+    }
+
+    private MockFilterChain filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/carts");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+}
@@ -0,0 +1,176 @@
+package com.victusstore.integration;
+
+import com.victusstore.model.AdminActivity;
+import com.victusstore.repository.AdminActivityRepository;
+import com.victusstore.service.AuditLogWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The journaled writer: replay of a segment left by a previous run, records
+ * that the database would refuse, and concurrent callers sharing fsyncs.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:auditdb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=audit-test-secret-audit-test-secret-0123456789abc",
+        "app.audit.mode=ASYNC_JOURNAL",
+        "app.audit.flush-interval-ms=20"
+})
+public class AuditLogWriterIntegrationTest {
+
+    private static Path journalDir;
+    private static Path leftoverSegment;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private AdminActivityRepository activityRepository;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) throws IOException {
+        journalDir = Files.createTempDirectory("audit-journal");
+        leftoverSegment = journalDir.resolve("audit-1-0000000000000000001.journal");
+        String longUserAgent = "a".repeat(700);
+        Files.writeString(leftoverSegment, String.join("\n",
+                line("replay-first@example.com", "UPDATE", longUserAgent),
+                line("replay-bad@example.com", "X".repeat(60), "curl"),
+                line("replay-second@example.com", "DELETE", "curl"),
+                "{\"adminEmail\":\"torn@exa"), StandardCharsets.UTF_8);
+        registry.add("app.audit.journal.dir", journalDir::toString);
+    }
+
+    @Test
+    void testReplaySavesGoodRecordsAndDropsRefusedOnes() {
+        Optional<AdminActivity> first = findByEmail("replay-first@example.com");
+        assertTrue(first.isPresent());
+        assertEquals(500, first.get().getUserAgent().length());
+        assertTrue(findByEmail("replay-second@example.com").isPresent());
+        assertFalse(findByEmail("replay-bad@example.com").isPresent());
+        assertFalse(findByEmail("torn@exa").isPresent());
+
+        assertFalse(Files.exists(leftoverSegment));
+        assertTrue(auditLogWriter.stats().rejected() >= 1);
+    }
+
+    @Test
+    void testRecordsThatCannotBeStoredAreRefusedUpFront() {
+        AdminActivity tooLong = activity("admin@example.com", "X".repeat(51), "curl");
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> auditLogWriter.record(tooLong));
+        assertEquals("Action type must be at most 50 characters", error.getMessage());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> auditLogWriter.record(activity(null, "CREATE", "curl")));
+    }
+
+    @Test
+    void testQueuedRecordWithLongHeadersIsSaved() throws Exception {
+        AdminActivity activity = activity("queued@example.com", "CREATE", "b".repeat(900));
+        activity.setIpAddress("1".repeat(60));
+
+        AdminActivity returned = auditLogWriter.record(activity);
+        assertNull(returned.getActivityId());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        Optional<AdminActivity> saved = findByEmail("queued@example.com");
+        while (saved.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            saved = findByEmail("queued@example.com");
+        }
+        assertTrue(saved.isPresent());
+        assertEquals(500, saved.get().getUserAgent().length());
+        assertEquals(45, saved.get().getIpAddress().length());
+    }
+
+    @Test
+    void testConcurrentCallersAreJournaledAndSaved() throws Exception {
+        int threads = 8;
+        int perThread = 25;
+        long syncsBefore = auditLogWriter.stats().journalSyncs();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> callers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                callers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        auditLogWriter.record(activity("group-" + thread + "-" + i + "@example.com", "CREATE", "curl"));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> caller : callers) {
+                caller.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Callers share fsyncs, so there is never more than one per record
+        long syncs = auditLogWriter.stats().journalSyncs() - syncsBefore;
+        assertTrue(syncs <= threads * perThread, String.valueOf(syncs));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        long saved = countByEmailPrefix("group-");
+        while (saved < threads * perThread && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            saved = countByEmailPrefix("group-");
+        }
+        assertEquals(threads * perThread, saved);
+    }
+
+    private long countByEmailPrefix(String prefix) {
+        return activityRepository.findAll().stream()
+                .filter(activity -> activity.getAdminEmail() != null && activity.getAdminEmail().startsWith(prefix))
+                .count();
+    }
+
+    private Optional<AdminActivity> findByEmail(String email) {
+        List<AdminActivity> all = activityRepository.findAll();
+        return all.stream().filter(activity -> email.equals(activity.getAdminEmail())).findFirst();
+    }
+
+    private static AdminActivity activity(String email, String actionType, String userAgent) {
+        return AdminActivity.builder()
+                .adminEmail(email)
+                .actionType(actionType)
+                .entityType("PRODUCT")
+                .entityId(1L)
+                .userAgent(userAgent)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static String line(String email, String actionType, String userAgent) {
+        return "{\"adminEmail\":\"" + email + "\",\"actionType\":\"" + actionType
+                + "\",\"entityType\":\"PRODUCT\",\"entityId\":1,\"userAgent\":\"" + userAgent
+                + "\",\"createdAt\":\"2026-01-05T10:00:00\"}";
+    }
+}
@@ -0,0 +1,127 @@
+package com.victusstore.integration;
+
+import com.victusstore.config.JwtUtil;
+import com.victusstore.model.Account;
+import com.victusstore.model.Cart;
+import com.victusstore.model.CartProduct;
+import com.victusstore.model.Product;
+import com.victusstore.model.ProductVariant;
+import com.victusstore.repository.AccountRepository;
+import com.victusstore.repository.CartProductRepository;
+import com.victusstore.repository.CartRepository;
+import com.victusstore.repository.ProductRepository;
+import com.victusstore.repository.ProductVariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cartbatchdb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=cart-batch-test-secret-cart-batch-test-secret-0123"
+})
+public class CartBatchIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository variantRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartProductRepository cartProductRepository;
+
+    private Cart cart;
+    private ProductVariant variant;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        String email = "batch-" + System.nanoTime() + "@example.com";
+        accountRepository.save(Account.builder()
+                .email(email)
+                .password("password123")
+                .role("CUSTOMER")
+                .isActive(true)
+                .build());
+        Product product = productRepository.save(Product.builder()
+                .productName("Batch Product")
+                .basePrice(new BigDecimal("10.00"))
+                .isActive(true)
+                .build());
+        variant = variantRepository.save(ProductVariant.builder()
+                .productId(product.getProductId())
+                .color("Red")
+                .size("M")
+                .stockQuantity(10)
+                .price(new BigDecimal("1.00"))
+                .isActive(true)
+                .build());
+        cart = cartRepository.save(Cart.builder()
+                .email(email)
+                .totalPrice(BigDecimal.ZERO)
+                .isActive(true)
+                .build());
+        token = "Bearer " + jwtUtil.generateAccessToken(email, "CUSTOMER");
+    }
+
+    @Test
+    void testAddThatOverflowsTheQuantityIsRejected() throws Exception {
+        String body = "{\"cart_id\": " + cart.getCartId() + ", \"operations\": ["
+                + "{\"op\": \"set\", \"variant_id\": " + variant.getVariantId() + ", \"quantity\": 2},"
+                + "{\"op\": \"add\", \"variant_id\": " + variant.getVariantId() + ", \"quantity\": " + Integer.MAX_VALUE + "}]}";
+
+        mockMvc.perform(patch("/api/cart-products/batch")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Quantity too large"))
+                .andExpect(jsonPath("$.operation_index").value(1));
+
+        assertTrue(cartProductRepository.findByCartId(cart.getCartId()).isEmpty());
+    }
+
+    @Test
+    void testAddBeyondStockIsRejected() throws Exception {
+        String body = "{\"cart_id\": " + cart.getCartId() + ", \"operations\": ["
+                + "{\"op\": \"add\", \"variant_id\": " + variant.getVariantId() + ", \"quantity\": 11}]}";
+
+        mockMvc.perform(patch("/api/cart-products/batch")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Insufficient stock"));
+
+        List<CartProduct> lines = cartProductRepository.findByCartId(cart.getCartId());
+        assertTrue(lines.isEmpty());
+    }
+}
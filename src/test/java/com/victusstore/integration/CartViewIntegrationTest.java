@@ -0,0 +1,212 @@
+package com.victusstore.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.victusstore.config.JwtUtil;
+import com.victusstore.model.Account;
+import com.victusstore.model.Cart;
+import com.victusstore.model.CartProduct;
+import com.victusstore.model.Product;
+import com.victusstore.model.ProductVariant;
+import com.victusstore.repository.AccountRepository;
+import com.victusstore.repository.CartProductRepository;
+import com.victusstore.repository.CartRepository;
+import com.victusstore.repository.ProductRepository;
+import com.victusstore.repository.ProductVariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The cart read model behind /api/carts/{id}/details, kept current by line
+ * writes, refreshed by catalog writes, and never the source of a persisted total.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cartviewdb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=cart-view-test-secret-cart-view-test-secret-0123"
+})
+public class CartViewIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository variantRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartProductRepository cartProductRepository;
+
+    private Product product;
+    private ProductVariant variant;
+    private Cart cart;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        String email = "cart-view-" + System.nanoTime() + "@example.com";
+        accountRepository.save(Account.builder()
+                .email(email)
+                .password("password123")
+                .role("CUSTOMER")
+                .isActive(true)
+                .build());
+        product = productRepository.save(Product.builder()
+                .productName("View Product")
+                .basePrice(new BigDecimal("10.00"))
+                .isActive(true)
+                .build());
+        variant = saveVariant("Red", "1.00");
+        cart = cartRepository.save(Cart.builder()
+                .email(email)
+                .totalPrice(BigDecimal.ZERO)
+                .isActive(true)
+                .build());
+        token = "Bearer " + jwtUtil.generateAccessToken(email, "CUSTOMER");
+    }
+
+    @Test
+    void testLineAddUpdateAndDeleteKeepTheViewCurrent() throws Exception {
+        details().andExpect(jsonPath("$.item_count").value(0));
+
+        mockMvc.perform(post("/api/cart-products")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("cart_id", cart.getCartId(), "variant_id", variant.getVariantId(), "quantity", 2))))
+                .andExpect(status().isCreated());
+        details()
+                .andExpect(jsonPath("$.item_count").value(1))
+                .andExpect(jsonPath("$.total_quantity").value(2))
+                .andExpect(jsonPath("$.total_price").value(22.0))
+                .andExpect(jsonPath("$.items[0].product_name").value("View Product"));
+
+        mockMvc.perform(put("/api/cart-products")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("cart_id", cart.getCartId(), "variant_id", variant.getVariantId(), "quantity", 3))))
+                .andExpect(status().isOk());
+        details()
+                .andExpect(jsonPath("$.total_quantity").value(3))
+                .andExpect(jsonPath("$.total_price").value(33.0));
+
+        Long lineId = cartProductRepository.findByCartId(cart.getCartId()).get(0).getId();
+        mockMvc.perform(delete("/api/cart-products/" + lineId)
+                        .header("Authorization", token))
+                .andExpect(status().isOk());
+        details()
+                .andExpect(jsonPath("$.item_count").value(0))
+                .andExpect(jsonPath("$.total_price").value(0.0));
+    }
+
+    @Test
+    void testVariantEditRefreshesCachedLines() throws Exception {
+        addLine(variant, 1, "11.00");
+        details().andExpect(jsonPath("$.items[0].color").value("Red"));
+
+        Map<String, Object> edited = Map.of(
+                "productId", product.getProductId(),
+                "color", "Green",
+                "size", "M",
+                "stockQuantity", 10,
+                "price", 1.00,
+                "sku", "VIEW-GREEN",
+                "isActive", true);
+        mockMvc.perform(put("/api/variants/" + variant.getVariantId())
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(edited)))
+                .andExpect(status().isOk());
+
+        details()
+                .andExpect(jsonPath("$.items[0].color").value("Green"))
+                .andExpect(jsonPath("$.items[0].sku").value("VIEW-GREEN"));
+    }
+
+    @Test
+    void testCalculateTotalIsTakenFromTheDatabaseNotTheCachedView() throws Exception {
+        addLine(variant, 1, "11.00");
+        details().andExpect(jsonPath("$.total_price").value(11.0));
+
+        // A line written by another replica: this node's cached view never heard of it
+        addLine(saveVariant("Blue", "5.00"), 2, "15.00");
+
+        mockMvc.perform(put("/api/carts/" + cart.getCartId() + "/calculate-total")
+                        .header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total_price").value(41.0))
+                .andExpect(jsonPath("$.item_count").value(2));
+
+        assertEquals(0, new BigDecimal("41.00").compareTo(
+                cartRepository.findById(cart.getCartId()).orElseThrow().getTotalPrice()));
+        details().andExpect(jsonPath("$.total_price").value(41.0));
+    }
+
+    @Test
+    void testUnknownCartIsNotFound() throws Exception {
+        mockMvc.perform(get("/api/carts/-1/details").header("Authorization", token))
+                .andExpect(status().isNotFound());
+    }
+
+    private ResultActions details() throws Exception {
+        return mockMvc.perform(get("/api/carts/" + cart.getCartId() + "/details")
+                        .header("Authorization", token))
+                .andExpect(status().isOk());
+    }
+
+    private void addLine(ProductVariant lineVariant, int quantity, String priceAtTime) {
+        cartProductRepository.save(CartProduct.builder()
+                .cartId(cart.getCartId())
+                .variantId(lineVariant.getVariantId())
+                .quantity(quantity)
+                .priceAtTime(new BigDecimal(priceAtTime))
+                .build());
+    }
+
+    private ProductVariant saveVariant(String color, String price) {
+        return variantRepository.save(ProductVariant.builder()
+                .productId(product.getProductId())
+                .color(color)
+                .size("M")
+                .stockQuantity(10)
+                .price(new BigDecimal(price))
+                .isActive(true)
+                .build());
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+}
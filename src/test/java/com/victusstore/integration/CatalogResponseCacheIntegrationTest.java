@@ -0,0 +1,131 @@
+package com.victusstore.integration;
+
+import com.victusstore.config.JwtUtil;
+import com.victusstore.event.CatalogChangedEvent;
+import com.victusstore.model.Category;
+import com.victusstore.repository.CategoryRepository;
+import com.victusstore.service.CatalogVersionSync;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * ETags on cached catalog GETs, and their invalidation by writes on this node
+ * and on another replica (simulated by bumping catalog_version directly).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalogcachedb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=catalog-cache-test-secret-catalog-cache-test-0123"
+})
+@RecordApplicationEvents
+public class CatalogResponseCacheIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CatalogVersionSync catalogVersionSync;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        token = "Bearer " + jwtUtil.generateAccessToken("catalog-admin@example.com", "ADMIN");
+    }
+
+    @Test
+    void testMatchingEtagIsAnsweredWith304() throws Exception {
+        String etag = categoriesEtag();
+
+        mockMvc.perform(get("/api/categories").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        assertEquals(etag, categoriesEtag());
+    }
+
+    @Test
+    void testWriteOnThisNodeChangesTheEtag() throws Exception {
+        String etag = categoriesEtag();
+
+        mockMvc.perform(post("/api/categories")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoryName\": \"Local Write " + System.nanoTime() + "\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/categories").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+    }
+
+    @Test
+    void testWriteOnAnotherReplicaChangesTheEtagAfterPoll() throws Exception {
+        String etag = categoriesEtag();
+
+        // Another replica wrote the row and bumped the shared version; no local event
+        String name = "Remote Write " + System.nanoTime();
+        categoryRepository.save(Category.builder().categoryName(name).isActive(true).build());
+        jdbcTemplate.update("UPDATE catalog_version SET version = version + 1 WHERE id = 1");
+        catalogVersionSync.poll();
+
+        String body = mockMvc.perform(get("/api/categories").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertTrue(body.contains(name));
+    }
+
+    @Test
+    void testLocalWritesAreNotRebroadcastToThisNode() throws Exception {
+        mockMvc.perform(post("/api/categories")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoryName\": \"Own Write " + System.nanoTime() + "\"}"))
+                .andExpect(status().isOk());
+        catalogVersionSync.poll();
+
+        assertEquals(0, events.stream(CatalogChangedEvent.class)
+                .filter(event -> event.type() == CatalogChangedEvent.Type.REMOTE)
+                .count());
+    }
+
+    private String categoriesEtag() throws Exception {
+        String etag = mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+        assertNotNull(etag);
+        return etag;
+    }
+}
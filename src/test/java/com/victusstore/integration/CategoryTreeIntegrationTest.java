@@ -0,0 +1,250 @@
+package com.victusstore.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.victusstore.config.JwtUtil;
+import com.victusstore.event.CatalogChangedEvent;
+import com.victusstore.model.Category;
+import com.victusstore.model.Product;
+import com.victusstore.repository.CategoryRepository;
+import com.victusstore.repository.ProductRepository;
+import com.victusstore.service.CategoryTreeService;
+import com.victusstore.service.CategoryTreeService.CategoryNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The in-memory category tree: its snapshot, the rebuilds after category and
+ * product writes, cycle handling, and the endpoints that read from it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:categorytreedb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=category-tree-secret-category-tree-secret-01234"
+})
+public class CategoryTreeIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CategoryTreeService categoryTreeService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // clothing > shirts > polos, and a separate root
+    private Category clothing;
+    private Category shirts;
+    private Category polos;
+    private Category shoes;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        clothing = saveCategory("Clothing", null);
+        shirts = saveCategory("Shirts", clothing);
+        polos = saveCategory("Polos", shirts);
+        shoes = saveCategory("Shoes", null);
+        saveProduct(clothing, true);
+        saveProduct(polos, true);
+        saveProduct(polos, false);
+        saveProduct(shoes, true);
+        // Written behind the controllers' backs; announce it like they would
+        eventPublisher.publishEvent(CatalogChangedEvent.category());
+        token = "Bearer " + jwtUtil.generateAccessToken("tree-admin@example.com", "ADMIN");
+    }
+
+    @Test
+    void testSnapshotHoldsPathsDescendantsAndCounts() {
+        CategoryNode root = categoryTreeService.getNode(clothing.getCategoryId());
+        CategoryNode leaf = categoryTreeService.getNode(polos.getCategoryId());
+
+        assertEquals(List.of(clothing.getCategoryId(), shoes.getCategoryId()),
+                categoryTreeService.getRoots().stream().map(CategoryNode::categoryId).toList());
+        assertEquals(List.of(shirts.getCategoryId()), root.childIds());
+        assertEquals(Set.of(shirts.getCategoryId(), polos.getCategoryId()), root.descendantIds());
+        assertEquals(List.of(clothing.getCategoryId(), shirts.getCategoryId()), leaf.ancestorIds());
+        assertTrue(leaf.descendantIds().isEmpty());
+        // Inactive products are not counted
+        assertEquals(1, leaf.productCount());
+        assertEquals(1, root.productCount());
+        assertEquals(2, root.subtreeProductCount());
+        assertEquals(Set.of(clothing.getCategoryId(), shirts.getCategoryId(), polos.getCategoryId()),
+                categoryTreeService.getSubtreeIds(clothing.getCategoryId()));
+        assertEquals(Set.of(-1L), categoryTreeService.getSubtreeIds(-1L));
+    }
+
+    @Test
+    void testCategoryCreatedThroughTheApiJoinsTheTree() throws Exception {
+        String body = mockMvc.perform(post("/api/categories")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoryName\": \"Tees\", \"parentCategoryId\": " + shirts.getCategoryId() + "}"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Long teesId = objectMapper.readTree(body).get("categoryId").asLong();
+
+        assertEquals(List.of(polos.getCategoryId(), teesId),
+                categoryTreeService.getNode(shirts.getCategoryId()).childIds());
+        assertTrue(categoryTreeService.getNode(clothing.getCategoryId()).descendantIds().contains(teesId));
+    }
+
+    @Test
+    void testCategoryMovedThroughTheApiRebuildsPaths() throws Exception {
+        mockMvc.perform(put("/api/categories/" + shirts.getCategoryId())
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoryName\": \"Shirts\", \"parentCategoryId\": " + shoes.getCategoryId()
+                                + ", \"isActive\": true}"))
+                .andExpect(status().isOk());
+
+        assertEquals(List.of(shoes.getCategoryId(), shirts.getCategoryId()),
+                categoryTreeService.getNode(polos.getCategoryId()).ancestorIds());
+        assertTrue(categoryTreeService.getNode(clothing.getCategoryId()).descendantIds().isEmpty());
+        assertEquals(2, categoryTreeService.getNode(shoes.getCategoryId()).subtreeProductCount());
+    }
+
+    @Test
+    void testProductWriteThroughTheApiRebuildsCounts() throws Exception {
+        mockMvc.perform(post("/api/products")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productName\": \"New Polo\", \"basePrice\": 20.00, \"categoryId\": "
+                                + polos.getCategoryId() + ", \"isActive\": true}"))
+                .andExpect(status().isOk());
+
+        assertEquals(2, categoryTreeService.getNode(polos.getCategoryId()).productCount());
+        assertEquals(3, categoryTreeService.getNode(clothing.getCategoryId()).subtreeProductCount());
+    }
+
+    @Test
+    void testMovesThatWouldCloseACycleAreRejected() throws Exception {
+        assertTrue(categoryTreeService.wouldCreateCycle(clothing.getCategoryId(), polos.getCategoryId()));
+        assertTrue(categoryTreeService.wouldCreateCycle(shirts.getCategoryId(), shirts.getCategoryId()));
+        assertFalse(categoryTreeService.wouldCreateCycle(polos.getCategoryId(), shoes.getCategoryId()));
+
+        mockMvc.perform(put("/api/categories/" + clothing.getCategoryId())
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"categoryName\": \"Clothing\", \"parentCategoryId\": " + polos.getCategoryId() + "}"))
+                .andExpect(status().isBadRequest());
+        assertNull(categoryRepository.findById(clothing.getCategoryId()).orElseThrow().getParentCategoryId());
+    }
+
+    @Test
+    void testStoredCycleMakesItsMembersRoots() {
+        Category first = saveCategory("Loop A", null);
+        Category second = saveCategory("Loop B", first);
+        first.setParentCategoryId(second.getCategoryId());
+        categoryRepository.save(first);
+        Category hanging = saveCategory("Below Loop", first);
+
+        categoryTreeService.rebuild();
+
+        List<Long> rootIds = categoryTreeService.getRoots().stream().map(CategoryNode::categoryId).toList();
+        assertTrue(rootIds.contains(first.getCategoryId()));
+        assertTrue(rootIds.contains(second.getCategoryId()));
+        assertEquals(List.of(first.getCategoryId()), categoryTreeService.getNode(hanging.getCategoryId()).ancestorIds());
+        assertEquals(Set.of(hanging.getCategoryId()), categoryTreeService.getNode(first.getCategoryId()).descendantIds());
+    }
+
+    @Test
+    void testTreeEndpointNestsChildrenWithCounts() throws Exception {
+        mockMvc.perform(get("/api/categories/tree"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].category_id").value(clothing.getCategoryId()))
+                .andExpect(jsonPath("$[0].product_count").value(1))
+                .andExpect(jsonPath("$[0].subtree_product_count").value(2))
+                .andExpect(jsonPath("$[0].children[0].category_id").value(shirts.getCategoryId()))
+                .andExpect(jsonPath("$[0].children[0].children[0].category_id").value(polos.getCategoryId()))
+                .andExpect(jsonPath("$[0].children[0].children[0].children.length()").value(0))
+                .andExpect(jsonPath("$[1].category_id").value(shoes.getCategoryId()));
+    }
+
+    @Test
+    void testSubtreeEndpoint() throws Exception {
+        mockMvc.perform(get("/api/categories/" + shirts.getCategoryId() + "/subtree"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.category_name").value("Shirts"))
+                .andExpect(jsonPath("$.ancestor_ids.length()").value(1))
+                .andExpect(jsonPath("$.ancestor_ids[0]").value(clothing.getCategoryId()))
+                .andExpect(jsonPath("$.descendant_ids.length()").value(1))
+                .andExpect(jsonPath("$.descendant_ids[0]").value(polos.getCategoryId()))
+                .andExpect(jsonPath("$.product_count").value(0))
+                .andExpect(jsonPath("$.subtree_product_count").value(1));
+
+        mockMvc.perform(get("/api/categories/-1/subtree"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCategoryListingCanIncludeDescendants() throws Exception {
+        mockMvc.perform(get("/api/products/category/" + clothing.getCategoryId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1));
+
+        mockMvc.perform(get("/api/products/category/" + clothing.getCategoryId())
+                        .param("include_descendants", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3));
+
+        mockMvc.perform(get("/api/products/category/" + shoes.getCategoryId())
+                        .param("include_descendants", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1));
+    }
+
+    private Category saveCategory(String name, Category parent) {
+        return categoryRepository.save(Category.builder()
+                .categoryName(name)
+                .parentCategoryId(parent == null ? null : parent.getCategoryId())
+                .isActive(true)
+                .build());
+    }
+
+    private void saveProduct(Category category, boolean active) {
+        productRepository.save(Product.builder()
+                .productName("Product in " + category.getCategoryName())
+                .basePrice(new BigDecimal("10.00"))
+                .categoryId(category.getCategoryId())
+                .isActive(active)
+                .build());
+    }
+}
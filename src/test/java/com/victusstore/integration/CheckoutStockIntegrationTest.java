@@ -0,0 +1,212 @@
+package com.victusstore.integration;
+
+import com.victusstore.config.JwtUtil;
+import com.victusstore.exception.StockInsufficientException;
+import com.victusstore.model.Account;
+import com.victusstore.model.Cart;
+import com.victusstore.model.CartProduct;
+import com.victusstore.model.Product;
+import com.victusstore.model.ProductVariant;
+import com.victusstore.repository.AccountRepository;
+import com.victusstore.repository.CartProductRepository;
+import com.victusstore.repository.CartRepository;
+import com.victusstore.repository.OrderRepository;
+import com.victusstore.repository.ProductRepository;
+import com.victusstore.repository.ProductVariantRepository;
+import com.victusstore.service.StockReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Whole-cart stock reservation: aggregated lines, the all-or-nothing rule and
+ * the conditional decrement that must fail the checkout when it matches no row.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:checkoutdb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=checkout-test-secret-checkout-test-secret-0123456"
+})
+public class CheckoutStockIntegrationTest {
+
+    private static final String ORDER_BODY = "{\"address\": \"1 Test St\", \"phone_num\": \"1234567890\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository variantRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartProductRepository cartProductRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private String email;
+    private String token;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        email = "checkout-" + System.nanoTime() + "@example.com";
+        accountRepository.save(Account.builder()
+                .email(email)
+                .password("password123")
+                .role("CUSTOMER")
+                .isActive(true)
+                .build());
+        product = productRepository.save(Product.builder()
+                .productName("Checkout Product")
+                .basePrice(new BigDecimal("10.00"))
+                .isActive(true)
+                .build());
+        token = "Bearer " + jwtUtil.generateAccessToken(email, "CUSTOMER");
+    }
+
+    @Test
+    void testMultiVariantCartWithDuplicateLinesDecrementsTheSums() throws Exception {
+        ProductVariant first = createVariant(10);
+        ProductVariant second = createVariant(5);
+        ProductVariant third = createVariant(3);
+        // Lines out of id order, and the same variant on two lines
+        Cart cart = createCart(line(third, 1), line(first, 2), line(second, 5), line(first, 3));
+        long ordersBefore = orderRepository.count();
+
+        checkout(cart)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.order_id").exists());
+
+        assertEquals(5, stock(first));
+        assertEquals(0, stock(second));
+        assertEquals(2, stock(third));
+        assertEquals(ordersBefore + 1, orderRepository.count());
+    }
+
+    @Test
+    void testOneShortVariantFailsTheWholeCheckout() throws Exception {
+        ProductVariant plenty = createVariant(10);
+        ProductVariant scarce = createVariant(4);
+        // Each line fits on its own; together they exceed the scarce variant's stock
+        Cart cart = createCart(line(plenty, 2), line(scarce, 3), line(scarce, 2));
+        long ordersBefore = orderRepository.count();
+
+        checkout(cart)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.code").value("STOCK_INSUFFICIENT"));
+
+        assertEquals(10, stock(plenty));
+        assertEquals(4, stock(scarce));
+        assertEquals(ordersBefore, orderRepository.count());
+        assertTrue(cartProductRepository.findByCartId(cart.getCartId()).stream()
+                .allMatch(cartProduct -> cartProduct.getOrderId() == null));
+    }
+
+    @Test
+    void testDecrementMatchingNoRowRollsBackTheBatch() {
+        ProductVariant first = createVariant(10);
+        ProductVariant second = createVariant(10);
+        CartProduct firstLine = CartProduct.builder().variantId(first.getVariantId()).quantity(2).build();
+        CartProduct secondLine = CartProduct.builder().variantId(second.getVariantId()).quantity(5).build();
+
+        StockInsufficientException error = assertThrows(StockInsufficientException.class, () ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    // A managed copy still says 10, so the locked read passes validation...
+                    variantRepository.findById(second.getVariantId()).orElseThrow();
+                    // ...while the row itself dropped below the request without going through the lock
+                    jdbcTemplate.update("UPDATE product_variants SET stock_quantity = 1 WHERE variant_id = ?",
+                            second.getVariantId());
+                    stockReservationService.reserve(List.of(firstLine, secondLine));
+                }));
+
+        assertEquals(second.getVariantId(), error.getVariantId());
+        assertTrue(error.getMessage().startsWith("Stock changed during processing"), error.getMessage());
+        // Nothing the batch applied before the failing row survives the rollback
+        assertEquals(10, stock(first));
+        assertEquals(10, stock(second));
+    }
+
+    private ResultActions checkout(Cart cart) throws Exception {
+        return mockMvc.perform(post("/api/orders/from-cart/" + cart.getCartId())
+                .header("Authorization", token)
+                .header("Idempotency-Key", UUID.randomUUID().toString())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(ORDER_BODY));
+    }
+
+    private ProductVariant createVariant(int stock) {
+        return variantRepository.save(ProductVariant.builder()
+                .productId(product.getProductId())
+                .color("Black")
+                .size("L")
+                .stockQuantity(stock)
+                .price(new BigDecimal("1.00"))
+                .isActive(true)
+                .build());
+    }
+
+    private Cart createCart(CartProduct... lines) {
+        Cart cart = cartRepository.save(Cart.builder()
+                .email(email)
+                .totalPrice(BigDecimal.ZERO)
+                .isActive(true)
+                .build());
+        for (CartProduct line : lines) {
+            line.setCartId(cart.getCartId());
+            cartProductRepository.save(line);
+        }
+        return cart;
+    }
+
+    private static CartProduct line(ProductVariant variant, int quantity) {
+        return CartProduct.builder()
+                .variantId(variant.getVariantId())
+                .quantity(quantity)
+                .priceAtTime(new BigDecimal("11.00"))
+                .build();
+    }
+
+    private int stock(ProductVariant variant) {
+        return variantRepository.findById(variant.getVariantId()).orElseThrow().getStockQuantity();
+    }
+}
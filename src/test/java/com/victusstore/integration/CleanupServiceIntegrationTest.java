@@ -0,0 +1,110 @@
+package com.victusstore.integration;
+
+import com.victusstore.model.IdempotencyKey;
+import com.victusstore.repository.IdempotencyKeyRepository;
+import com.victusstore.repository.RefreshTokenRepository;
+import com.victusstore.service.CleanupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chunked expiry sweeps. The run budget is zero, so a scheduled sweep stops
+ * after one chunk; cleanupNow ignores the budget.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cleanupdb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=cleanup-test-secret-cleanup-test-secret-0123456789",
+        "app.cleanup.chunk-size=20",
+        "app.cleanup.min-chunk-size=10",
+        "app.cleanup.max-chunk-size=40",
+        "app.cleanup.target-chunk-ms=10000",
+        "app.cleanup.max-run-ms=0"
+})
+public class CleanupServiceIntegrationTest {
+
+    @Autowired
+    private CleanupService cleanupService;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyKeyRepository.deleteAll();
+        refreshTokenRepository.deleteAll();
+        cleanupService.cleanupNow();
+    }
+
+    @Test
+    void testScheduledSweepDeletesOneChunkPerRunAndGrowsTheChunk() {
+        saveKeys(130, LocalDateTime.now().minusHours(1));
+        CleanupService.SweepStats before = keyStats();
+
+        cleanupService.sweepExpired();
+
+        CleanupService.SweepStats after = keyStats();
+        assertEquals(20, after.lastRunDeleted());
+        assertEquals(20, after.totalDeleted() - before.totalDeleted());
+        assertEquals(110, after.backlog());
+        assertEquals(40, after.chunkSize());
+        assertFalse(after.drained());
+        assertFalse(after.running());
+
+        cleanupService.sweepExpired();
+        assertEquals(40, keyStats().lastRunDeleted());
+        assertEquals(70, idempotencyKeyRepository.count());
+    }
+
+    @Test
+    void testCleanupNowDrainsOnlyExpiredRows() {
+        saveKeys(95, LocalDateTime.now().minusMinutes(5));
+        saveKeys(5, LocalDateTime.now().plusHours(1));
+
+        CleanupService.CleanupResult result = cleanupService.cleanupNow();
+
+        assertEquals(95, result.deletedIdempotencyKeys());
+        assertEquals(0, result.deletedRefreshTokens());
+        assertEquals(5, idempotencyKeyRepository.count());
+        CleanupService.SweepStats stats = keyStats();
+        assertTrue(stats.drained());
+        assertEquals(0, stats.backlog());
+        assertEquals(40, stats.chunkSize());
+    }
+
+    private CleanupService.SweepStats keyStats() {
+        return cleanupService.stats().stream()
+                .filter(stats -> stats.table().equals("idempotency_keys"))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private void saveKeys(int count, LocalDateTime expiresAt) {
+        List<IdempotencyKey> keys = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            keys.add(IdempotencyKey.builder()
+                    .key(UUID.randomUUID().toString())
+                    .userEmail("buyer@example.com")
+                    .endpoint("/api/orders/from-cart/1")
+                    .createdAt(expiresAt.minusHours(24))
+                    .expiresAt(expiresAt)
+                    .build());
+        }
+        idempotencyKeyRepository.saveAll(keys);
+    }
+}
@@ -0,0 +1,97 @@
+package com.victusstore.integration;
+
+import com.victusstore.model.Account;
+import com.victusstore.model.AdminActivity;
+import com.victusstore.model.Order;
+import com.victusstore.repository.AccountRepository;
+import com.victusstore.repository.AdminActivityRepository;
+import com.victusstore.repository.OrderRepository;
+import com.victusstore.service.ExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:exportdb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=export-test-secret-export-test-secret-0123456789ab"
+})
+public class ExportServiceIntegrationTest {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private AdminActivityRepository activityRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void testCsvCellsThatLookLikeFormulasAreKeptAsText() throws Exception {
+        activityRepository.save(AdminActivity.builder()
+                .adminEmail("formula@example.com")
+                .actionType("UPDATE")
+                .entityType("FORMULA")
+                .entityId(-5L)
+                .description("=HYPERLINK(\"http://evil.example\",\"open\")")
+                .userAgent("@SUM(A1:A2)")
+                .createdAt(LocalDateTime.now().minusMinutes(1))
+                .build());
+
+        String csv = export(out -> exportService.exportActivities(out, ExportService.Format.CSV,
+                LocalDateTime.now().minusDays(1), LocalDateTime.now().plusMinutes(1), "FORMULA", null));
+
+        String row = csv.lines().skip(1).findFirst().orElseThrow();
+        assertTrue(row.contains(",-5,"), row);
+        assertTrue(row.contains(",\"'=HYPERLINK(\"\"http://evil.example\"\",\"\"open\"\")\","), row);
+        assertTrue(row.contains(",'@SUM(A1:A2),"), row);
+    }
+
+    @Test
+    void testOrderStatusFilterIgnoresCase() throws Exception {
+        String email = "export-" + System.nanoTime() + "@example.com";
+        accountRepository.save(Account.builder()
+                .email(email)
+                .password("password123")
+                .role("CUSTOMER")
+                .isActive(true)
+                .build());
+        Order order = new Order();
+        order.setEmail(email);
+        order.setAddress("1 Export St");
+        order.setPhoneNum("+201234567");
+        order.setTotalPrice(new BigDecimal("12.50"));
+        order.setOrderStatus("Shipped");
+        orderRepository.save(order);
+
+        String ndjson = export(out -> exportService.exportOrders(out, ExportService.Format.NDJSON,
+                LocalDateTime.now().minusDays(1), LocalDateTime.now().plusMinutes(1), "shipped"));
+
+        assertTrue(ndjson.contains("\"email\":\"" + email + "\""), ndjson);
+        assertTrue(ndjson.contains("\"phone_num\":\"+201234567\""), ndjson);
+    }
+
+    private static String export(Export export) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.to(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private interface Export {
+        void to(ByteArrayOutputStream out) throws Exception;
+    }
+}
@@ -0,0 +1,230 @@
+package com.victusstore.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.victusstore.exception.IdempotencyInProgressException;
+import com.victusstore.exception.IdempotencyMismatchException;
+import com.victusstore.model.IdempotencyKey;
+import com.victusstore.repository.IdempotencyKeyRepository;
+import com.victusstore.service.IdempotencyService;
+import com.victusstore.util.RequestHasher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Coalescing of concurrent retries and replay of stored responses.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotencydb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=idempotency-test-secret-idempotency-test-secret-01",
+        "app.idempotency.in-flight-timeout-seconds=2"
+})
+public class IdempotencyServiceIntegrationTest {
+
+    private static final String USER = "buyer@example.com";
+    private static final String ENDPOINT = "/api/orders/from-cart/1";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testConcurrentRetryWaitsForTheRunningRequest() throws Exception {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Map<String, Object>> first = CompletableFuture.supplyAsync(() ->
+                execute(key, Map.of("qty", 1), () -> {
+                    started.countDown();
+                    await(release);
+                    return Map.of("order_id", runs.incrementAndGet());
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AtomicReference<Map<String, Object>> retried = new AtomicReference<>();
+        Thread retry = new Thread(() -> retried.set(execute(key, Map.of("qty", 1),
+                () -> Map.of("order_id", runs.incrementAndGet()))));
+        retry.start();
+        awaitParked(retry);
+        release.countDown();
+
+        retry.join(5000);
+        assertEquals(Map.of("order_id", 1), first.get(5, TimeUnit.SECONDS));
+        assertEquals(Map.of("order_id", 1), retried.get());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void testWaitingRetryGetsTheSameFailure() throws Exception {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Map<String, Object>> first = CompletableFuture.supplyAsync(() ->
+                execute(key, Map.of("qty", 1), () -> {
+                    runs.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    throw new IllegalArgumentException("Cart is empty");
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AtomicReference<Throwable> retryError = new AtomicReference<>();
+        Thread retry = new Thread(() -> {
+            try {
+                execute(key, Map.of("qty", 1), () -> Map.of("order_id", runs.incrementAndGet()));
+            } catch (RuntimeException e) {
+                retryError.set(e);
+            }
+        });
+        retry.start();
+        awaitParked(retry);
+        release.countDown();
+
+        retry.join(5000);
+        ExecutionException firstError = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertSame(firstError.getCause(), retryError.get());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void testRetryThatOutwaitsTheRunningRequestIsAConflict() throws Exception {
+        String key = UUID.randomUUID().toString();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Map<String, Object>> first = CompletableFuture.supplyAsync(() ->
+                execute(key, Map.of("qty", 1), () -> {
+                    started.countDown();
+                    await(release);
+                    return Map.of("order_id", 1);
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        try {
+            assertThrows(IdempotencyInProgressException.class,
+                    () -> execute(key, Map.of("qty", 1), () -> Map.of("order_id", 2)));
+        } finally {
+            release.countDown();
+        }
+        assertEquals(Map.of("order_id", 1), first.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testDifferentPayloadIsRejected() {
+        String key = UUID.randomUUID().toString();
+        execute(key, Map.of("qty", 1), () -> Map.of("order_id", 1));
+
+        assertThrows(IdempotencyMismatchException.class,
+                () -> execute(key, Map.of("qty", 2), () -> Map.of("order_id", 2)));
+    }
+
+    @Test
+    void testStoredResponseIsNotCachedPastItsRowExpiry() throws Exception {
+        String key = UUID.randomUUID().toString();
+        idempotencyKeyRepository.save(IdempotencyKey.builder()
+                .key(key)
+                .userEmail(USER)
+                .endpoint(ENDPOINT)
+                .responseBody("{\"order_id\":7}")
+                .createdAt(LocalDateTime.now().minusHours(23))
+                .expiresAt(LocalDateTime.now().plusSeconds(1))
+                .build());
+        AtomicInteger runs = new AtomicInteger();
+
+        assertEquals(Map.of("order_id", 7), execute(key, Map.of("qty", 1), () -> Map.of("order_id", runs.incrementAndGet())));
+        assertEquals(0, runs.get());
+
+        Thread.sleep(1500);
+        assertEquals(Map.of("order_id", 1), execute(key, Map.of("qty", 1), () -> Map.of("order_id", runs.incrementAndGet())));
+    }
+
+    @Test
+    void testRowHashedByTheOldCodeStillReplays() throws Exception {
+        String key = UUID.randomUUID().toString();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("qty", 1);
+        body.put("address", "1 Test St");
+        String oldHash = oldRequestHash(body);
+        assertNotEquals(new RequestHasher(objectMapper).hash(body), oldHash);
+        idempotencyKeyRepository.save(IdempotencyKey.builder()
+                .key(key)
+                .userEmail(USER)
+                .endpoint(ENDPOINT)
+                .requestHash(oldHash)
+                .responseBody("{\"order_id\":7}")
+                .createdAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build());
+        AtomicInteger runs = new AtomicInteger();
+
+        assertEquals(Map.of("order_id", 7), execute(key, body, () -> Map.of("order_id", runs.incrementAndGet())));
+        assertEquals(0, runs.get());
+        // The fallback only forgives the encoding, not a different payload
+        assertThrows(IdempotencyMismatchException.class,
+                () -> execute(key, Map.of("qty", 2, "address", "1 Test St"), () -> Map.of("order_id", 2)));
+    }
+
+    private Map<String, Object> execute(String key, Object body, Supplier<Map<String, Object>> action) {
+        return idempotencyService.execute(key, USER, ENDPOINT, body, action);
+    }
+
+    // computeRequestHash as it was before RequestHasher: unsorted JSON, hex built by hand
+    private String oldRequestHash(Object body) throws Exception {
+        String json = objectMapper.writeValueAsString(body);
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : hash) {
+            String hex = Integer.toHexString(0xff & b);
+            if (hex.length() == 1) {
+                hexString.append('0');
+            }
+            hexString.append(hex);
+        }
+        return hexString.toString();
+    }
+
+    private static void awaitParked(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (thread.getState() != Thread.State.TIMED_WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(Thread.State.TIMED_WAITING, thread.getState());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
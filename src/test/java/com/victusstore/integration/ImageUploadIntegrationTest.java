@@ -0,0 +1,174 @@
+package com.victusstore.integration;
+
+import com.victusstore.config.JwtUtil;
+import com.victusstore.model.Image;
+import com.victusstore.model.Product;
+import com.victusstore.repository.ImageRepository;
+import com.victusstore.repository.ProductRepository;
+import com.victusstore.services.ImageStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * POST /api/images/upload-multiple against a stub storage: partial failures
+ * are reported by index and only the successful uploads are saved.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:imageuploaddb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=image-upload-secret-image-upload-secret-0123456",
+        // Neither real backend; the stub below is the only ImageStorage
+        "app.images.storage=stub"
+})
+public class ImageUploadIntegrationTest {
+
+    @TestConfiguration
+    static class StubStorageConfig {
+
+        // Fails files whose content is "boom"; otherwise names the stored image after the content
+        @Bean
+        ImageStorage imageStorage() {
+            return new ImageStorage() {
+                @Override
+                public StoredImage store(Path file, String contentType, String folder) throws IOException {
+                    String content = Files.readString(file);
+                    if (content.equals("boom")) {
+                        throw new IOException("storage unavailable");
+                    }
+                    String key = folder + "/" + content;
+                    return new StoredImage("https://stub.example.com/" + key, key, "png", 1, 1, Files.size(file));
+                }
+
+                @Override
+                public boolean delete(String publicId) {
+                    return true;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    private Product product;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(Product.builder()
+                .productName("Upload Product")
+                .basePrice(new BigDecimal("10.00"))
+                .isActive(true)
+                .build());
+        token = "Bearer " + jwtUtil.generateAccessToken("uploader@example.com", "SELLER");
+    }
+
+    @Test
+    void testPartialFailureSavesOnlyTheSuccessfulUploads() throws Exception {
+        upload(image("a"), text("notes"), image("boom"), image("b"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.uploaded_count").value(2))
+                .andExpect(jsonPath("$.failed_count").value(2))
+                .andExpect(jsonPath("$.failures[0].index").value(1))
+                .andExpect(jsonPath("$.failures[0].filename").value("notes.txt"))
+                .andExpect(jsonPath("$.failures[0].error").value("File must be an image"))
+                .andExpect(jsonPath("$.failures[1].index").value(2))
+                .andExpect(jsonPath("$.failures[1].error").value("storage unavailable"))
+                .andExpect(jsonPath("$.images[0].index").value(0))
+                .andExpect(jsonPath("$.images[0].is_primary").value(true))
+                .andExpect(jsonPath("$.images[0].image_url").value("https://stub.example.com/products/a"))
+                .andExpect(jsonPath("$.images[1].index").value(3))
+                .andExpect(jsonPath("$.images[1].is_primary").value(false))
+                .andExpect(jsonPath("$.images[1].cloudinary_public_id").value("products/b"));
+
+        List<Image> saved = imageRepository.findByProductId(product.getProductId()).stream()
+                .sorted(Comparator.comparing(Image::getImageId))
+                .toList();
+        assertEquals(List.of("https://stub.example.com/products/a", "https://stub.example.com/products/b"),
+                saved.stream().map(Image::getImageUrl).toList());
+        assertEquals(List.of(true, false), saved.stream().map(Image::getIsPrimary).toList());
+    }
+
+    @Test
+    void testAllUploadsSucceeding() throws Exception {
+        upload(image("one"), image("two"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.uploaded_count").value(2))
+                .andExpect(jsonPath("$.failures.length()").value(0));
+
+        assertEquals(2, imageRepository.findByProductId(product.getProductId()).size());
+    }
+
+    @Test
+    void testOnlyRejectedFilesIsABadRequest() throws Exception {
+        upload(text("one"), text("two"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.failures.length()").value(2));
+
+        assertTrue(imageRepository.findByProductId(product.getProductId()).isEmpty());
+    }
+
+    @Test
+    void testOnlyStorageFailuresIsAServerError() throws Exception {
+        upload(image("boom"), text("notes"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.failures[0].index").value(0))
+                .andExpect(jsonPath("$.failures[1].index").value(1));
+
+        assertTrue(imageRepository.findByProductId(product.getProductId()).isEmpty());
+    }
+
+    private ResultActions upload(MockMultipartFile... files) throws Exception {
+        MockMultipartHttpServletRequestBuilder request = multipart("/api/images/upload-multiple");
+        for (MockMultipartFile file : files) {
+            request.file(file);
+        }
+        return mockMvc.perform(request
+                .param("product_id", product.getProductId().toString())
+                .header("Authorization", token));
+    }
+
+    private static MockMultipartFile image(String content) {
+        return new MockMultipartFile("files", content + ".png", "image/png", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MockMultipartFile text(String content) {
+        return new MockMultipartFile("files", content + ".txt", "text/plain", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,232 @@
+package com.victusstore.integration;
+
+import com.victusstore.event.CatalogChangedEvent;
+import com.victusstore.model.CartProduct;
+import com.victusstore.model.Product;
+import com.victusstore.model.ProductVariant;
+import com.victusstore.repository.ProductRepository;
+import com.victusstore.repository.ProductVariantRepository;
+import com.victusstore.service.CatalogResponseCache;
+import com.victusstore.service.InventoryLedger;
+import com.victusstore.service.StockReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reservations against the in-memory ledger and their write-back to
+ * product_variants. Scheduling is off in tests, so flushes are explicit.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledgerdb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=ledger-test-secret-ledger-test-secret-0123456789",
+        "app.inventory.ledger.enabled=true",
+        // Runs once at startup; the tests flush by hand
+        "app.inventory.ledger.flush-interval-ms=3600000"
+})
+@RecordApplicationEvents
+public class InventoryLedgerIntegrationTest {
+
+    @Autowired
+    private InventoryLedger ledger;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository variantRepository;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(Product.builder()
+                .productName("Ledger Product")
+                .basePrice(new BigDecimal("10.00"))
+                .isActive(true)
+                .build());
+    }
+
+    @Test
+    void testCommittedReservationsAreFlushedToTheDatabase() {
+        Long variantId = createVariant(10);
+
+        assertNull(ledger.tryReserve(Map.of(variantId, 3)));
+        assertEquals(7, ledger.getAvailableStock(variantId));
+        ledger.commit(Map.of(variantId, 3));
+        ledger.flush();
+
+        assertEquals(7, databaseStock(variantId));
+        assertEquals(7, ledger.getAvailableStock(variantId));
+    }
+
+    @Test
+    void testReservationIsAllOrNothing() {
+        Long plenty = createVariant(10);
+        Long scarce = createVariant(1);
+
+        assertEquals(scarce, ledger.tryReserve(Map.of(plenty, 4, scarce, 2)));
+        assertEquals(10, ledger.getAvailableStock(plenty));
+        assertEquals(1, ledger.getAvailableStock(scarce));
+    }
+
+    @Test
+    void testReleasedReservationsReturnStock() {
+        Long variantId = createVariant(5);
+
+        assertNull(ledger.tryReserve(Map.of(variantId, 5)));
+        assertEquals(variantId, ledger.tryReserve(Map.of(variantId, 1)));
+        ledger.release(Map.of(variantId, 5));
+        ledger.flush();
+
+        assertEquals(5, ledger.getAvailableStock(variantId));
+        assertEquals(5, databaseStock(variantId));
+    }
+
+    @Test
+    void testAdminStockReplacesUnflushedDeltas() {
+        Long variantId = createVariant(10);
+        assertNull(ledger.tryReserve(Map.of(variantId, 2)));
+        ledger.commit(Map.of(variantId, 2));
+
+        ledger.setStock(variantId, 50);
+        ledger.flush();
+
+        assertEquals(50, databaseStock(variantId));
+        assertEquals(50, ledger.getAvailableStock(variantId));
+    }
+
+    @Test
+    void testAdminStockKeepsUncommittedReservations() {
+        Long variantId = createVariant(10);
+        assertNull(ledger.tryReserve(Map.of(variantId, 3)));
+
+        ledger.setStock(variantId, 20);
+        assertEquals(17, ledger.getAvailableStock(variantId));
+
+        // The checkout that reserved before the admin write commits afterwards
+        ledger.commit(Map.of(variantId, 3));
+        ledger.flush();
+        assertEquals(17, databaseStock(variantId));
+        assertEquals(17, ledger.getAvailableStock(variantId));
+    }
+
+    @Test
+    void testConcurrentReservationsNeverOversell() throws Exception {
+        Long variantId = createVariant(100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    int reserved = 0;
+                    for (int i = 0; i < 50; i++) {
+                        if (ledger.tryReserve(Map.of(variantId, 1)) == null) {
+                            ledger.commit(Map.of(variantId, 1));
+                            reserved++;
+                        }
+                    }
+                    return reserved;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get();
+            }
+            assertEquals(100, total);
+        } finally {
+            executor.shutdown();
+        }
+
+        ledger.flush();
+        assertEquals(0, ledger.getAvailableStock(variantId));
+        assertEquals(0, databaseStock(variantId));
+    }
+
+    @Test
+    void testCheckoutThroughTheLedgerPublishesStockEventsOnFlush() {
+        Long variantId = createVariant(10);
+        CartProduct line = CartProduct.builder().variantId(variantId).quantity(2).build();
+
+        transactionTemplate.executeWithoutResult(status -> stockReservationService.reserve(List.of(line)));
+
+        assertEquals(8, ledger.getAvailableStock(variantId));
+        // The database still holds the old stock, so nothing may be rebuilt from it yet
+        assertEquals(0, stockEvents());
+
+        ledger.flush();
+        assertEquals(8, databaseStock(variantId));
+        assertEquals(1, stockEvents());
+    }
+
+    @Test
+    void testStockResponseAfterFlushShowsTheLedgerStock() {
+        Long variantId = createVariant(10);
+        CartProduct line = CartProduct.builder().variantId(variantId).quantity(4).build();
+        transactionTemplate.executeWithoutResult(status -> stockReservationService.reserve(List.of(line)));
+
+        // A read between checkout and flush caches the database rows
+        String before = new String(catalogResponseCache.serve("ledger-variants/" + product.getProductId(),
+                product.getProductId(), () -> variantRepository.findByProductId(product.getProductId())).getBody());
+        assertTrue(before.contains("\"stockQuantity\":10"), before);
+
+        ledger.flush();
+        String after = new String(catalogResponseCache.serve("ledger-variants/" + product.getProductId(),
+                product.getProductId(), () -> variantRepository.findByProductId(product.getProductId())).getBody());
+        assertTrue(after.contains("\"stockQuantity\":6"), after);
+    }
+
+    private long stockEvents() {
+        return events.stream(CatalogChangedEvent.class)
+                .filter(event -> event.type() == CatalogChangedEvent.Type.STOCK)
+                .filter(event -> product.getProductId().equals(event.productId()))
+                .count();
+    }
+
+    private Long createVariant(int stock) {
+        ProductVariant variant = variantRepository.save(ProductVariant.builder()
+                .productId(product.getProductId())
+                .color("Blue")
+                .size("L")
+                .stockQuantity(stock)
+                .price(new BigDecimal("10.00"))
+                .isActive(true)
+                .build());
+        ledger.track(variant.getVariantId(), stock);
+        return variant.getVariantId();
+    }
+
+    private int databaseStock(Long variantId) {
+        return variantRepository.findById(variantId).orElseThrow().getStockQuantity();
+    }
+}
@@ -0,0 +1,175 @@
+package com.victusstore.integration;
+
+import com.victusstore.model.Account;
+import com.victusstore.model.Cart;
+import com.victusstore.model.CartProduct;
+import com.victusstore.model.Image;
+import com.victusstore.model.Order;
+import com.victusstore.model.Product;
+import com.victusstore.model.ProductVariant;
+import com.victusstore.repository.AccountRepository;
+import com.victusstore.repository.CartProductRepository;
+import com.victusstore.repository.CartRepository;
+import com.victusstore.repository.ImageRepository;
+import com.victusstore.repository.OrderRepository;
+import com.victusstore.repository.ProductRepository;
+import com.victusstore.repository.ProductVariantRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multi-row writes to the sequence-backed tables must go out as JDBC batches:
+ * one prepared statement per batch instead of one per row, and one sequence
+ * call per 50 ids.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batchingdb;NON_KEYWORDS=KEY",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.jwt.secret=batching-test-secret-batching-test-secret-0123456789"
+})
+public class JdbcBatchingIntegrationTest {
+
+    private static final int ROWS = 40;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository variantRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartProductRepository cartProductRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    private Statistics statistics;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        accountRepository.save(Account.builder()
+                .email("batch@example.com")
+                .password("password123")
+                .role("CUSTOMER")
+                .isActive(true)
+                .createdAt(LocalDateTime.now())
+                .build());
+        product = productRepository.save(Product.builder()
+                .productName("Batch Product")
+                .basePrice(new BigDecimal("10.00"))
+                .isActive(true)
+                .build());
+    }
+
+    @Test
+    void testImageInsertsAreBatched() {
+        List<Image> images = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            images.add(Image.builder()
+                    .productId(product.getProductId())
+                    .imageUrl("https://images.example.com/" + i + ".jpg")
+                    .isPrimary(i == 0)
+                    .build());
+        }
+
+        statistics.clear();
+        imageRepository.saveAll(images);
+
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        // One sequence call and one batched INSERT, not 40 of each
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+        assertTrue(images.stream().allMatch(image -> image.getImageId() != null));
+    }
+
+    @Test
+    void testCartLineInsertsAndOrderLinkingUpdatesAreBatched() {
+        ProductVariant variant = variantRepository.save(ProductVariant.builder()
+                .productId(product.getProductId())
+                .color("Red")
+                .size("M")
+                .stockQuantity(100)
+                .price(new BigDecimal("1.00"))
+                .isActive(true)
+                .build());
+        Cart cart = cartRepository.save(Cart.builder()
+                .email("batch@example.com")
+                .totalPrice(BigDecimal.ZERO)
+                .isActive(true)
+                .build());
+
+        List<CartProduct> lines = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            lines.add(CartProduct.builder()
+                    .cartId(cart.getCartId())
+                    .variantId(variant.getVariantId())
+                    .quantity(1)
+                    .priceAtTime(new BigDecimal("11.00"))
+                    .build());
+        }
+
+        statistics.clear();
+        cartProductRepository.saveAll(lines);
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            Order order = orderRepository.save(Order.builder()
+                    .email("batch@example.com")
+                    .address("1 Batch St")
+                    .phoneNum("0100000000")
+                    .totalPrice(new BigDecimal("440.00"))
+                    .orderStatus("pending")
+                    .paymentStatus("pending")
+                    .orderDate(LocalDateTime.now())
+                    .build());
+            List<CartProduct> cartLines = cartProductRepository.findByCartId(cart.getCartId());
+            cartLines.forEach(line -> line.setOrderId(order.getOrderId()));
+            cartProductRepository.saveAll(cartLines);
+        });
+
+        assertEquals(ROWS, statistics.getEntityUpdateCount());
+        // Sequence call, order insert, the line select with its eager associations,
+        // and one batched UPDATE for all 40 lines
+        assertTrue(statistics.getPrepareStatementCount() <= 8,
+                "expected batched updates, got " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals(ROWS, cartProductRepository.findByOrderId(
+                cartProductRepository.findByCartId(cart.getCartId()).get(0).getOrderId()).size());
+    }
+}
@@ -0,0 +1,268 @@
+package com.victusstore.integration;
+
+import com.victusstore.config.JwtUtil;
+import com.victusstore.dto.ProductDetail;
+import com.victusstore.event.CatalogChangedEvent;
+import com.victusstore.model.Account;
+import com.victusstore.model.Category;
+import com.victusstore.model.Image;
+import com.victusstore.model.Product;
+import com.victusstore.model.ProductVariant;
+import com.victusstore.model.Seller;
+import com.victusstore.repository.AccountRepository;
+import com.victusstore.repository.CategoryRepository;
+import com.victusstore.repository.ImageRepository;
+import com.victusstore.repository.ProductRepository;
+import com.victusstore.repository.ProductVariantRepository;
+import com.victusstore.repository.SellerRepository;
+import com.victusstore.service.ProductDetailService;
+import com.victusstore.service.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The product page read model: what it assembles, that it is cached, and that
+ * seller and account writers evict it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:productdetaildb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=detail-test-secret-detail-test-secret-0123456789"
+})
+@RecordApplicationEvents
+public class ProductDetailServiceIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ProductDetailService productDetailService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private SellerRepository sellerRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository variantRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    private Account account;
+    private Seller seller;
+    private Category category;
+    private Product product;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+        account = accountRepository.save(Account.builder()
+                .email("seller-" + suffix + "@example.com")
+                .password("password123")
+                .role("SELLER")
+                .isActive(true)
+                .build());
+        seller = sellerRepository.save(Seller.builder()
+                .sellerName("Original Seller")
+                .email(account.getEmail())
+                .rating(new BigDecimal("4.10"))
+                .isActive(true)
+                .build());
+        category = categoryRepository.save(Category.builder()
+                .categoryName("Detail Category " + suffix)
+                .isActive(true)
+                .build());
+        product = productRepository.save(Product.builder()
+                .productName("Detail Product")
+                .description("Shown on the product page")
+                .basePrice(new BigDecimal("20.00"))
+                .categoryId(category.getCategoryId())
+                .sellerId(seller.getSellerId())
+                .isActive(true)
+                .build());
+        token = "Bearer " + jwtUtil.generateAccessToken("detail-admin@example.com", "ADMIN");
+    }
+
+    @Test
+    void testDetailAssemblesTheProductGraphAndIsCached() {
+        ProductVariant first = saveVariant("Red", "S");
+        ProductVariant second = saveVariant("Blue", "M");
+        imageRepository.save(Image.builder()
+                .productId(product.getProductId())
+                .imageUrl("https://img.example.com/main.jpg")
+                .isPrimary(true)
+                .build());
+        imageRepository.save(Image.builder()
+                .productId(product.getProductId())
+                .variantId(second.getVariantId())
+                .imageUrl("https://img.example.com/blue.jpg")
+                .isPrimary(false)
+                .build());
+
+        ProductDetail detail = productDetailService.getDetail(product.getProductId()).orElseThrow();
+
+        assertEquals("Detail Product", detail.productName());
+        assertEquals(category.getCategoryName(), detail.category().categoryName());
+        assertEquals("Original Seller", detail.seller().sellerName());
+        assertEquals(List.of(first.getVariantId(), second.getVariantId()),
+                detail.variants().stream().map(ProductDetail.VariantDetail::variantId).toList());
+        assertTrue(detail.variants().get(0).images().isEmpty());
+        assertEquals(List.of("https://img.example.com/blue.jpg"),
+                detail.variants().get(1).images().stream().map(ProductDetail.ImageRef::imageUrl).toList());
+        assertEquals(2, detail.images().size());
+
+        assertSame(detail, productDetailService.getDetail(product.getProductId()).orElseThrow());
+    }
+
+    @Test
+    void testUnknownProductIsEmpty() {
+        assertTrue(productDetailService.getDetail(-1L).isEmpty());
+    }
+
+    @Test
+    void testSellerUpdateRefreshesTheCachedDetail() throws Exception {
+        assertEquals("Original Seller",
+                productDetailService.getDetail(product.getProductId()).orElseThrow().seller().sellerName());
+
+        mockMvc.perform(put("/api/sellers/" + seller.getSellerId())
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sellerName\": \"Renamed Seller\", \"rating\": 4.80, \"isActive\": true}"))
+                .andExpect(status().isOk());
+
+        ProductDetail.SellerRef refreshed = productDetailService.getDetail(product.getProductId()).orElseThrow().seller();
+        assertEquals("Renamed Seller", refreshed.sellerName());
+        assertEquals(0, new BigDecimal("4.80").compareTo(refreshed.rating()));
+    }
+
+    @Test
+    void testSellerDeleteRemovesItsCachedProducts() throws Exception {
+        mockMvc.perform(get("/api/products/" + product.getProductId()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/sellers/" + seller.getSellerId())
+                        .header("Authorization", token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/products/" + product.getProductId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testAccountDeleteRemovesItsSellersCachedProducts() throws Exception {
+        mockMvc.perform(get("/api/products/" + product.getProductId()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/api/accounts/" + account.getEmail())
+                        .header("Authorization", token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/products/" + product.getProductId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testSellerUpdatePublishesOneEventForAllItsProducts() throws Exception {
+        Product second = saveProduct("Second Detail Product");
+        productDetailService.getDetail(product.getProductId()).orElseThrow();
+        productDetailService.getDetail(second.getProductId()).orElseThrow();
+
+        mockMvc.perform(put("/api/sellers/" + seller.getSellerId())
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sellerName\": \"Bulk Seller\", \"rating\": 3.90, \"isActive\": true}"))
+                .andExpect(status().isOk());
+
+        List<CatalogChangedEvent> published = localEvents();
+        assertEquals(1, published.size(), published.toString());
+        assertEquals(CatalogChangedEvent.Type.SELLER, published.get(0).type());
+        assertEquals(List.of(product.getProductId(), second.getProductId()),
+                published.get(0).productIds().stream().sorted().toList());
+        assertEquals("Bulk Seller",
+                productDetailService.getDetail(second.getProductId()).orElseThrow().seller().sellerName());
+    }
+
+    @Test
+    void testSellerDeletePublishesOneRemovalAndDropsItsProductsFromSearch() throws Exception {
+        Product second = saveProduct("Second Detail Product");
+        productSearchIndex.reindex(product.getProductId());
+        productSearchIndex.reindex(second.getProductId());
+
+        mockMvc.perform(delete("/api/sellers/" + seller.getSellerId())
+                        .header("Authorization", token))
+                .andExpect(status().isOk());
+
+        List<CatalogChangedEvent> published = localEvents();
+        assertEquals(1, published.size(), published.toString());
+        assertEquals(CatalogChangedEvent.Type.PRODUCTS_REMOVED, published.get(0).type());
+        assertTrue(productSearchIndex.search("detail product", 10).stream()
+                .noneMatch(hit -> hit.productId().equals(product.getProductId())
+                        || hit.productId().equals(second.getProductId())));
+    }
+
+    // The version poll may run meanwhile; its REMOTE events are not this write's
+    private List<CatalogChangedEvent> localEvents() {
+        return events.stream(CatalogChangedEvent.class)
+                .filter(event -> event.type() != CatalogChangedEvent.Type.REMOTE)
+                .toList();
+    }
+
+    private Product saveProduct(String name) {
+        return productRepository.save(Product.builder()
+                .productName(name)
+                .basePrice(new BigDecimal("5.00"))
+                .categoryId(category.getCategoryId())
+                .sellerId(seller.getSellerId())
+                .isActive(true)
+                .build());
+    }
+
+    private ProductVariant saveVariant(String color, String size) {
+        return variantRepository.save(ProductVariant.builder()
+                .productId(product.getProductId())
+                .color(color)
+                .size(size)
+                .stockQuantity(5)
+                .price(new BigDecimal("2.00"))
+                .isActive(true)
+                .build());
+    }
+}
@@ -0,0 +1,123 @@
+package com.victusstore.integration;
+
+import com.victusstore.model.Product;
+import com.victusstore.model.ProductVariant;
+import com.victusstore.repository.ProductRepository;
+import com.victusstore.repository.ProductVariantRepository;
+import com.victusstore.service.ProductFacetIndex;
+import com.victusstore.service.ProductFacetIndex.FacetQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Price and rating filters go through the bucket bitmaps; they must return
+ * exactly the products a plain scan would.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:facetdb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=facet-test-secret-facet-test-secret-0123456789"
+})
+public class ProductFacetIndexIntegrationTest {
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository variantRepository;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        variantRepository.deleteAll();
+        productRepository.deleteAll();
+        products.clear();
+        String[] basePrices = {"5.00", "24.99", "25.00", "49.50", "60.00", "99.99", "150.00", "199.99", "250.00", "0.50"};
+        String[] ratings = {"0.0", "1.5", "2.0", "3.7", "4.0", "4.5", "5.0", "3.0", "4.9", null};
+        for (int i = 0; i < basePrices.length; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .productName("Facet " + i)
+                    .basePrice(new BigDecimal(basePrices[i]))
+                    .productRating(ratings[i] == null ? null : new BigDecimal(ratings[i]))
+                    .isActive(true)
+                    .build());
+            products.add(product);
+            // Every other product gets a pricier variant, so a product can sit in two price buckets
+            if (i % 2 == 0) {
+                variantRepository.save(ProductVariant.builder()
+                        .productId(product.getProductId())
+                        .color("Black")
+                        .size("S")
+                        .stockQuantity(1)
+                        .price(new BigDecimal("30.00"))
+                        .isActive(true)
+                        .build());
+            }
+        }
+        facetIndex.rebuild();
+    }
+
+    @Test
+    void testPriceFilterMatchesScan() {
+        String[][] ranges = {
+                {null, "25.00"}, {"25.00", null}, {"25.00", "49.99"}, {"24.99", "50.00"}, {"30.00", "35.00"},
+                {"100.00", "199.99"}, {"0.00", "0.49"}, {"200.00", "1000.00"}, {"55.00", "54.00"}};
+        for (String[] range : ranges) {
+            BigDecimal min = range[0] == null ? null : new BigDecimal(range[0]);
+            BigDecimal max = range[1] == null ? null : new BigDecimal(range[1]);
+            Set<Long> expected = new HashSet<>();
+            for (Product product : products) {
+                if (pricesOf(product).stream().anyMatch(price ->
+                        (min == null || price.compareTo(min) >= 0) && (max == null || price.compareTo(max) <= 0))) {
+                    expected.add(product.getProductId());
+                }
+            }
+            assertEquals(expected, query(new FacetQuery(null, null, null, min, max, null)),
+                    "price range " + range[0] + ".." + range[1]);
+        }
+    }
+
+    @Test
+    void testRatingFilterMatchesScan() {
+        for (String minimum : new String[]{"0", "1", "1.5", "3.5", "4", "4.95", "5", "5.5", "-1"}) {
+            BigDecimal minRating = new BigDecimal(minimum);
+            Set<Long> expected = new HashSet<>();
+            for (Product product : products) {
+                if (product.getProductRating() != null && product.getProductRating().compareTo(minRating) >= 0) {
+                    expected.add(product.getProductId());
+                }
+            }
+            assertEquals(expected, query(new FacetQuery(null, null, null, null, null, minRating)),
+                    "min rating " + minimum);
+        }
+    }
+
+    private Set<Long> query(FacetQuery query) {
+        return new HashSet<>(facetIndex.query(query, 0, 100).productIds());
+    }
+
+    private List<BigDecimal> pricesOf(Product product) {
+        List<ProductVariant> variants = variantRepository.findByProductId(product.getProductId());
+        if (variants.isEmpty()) {
+            return List.of(product.getBasePrice());
+        }
+        return variants.stream().map(variant -> product.getBasePrice().add(variant.getPrice())).toList();
+    }
+}
@@ -0,0 +1,198 @@
+package com.victusstore.integration;
+
+import com.victusstore.event.CatalogChangedEvent;
+import com.victusstore.model.Category;
+import com.victusstore.model.Product;
+import com.victusstore.repository.CategoryRepository;
+import com.victusstore.repository.ImageRepository;
+import com.victusstore.repository.ProductRepository;
+import com.victusstore.repository.ProductVariantRepository;
+import com.victusstore.util.CursorCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Keyset paging on the product listings: page boundaries, the size + 1 probe
+ * behind {@code hasMore}, and cursors the codec did not produce.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:keysetdb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=keyset-test-secret-keyset-test-secret-0123456789"
+})
+public class ProductKeysetPagingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository variantRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    private Category category;
+    private Category otherCategory;
+    // Oldest first, so the listing returns them in reverse
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        imageRepository.deleteAll();
+        variantRepository.deleteAll();
+        productRepository.deleteAll();
+        productIds.clear();
+
+        String suffix = String.valueOf(System.nanoTime());
+        category = categoryRepository.save(Category.builder()
+                .categoryName("Keyset Category " + suffix)
+                .isActive(true)
+                .build());
+        otherCategory = categoryRepository.save(Category.builder()
+                .categoryName("Keyset Other " + suffix)
+                .isActive(true)
+                .build());
+        for (int i = 1; i <= 5; i++) {
+            productIds.add(saveProduct("Keyset Product " + i, category).getProductId());
+        }
+        // Written behind the controllers' backs, so drop any listing cached by an earlier test
+        eventPublisher.publishEvent(CatalogChangedEvent.category());
+    }
+
+    @Test
+    void testPagesFollowTheCursorToTheEnd() throws Exception {
+        products("", 2)
+                .andExpect(jsonPath("$.content[*].productId").value(contains(id(5), id(4))))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.size").value(2))
+                .andExpect(jsonPath("$.nextCursor").value(CursorCodec.encode(id(4))));
+
+        products(CursorCodec.encode(id(4)), 2)
+                .andExpect(jsonPath("$.content[*].productId").value(contains(id(3), id(2))))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(CursorCodec.encode(id(2))));
+
+        products(CursorCodec.encode(id(2)), 2)
+                .andExpect(jsonPath("$.content[*].productId").value(contains(id(1))))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andExpect(jsonPath("$.size").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    void testProbeRowDecidesHasMore() throws Exception {
+        // Exactly the remaining rows: the probe finds nothing beyond them
+        products("", 5)
+                .andExpect(jsonPath("$.size").value(5))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+        // One short: the probe row exists but is not returned
+        products("", 4)
+                .andExpect(jsonPath("$.size").value(4))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(CursorCodec.encode(id(2))));
+    }
+
+    @Test
+    void testSizeIsClampedToAtLeastOne() throws Exception {
+        products("", 0)
+                .andExpect(jsonPath("$.content[*].productId").value(contains(id(5))))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    void testCursorPastTheLastRowIsAnEmptyLastPage() throws Exception {
+        products(CursorCodec.encode(id(1)), 2)
+                .andExpect(jsonPath("$.size").value(0))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    void testInvalidCursorIsBadRequest() throws Exception {
+        String foreignVersion = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("v2:" + id(5)).getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("not-a-cursor!!", foreignVersion)) {
+            mockMvc.perform(get("/api/products").param("cursor", cursor).param("size", "2"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error.code").value("INVALID_ARGUMENT"));
+            mockMvc.perform(get("/api/products/category/" + category.getCategoryId())
+                            .param("cursor", cursor).param("size", "2"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.error.code").value("INVALID_ARGUMENT"));
+        }
+    }
+
+    @Test
+    void testCategoryListingPagesOnlyThatCategory() throws Exception {
+        long elsewhere = saveProduct("Keyset Elsewhere", otherCategory).getProductId();
+        eventPublisher.publishEvent(CatalogChangedEvent.category());
+        String path = "/api/products/category/" + category.getCategoryId();
+
+        mockMvc.perform(get(path).param("cursor", "").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].productId").value(contains(id(5), id(4), id(3))))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(CursorCodec.encode(id(3))));
+        mockMvc.perform(get(path).param("cursor", CursorCodec.encode(id(3))).param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].productId").value(contains(id(2), id(1))))
+                .andExpect(jsonPath("$.hasMore").value(false));
+        mockMvc.perform(get("/api/products/category/" + otherCategory.getCategoryId())
+                        .param("cursor", "").param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].productId").value(contains((int) elsewhere)));
+    }
+
+    private ResultActions products(String cursor, int size) throws Exception {
+        return mockMvc.perform(get("/api/products")
+                        .param("cursor", cursor)
+                        .param("size", String.valueOf(size)))
+                .andExpect(status().isOk());
+    }
+
+    // JSON numbers this small come back from JsonPath as Integer
+    private int id(int position) {
+        return productIds.get(position - 1).intValue();
+    }
+
+    private Product saveProduct(String name, Category productCategory) {
+        return productRepository.save(Product.builder()
+                .productName(name)
+                .basePrice(new BigDecimal("10.00"))
+                .categoryId(productCategory.getCategoryId())
+                .isActive(true)
+                .build());
+    }
+}
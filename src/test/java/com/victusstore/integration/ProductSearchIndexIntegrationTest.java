@@ -0,0 +1,161 @@
+package com.victusstore.integration;
+
+import com.victusstore.config.JwtUtil;
+import com.victusstore.model.Product;
+import com.victusstore.model.ProductVariant;
+import com.victusstore.repository.ProductRepository;
+import com.victusstore.repository.ProductVariantRepository;
+import com.victusstore.service.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Matching, prefix matching and ranking of the product search index, and its
+ * incremental updates after product and variant writes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:searchdb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=search-test-secret-search-test-secret-0123456789"
+})
+public class ProductSearchIndexIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository variantRepository;
+
+    private Product trailShoe;
+    private Product roadShoe;
+    private Product jacket;
+    private Product tee;
+
+    @BeforeEach
+    void setUp() {
+        variantRepository.deleteAll();
+        productRepository.deleteAll();
+        trailShoe = saveProduct("Trail Runner Shoe", "Lightweight running shoe");
+        roadShoe = saveProduct("Road Shoe", "Built for trail and road");
+        jacket = saveProduct("Runway Jacket", "Waterproof shell");
+        tee = saveProduct("Run Club Tee", "Cotton");
+        variantRepository.save(ProductVariant.builder()
+                .productId(jacket.getProductId())
+                .color("Olive")
+                .size("XL")
+                .sku("JKT-01")
+                .stockQuantity(1)
+                .price(BigDecimal.ZERO)
+                .isActive(true)
+                .build());
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void testNameMatchesRankAboveDescriptionMatches() {
+        assertEquals(List.of(trailShoe.getProductId(), roadShoe.getProductId()), ids("trail"));
+    }
+
+    @Test
+    void testEveryQueryTokenMustMatch() {
+        assertEquals(List.of(roadShoe.getProductId()), ids("Trail ROAD"));
+        assertTrue(ids("trail jacket").isEmpty());
+    }
+
+    @Test
+    void testPrefixMatchesRankBelowExactMatches() {
+        List<Long> hits = ids("run");
+
+        // "run" is a whole term of the tee; "runner", "running" and "runway" only start with it
+        assertEquals(tee.getProductId(), hits.get(0));
+        assertEquals(Set.of(tee.getProductId(), trailShoe.getProductId(), jacket.getProductId()), Set.copyOf(hits));
+    }
+
+    @Test
+    void testSingleCharacterTokensDoNotMatchAsPrefixes() {
+        assertTrue(ids("r").isEmpty());
+    }
+
+    @Test
+    void testVariantAttributesAndSkuAreSearchable() {
+        assertEquals(List.of(jacket.getProductId()), ids("olive"));
+        assertEquals(List.of(jacket.getProductId()), ids("jkt 01"));
+    }
+
+    @Test
+    void testReindexReplacesOneProductsTerms() {
+        trailShoe.setProductName("Summit Boot");
+        productRepository.save(trailShoe);
+        searchIndex.reindex(trailShoe.getProductId());
+
+        assertEquals(List.of(trailShoe.getProductId()), ids("summit"));
+        assertEquals(List.of(roadShoe.getProductId()), ids("trail"));
+        assertEquals(4, searchIndex.size());
+    }
+
+    @Test
+    void testReindexDropsInactiveAndDeletedProducts() {
+        jacket.setIsActive(false);
+        productRepository.save(jacket);
+        searchIndex.reindex(jacket.getProductId());
+        productRepository.delete(tee);
+        searchIndex.reindex(tee.getProductId());
+
+        assertTrue(ids("olive").isEmpty());
+        assertTrue(ids("club").isEmpty());
+        assertEquals(2, searchIndex.size());
+    }
+
+    @Test
+    void testProductUpdateThroughTheApiReindexesIt() throws Exception {
+        mockMvc.perform(put("/api/products/" + roadShoe.getProductId())
+                        .header("Authorization", "Bearer " + jwtUtil.generateAccessToken("search-admin@example.com", "ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productName\": \"Gravel Shoe\"}"))
+                .andExpect(status().isOk());
+
+        assertEquals(List.of(roadShoe.getProductId()), ids("gravel"));
+        // The old name is gone; the description is still indexed
+        assertEquals(List.of(roadShoe.getProductId()), ids("road"));
+        assertTrue(ids("road shoe").contains(roadShoe.getProductId()));
+    }
+
+    private List<Long> ids(String query) {
+        return searchIndex.search(query, 10).stream().map(ProductSearchIndex.SearchHit::productId).toList();
+    }
+
+    private Product saveProduct(String name, String description) {
+        return productRepository.save(Product.builder()
+                .productName(name)
+                .description(description)
+                .basePrice(new BigDecimal("10.00"))
+                .isActive(true)
+                .build());
+    }
+}
@@ -0,0 +1,168 @@
+package com.victusstore.integration;
+
+import com.victusstore.dto.ProductSummary;
+import com.victusstore.model.Image;
+import com.victusstore.model.Product;
+import com.victusstore.model.ProductVariant;
+import com.victusstore.repository.ImageRepository;
+import com.victusstore.repository.ProductRepository;
+import com.victusstore.repository.ProductVariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The single-statement ProductSummary projection: price range over active
+ * variants, the primary image, and one row per product however many variants
+ * and images it joins.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:summarydb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=summary-test-secret-summary-test-secret-0123456"
+})
+public class ProductSummaryProjectionIntegrationTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductVariantRepository variantRepository;
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    private Product withVariants;
+    private Product withoutVariants;
+    private Product onlyInactiveVariants;
+
+    @BeforeEach
+    void setUp() {
+        imageRepository.deleteAll();
+        variantRepository.deleteAll();
+        productRepository.deleteAll();
+
+        withVariants = saveProduct("With Variants", "10.00");
+        saveVariant(withVariants, "2.00", true);
+        saveVariant(withVariants, "5.00", true);
+        // Unset counts as active
+        saveVariant(withVariants, "3.50", null);
+        // Inactive variants are not offered, so they are out of the range
+        saveVariant(withVariants, "50.00", false);
+        saveImage(withVariants, "https://img.example.com/b-primary.jpg", true);
+        saveImage(withVariants, "https://img.example.com/a-primary.jpg", true);
+        saveImage(withVariants, "https://img.example.com/0-gallery.jpg", false);
+
+        withoutVariants = saveProduct("Without Variants", "20.00");
+        saveImage(withoutVariants, "https://img.example.com/gallery-only.jpg", false);
+
+        onlyInactiveVariants = saveProduct("Only Inactive Variants", "7.25");
+        saveVariant(onlyInactiveVariants, "1.00", false);
+    }
+
+    @Test
+    void testPriceRangeCoversActiveVariantsOnly() {
+        ProductSummary summary = summaries().get(withVariants.getProductId());
+
+        assertEquals(0, new BigDecimal("12.00").compareTo(summary.minPrice()), summary.minPrice().toString());
+        assertEquals(0, new BigDecimal("15.00").compareTo(summary.maxPrice()), summary.maxPrice().toString());
+        assertEquals(0, new BigDecimal("10.00").compareTo(summary.basePrice()));
+    }
+
+    @Test
+    void testPriceRangeFallsBackToTheBasePrice() {
+        ProductSummary noVariants = summaries().get(withoutVariants.getProductId());
+        ProductSummary inactiveOnly = summaries().get(onlyInactiveVariants.getProductId());
+
+        assertEquals(0, new BigDecimal("20.00").compareTo(noVariants.minPrice()));
+        assertEquals(0, new BigDecimal("20.00").compareTo(noVariants.maxPrice()));
+        assertEquals(0, new BigDecimal("7.25").compareTo(inactiveOnly.minPrice()));
+        assertEquals(0, new BigDecimal("7.25").compareTo(inactiveOnly.maxPrice()));
+    }
+
+    @Test
+    void testPrimaryImageIsTheFirstPrimaryByUrl() {
+        Map<Long, ProductSummary> summaries = summaries();
+
+        assertEquals("https://img.example.com/a-primary.jpg",
+                summaries.get(withVariants.getProductId()).primaryImageUrl());
+        assertNull(summaries.get(withoutVariants.getProductId()).primaryImageUrl());
+        assertNull(summaries.get(onlyInactiveVariants.getProductId()).primaryImageUrl());
+    }
+
+    @Test
+    void testOneRowPerProductInPagesAndCounts() {
+        Page<ProductSummary> page = productRepository.findSummaries(PageRequest.of(0, 10));
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of(withVariants.getProductId(), withoutVariants.getProductId(),
+                        onlyInactiveVariants.getProductId()),
+                page.getContent().stream().map(ProductSummary::productId).toList());
+        assertEquals("With Variants", page.getContent().get(0).productName());
+        assertNotNull(page.getContent().get(0).createdAt());
+
+        Page<ProductSummary> second = productRepository.findSummaries(PageRequest.of(1, 2));
+        assertEquals(List.of(onlyInactiveVariants.getProductId()),
+                second.getContent().stream().map(ProductSummary::productId).toList());
+        assertEquals(3, second.getTotalElements());
+    }
+
+    @Test
+    void testKeysetQueriesUseTheSameProjection() {
+        List<ProductSummary> newestFirst = productRepository.findSummariesNewestFirst(PageRequest.of(0, 10));
+
+        assertEquals(List.of(onlyInactiveVariants.getProductId(), withoutVariants.getProductId(),
+                        withVariants.getProductId()),
+                newestFirst.stream().map(ProductSummary::productId).toList());
+        assertEquals(0, new BigDecimal("15.00").compareTo(newestFirst.get(2).maxPrice()));
+        assertEquals("https://img.example.com/a-primary.jpg", newestFirst.get(2).primaryImageUrl());
+    }
+
+    private Map<Long, ProductSummary> summaries() {
+        List<ProductSummary> rows = productRepository.findSummariesByIds(List.of(
+                withVariants.getProductId(), withoutVariants.getProductId(), onlyInactiveVariants.getProductId()));
+        assertEquals(3, rows.size());
+        return rows.stream().collect(Collectors.toMap(ProductSummary::productId, Function.identity()));
+    }
+
+    private Product saveProduct(String name, String basePrice) {
+        return productRepository.save(Product.builder()
+                .productName(name)
+                .basePrice(new BigDecimal(basePrice))
+                .isActive(true)
+                .build());
+    }
+
+    private void saveVariant(Product product, String price, Boolean active) {
+        variantRepository.save(ProductVariant.builder()
+                .productId(product.getProductId())
+                .color("Black")
+                .size("M")
+                .stockQuantity(1)
+                .price(new BigDecimal(price))
+                .isActive(active)
+                .build());
+    }
+
+    private void saveImage(Product product, String url, boolean primary) {
+        imageRepository.save(Image.builder()
+                .productId(product.getProductId())
+                .imageUrl(url)
+                .isPrimary(primary)
+                .build());
+    }
+}
@@ -0,0 +1,64 @@
+package com.victusstore.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ratelimitdb;NON_KEYWORDS=KEY",
+        "app.jwt.secret=rate-limit-test-secret-rate-limit-test-secret-0123",
+        "app.rate-limit.api-keys=partner-key-1",
+        "app.rate-limit.rules[0].name=health",
+        "app.rate-limit.rules[0].path=/api/health",
+        "app.rate-limit.rules[0].limit=2",
+        "app.rate-limit.rules[0].window=60s",
+        "app.rate-limit.rules[0].key=API_KEY",
+        "app.rate-limit.rules[0].message=Slow \"down\"\\\\ please"
+})
+public class RateLimitingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testUnknownApiKeysShareTheCallersIpBucket() throws Exception {
+        mockMvc.perform(health("10.1.0.1").header("X-API-Key", UUID.randomUUID().toString()))
+                .andExpect(status().isOk());
+        mockMvc.perform(health("10.1.0.1").header("X-API-Key", UUID.randomUUID().toString()))
+                .andExpect(status().isOk());
+        mockMvc.perform(health("10.1.0.1").header("X-API-Key", UUID.randomUUID().toString()))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.error.code").value("RATE_LIMIT_EXCEEDED"))
+                .andExpect(jsonPath("$.error.message").value("Slow \"down\"\\ please"));
+    }
+
+    @Test
+    void testConfiguredApiKeyHasItsOwnBucket() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(health("10.2.0.1")).andExpect(status().isOk());
+        }
+        mockMvc.perform(health("10.2.0.1")).andExpect(status().isTooManyRequests());
+
+        mockMvc.perform(health("10.2.0.1").header("X-API-Key", "partner-key-1")).andExpect(status().isOk());
+        mockMvc.perform(health("10.2.0.2").header("X-API-Key", "partner-key-1")).andExpect(status().isOk());
+        mockMvc.perform(health("10.2.0.3").header("X-API-Key", "partner-key-1"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    private static MockHttpServletRequestBuilder health(String ip) {
+        return get("/api/health").header("X-Forwarded-For", ip);
+    }
+}
@@ -0,0 +1,178 @@
+package com.victusstore.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The V5 migration and the partition maintenance against a real PostgreSQL,
+ * since H2 has no declarative partitioning. Each test starts from the
+ * pre-V5 admin_activities table. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class AdminActivityPartitionManagerTest {
+
+    private static final Path MIGRATION = Path.of("database", "V5__Partition_Admin_Activities.sql");
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private final YearMonth current = YearMonth.now();
+
+    private JdbcTemplate jdbcTemplate;
+    private AdminActivityPartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP SCHEMA public CASCADE; CREATE SCHEMA public");
+        // As created by database_complete.sql
+        jdbcTemplate.execute("CREATE TABLE public.admin_activities ("
+                + "activity_id bigserial NOT NULL, "
+                + "admin_email varchar(255) NOT NULL, "
+                + "action_type varchar(50) NOT NULL, "
+                + "entity_type varchar(50) NOT NULL, "
+                + "entity_id bigint, "
+                + "description text, "
+                + "ip_address varchar(45), "
+                + "user_agent varchar(500), "
+                + "created_at timestamp without time zone DEFAULT CURRENT_TIMESTAMP, "
+                + "CONSTRAINT admin_activities_pkey PRIMARY KEY (activity_id))");
+
+        manager = new AdminActivityPartitionManager();
+        ReflectionTestUtils.setField(manager, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(manager, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(manager, "enabled", true);
+        ReflectionTestUtils.setField(manager, "monthsAhead", 3);
+        ReflectionTestUtils.setField(manager, "retentionMonths", 12);
+    }
+
+    @Test
+    void testMigrationMovesHistoryIntoMonthlyPartitions() throws Exception {
+        insert(current.minusMonths(2));
+        insert(current);
+        jdbcTemplate.update("INSERT INTO admin_activities (admin_email, action_type, entity_type, created_at) "
+                + "VALUES ('admin@example.com', 'UPDATE', 'PRODUCT', NULL)");
+
+        migrate();
+
+        assertEquals(months(-2, -1, 0, 1, 2, 3), Set.copyOf(manager.attachedMonths()));
+        assertEquals(1, count(partition(current.minusMonths(2))));
+        assertEquals(2, count(partition(current)));
+        assertEquals(0, count("admin_activities_default"));
+        assertEquals(3, count("admin_activities"));
+        // The id sequence outlived the old table
+        insert(current);
+        assertEquals(4, count("admin_activities"));
+    }
+
+    @Test
+    void testMigrationFailsOnALeftoverTableWithAPartitionName() {
+        jdbcTemplate.execute("CREATE TABLE " + partition(current.plusMonths(1)) + " (activity_id bigint)");
+
+        assertThrows(DataAccessException.class, this::migrate);
+    }
+
+    @Test
+    void testMaintainCreatesMissingMonths() throws Exception {
+        migrate();
+        jdbcTemplate.execute("DROP TABLE " + partition(current.plusMonths(3)));
+
+        manager.maintain();
+
+        assertEquals(months(0, 1, 2, 3), Set.copyOf(manager.attachedMonths()));
+    }
+
+    @Test
+    void testMaintainMovesStrandedRowsIntoTheNewPartition() throws Exception {
+        migrate();
+        YearMonth month = current.plusMonths(2);
+        jdbcTemplate.execute("DROP TABLE " + partition(month));
+        insert(month);
+        insert(month);
+        // Beyond the months kept ahead; stays in the default partition
+        insert(current.plusMonths(6));
+        assertEquals(3, count("admin_activities_default"));
+
+        manager.maintain();
+
+        assertTrue(manager.attachedMonths().contains(month));
+        assertEquals(2, count(partition(month)));
+        assertEquals(1, count("admin_activities_default"));
+        assertEquals(3, count("admin_activities"));
+    }
+
+    @Test
+    void testDetachedTableWithAPartitionNameIsNotSilentlyReused() throws Exception {
+        migrate();
+        YearMonth month = current.plusMonths(1);
+        insert(month);
+        jdbcTemplate.execute("ALTER TABLE admin_activities DETACH PARTITION " + partition(month));
+        jdbcTemplate.execute("DROP TABLE " + partition(current.plusMonths(3)));
+
+        manager.maintain();
+
+        assertFalse(manager.attachedMonths().contains(month));
+        assertEquals(1, count(partition(month)));
+        // The other months are still maintained
+        assertTrue(manager.attachedMonths().contains(current.plusMonths(3)));
+        // New rows for the month fall back to the default partition until an operator steps in
+        insert(month);
+        assertEquals(1, count("admin_activities_default"));
+    }
+
+    @Test
+    void testMonthsPastRetentionAreDetachedButKept() throws Exception {
+        insert(current.minusMonths(3));
+        migrate();
+        ReflectionTestUtils.setField(manager, "retentionMonths", 2);
+
+        manager.maintain();
+
+        assertEquals(months(-1, 0, 1, 2, 3), Set.copyOf(manager.attachedMonths()));
+        assertEquals(1, count(partition(current.minusMonths(3))));
+        assertEquals(0, count("admin_activities"));
+    }
+
+    private void migrate() throws Exception {
+        jdbcTemplate.execute(Files.readString(MIGRATION));
+    }
+
+    private void insert(YearMonth month) {
+        jdbcTemplate.update("INSERT INTO admin_activities (admin_email, action_type, entity_type, created_at) "
+                + "VALUES ('admin@example.com', 'UPDATE', 'PRODUCT', ?)", month.atDay(10).atTime(12, 0));
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private Set<YearMonth> months(int... offsets) {
+        Set<YearMonth> months = new HashSet<>();
+        for (int offset : offsets) {
+            months.add(current.plusMonths(offset));
+        }
+        return months;
+    }
+
+    private static String partition(YearMonth month) {
+        return String.format("admin_activities_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+}
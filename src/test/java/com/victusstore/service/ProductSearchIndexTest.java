@@ -0,0 +1,32 @@
+package com.victusstore.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    @Test
+    void testTokenizeLowerCasesAndSplitsOnNonWordCharacters() {
+        assertEquals(List.of("trail", "runner", "2", "0", "gtx"), ProductSearchIndex.tokenize("Trail-Runner 2.0 (GTX)"));
+    }
+
+    @Test
+    void testTokenizeKeepsLettersAndDigitsTogether() {
+        assertEquals(List.of("jkt01", "xl"), ProductSearchIndex.tokenize("JKT01/XL"));
+    }
+
+    @Test
+    void testTokenizeKeepsNonAsciiLetters() {
+        assertEquals(List.of("café", "crème"), ProductSearchIndex.tokenize("Café Crème"));
+    }
+
+    @Test
+    void testTokenizeBlankOrNullIsEmpty() {
+        assertTrue(ProductSearchIndex.tokenize(null).isEmpty());
+        assertTrue(ProductSearchIndex.tokenize("  ").isEmpty());
+        assertTrue(ProductSearchIndex.tokenize("-- / --").isEmpty());
+    }
+}
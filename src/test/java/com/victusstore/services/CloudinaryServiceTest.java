@@ -0,0 +1,170 @@
+package com.victusstore.services;
+
+import com.victusstore.services.CloudinaryService.UploadResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multi-file uploads against a stub {@link ImageStorage}: per-file results in
+ * input order, failures reported by index, and no spooled files left behind.
+ */
+class CloudinaryServiceTest {
+
+    private final StubStorage storage = new StubStorage();
+    private final CloudinaryService service = newService(4, 30);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void testResultsFollowInputOrderWhateverOrderUploadsFinishIn() {
+        List<UploadResult> results = service.uploadMultipleImages(new MultipartFile[]{
+                image("first.png", "slow"), image("second.png", "fast"), image("third.png", "fast")}, "products");
+
+        assertEquals(List.of(0, 1, 2), results.stream().map(UploadResult::index).toList());
+        assertEquals(List.of("first.png", "second.png", "third.png"),
+                results.stream().map(UploadResult::filename).toList());
+        assertTrue(results.stream().allMatch(UploadResult::succeeded));
+        assertEquals("https://stub.example.com/products/first.png", results.get(0).upload().get("url"));
+        assertEquals("products/first.png", results.get(0).upload().get("public_id"));
+    }
+
+    @Test
+    void testFailuresAreReportedByIndexWithoutFailingTheOthers() {
+        List<UploadResult> results = service.uploadMultipleImages(new MultipartFile[]{
+                image("ok.png", "fine"),
+                new MockMultipartFile("files", "notes.txt", "text/plain", "text".getBytes(StandardCharsets.UTF_8)),
+                image("broken.png", "boom"),
+                new MockMultipartFile("files", "empty.png", "image/png", new byte[0]),
+                image("also-ok.png", "fine")}, "products");
+
+        assertEquals(List.of(true, false, false, false, true),
+                results.stream().map(UploadResult::succeeded).toList());
+
+        assertTrue(results.get(1).rejected());
+        assertEquals("File must be an image", results.get(1).error());
+        assertFalse(results.get(2).rejected());
+        assertEquals("storage unavailable", results.get(2).error());
+        assertTrue(results.get(3).rejected());
+        assertEquals("File cannot be empty", results.get(3).error());
+        assertEquals(4, results.get(4).index());
+        // Rejected files never reached the storage
+        assertEquals(3, storage.stored.size());
+    }
+
+    @Test
+    void testSpooledFilesAreDeletedAfterEveryUpload() {
+        service.uploadMultipleImages(new MultipartFile[]{image("ok.png", "fine"), image("broken.png", "boom")}, "products");
+
+        assertEquals(2, storage.stored.size());
+        for (Path spooled : storage.stored) {
+            assertFalse(Files.exists(spooled), spooled.toString());
+        }
+    }
+
+    @Test
+    void testSlowUploadTimesOutOnItsOwn() {
+        CloudinaryService impatient = newService(2, 1);
+        try {
+            List<UploadResult> results = impatient.uploadMultipleImages(new MultipartFile[]{
+                    image("stuck.png", "stuck"), image("ok.png", "fine")}, "products");
+
+            assertFalse(results.get(0).succeeded());
+            assertEquals("Upload timed out", results.get(0).error());
+            assertTrue(results.get(1).succeeded());
+        } finally {
+            impatient.shutdown();
+        }
+    }
+
+    @Test
+    void testImageStoredAfterItsUploadTimedOutIsDeleted() throws InterruptedException {
+        CloudinaryService impatient = newService(2, 1);
+        try {
+            List<UploadResult> results = impatient.uploadMultipleImages(new MultipartFile[]{
+                    image("stuck.png", "stuck"), image("ok.png", "fine")}, "products");
+            assertEquals("Upload timed out", results.get(0).error());
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (storage.deleted.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            // Only the upload nobody was told about is removed
+            assertEquals(List.of("products/stuck.png"), storage.deleted);
+        } finally {
+            impatient.shutdown();
+        }
+    }
+
+    @Test
+    void testNoFilesIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.uploadMultipleImages(new MultipartFile[0], "products"));
+        assertThrows(IllegalArgumentException.class, () -> service.uploadMultipleImages(null, "products"));
+    }
+
+    private CloudinaryService newService(int parallelism, long timeoutSeconds) {
+        CloudinaryService created = new CloudinaryService(parallelism);
+        ReflectionTestUtils.setField(created, "imageStorage", storage);
+        ReflectionTestUtils.setField(created, "uploadTimeoutSeconds", timeoutSeconds);
+        return created;
+    }
+
+    private static MockMultipartFile image(String filename, String behaviour) {
+        return new MockMultipartFile("files", filename, "image/png",
+                (behaviour + ":" + filename).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads "behaviour:filename" from the spooled file: "slow" and "stuck" delay
+     * the upload, "boom" fails it, anything else succeeds at once.
+     */
+    private static final class StubStorage implements ImageStorage {
+
+        private final List<Path> stored = new CopyOnWriteArrayList<>();
+        private final List<String> deleted = new CopyOnWriteArrayList<>();
+
+        @Override
+        public StoredImage store(Path file, String contentType, String folder) throws IOException {
+            stored.add(file);
+            String[] content = Files.readString(file).split(":", 2);
+            switch (content[0]) {
+                case "boom" -> throw new IOException("storage unavailable");
+                case "slow" -> pause(300);
+                case "stuck" -> pause(3_000);
+                default -> {
+                }
+            }
+            String key = folder + "/" + content[1];
+            return new StoredImage("https://stub.example.com/" + key, key, "png", 1, 1, Files.size(file));
+        }
+
+        @Override
+        public boolean delete(String publicId) {
+            deleted.add(publicId);
+            return true;
+        }
+
+        private static void pause(long millis) throws IOException {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.victusstore.services;
+
+import com.victusstore.services.FileSystemImageStorage.Rendition;
+import com.victusstore.services.FileSystemImageStorage.RenditionFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSystemImageStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileSystemImageStorage storage;
+
+    @AfterEach
+    void tearDown() {
+        if (storage != null) {
+            storage.shutdown();
+        }
+    }
+
+    @Test
+    void testLargeImageIsRendered() throws IOException {
+        storage = newStorage(1_000_000);
+        String key = upload(800, 400);
+
+        Path thumbnail = storage.resolveRendition(key, Rendition.THUMBNAIL).path();
+
+        assertNotEquals(storage.resolveOriginal(key), thumbnail);
+        BufferedImage rendered = ImageIO.read(thumbnail.toFile());
+        assertEquals(200, rendered.getWidth());
+        assertEquals(100, rendered.getHeight());
+    }
+
+    @Test
+    void testSmallImageIsServedAsOriginalAndRemembered() throws IOException {
+        storage = newStorage(1_000_000);
+        String key = upload(150, 100);
+        Path original = storage.resolveOriginal(key);
+
+        assertEquals(original, storage.resolveRendition(key, Rendition.THUMBNAIL).path());
+        assertTrue(markerExists(Rendition.THUMBNAIL, key));
+
+        // With the original replaced by something undecodable, only the marker can give the same answer
+        Files.write(original, new byte[]{1, 2, 3});
+        assertEquals(original, storage.resolveRendition(key, Rendition.THUMBNAIL).path());
+    }
+
+    @Test
+    void testImageOverThePixelLimitIsNotDecoded() throws IOException {
+        storage = newStorage(10_000);
+        String key = upload(800, 400);
+
+        assertEquals(storage.resolveOriginal(key), storage.resolveRendition(key, Rendition.MEDIUM).path());
+        assertTrue(markerExists(Rendition.MEDIUM, key));
+    }
+
+    @Test
+    void testRequestBeyondTheRenderPermitsGetsTheOriginalForNow() throws IOException {
+        storage = newStorage(1_000_000, 0);
+        // Placed directly, so the background worker never renders it
+        String key = "tests/placed.png";
+        Path original = tempDir.resolve("images").resolve(key);
+        Files.createDirectories(original.getParent());
+        ImageIO.write(new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB), "png", original.toFile());
+
+        RenditionFile resolved = storage.resolveRendition(key, Rendition.THUMBNAIL);
+
+        assertEquals(storage.resolveOriginal(key), resolved.path());
+        assertTrue(resolved.pending());
+        // Nothing is remembered, so the rendition is still made once a permit or the worker is free
+        assertFalse(markerExists(Rendition.THUMBNAIL, key));
+    }
+
+    @Test
+    void testDeleteRemovesMarkers() throws IOException {
+        storage = newStorage(1_000_000);
+        String key = upload(100, 100);
+        storage.resolveRendition(key, Rendition.LARGE);
+        assertTrue(markerExists(Rendition.LARGE, key));
+
+        assertTrue(storage.delete(key));
+        assertFalse(markerExists(Rendition.LARGE, key));
+    }
+
+    private FileSystemImageStorage newStorage(long maxPixels) throws IOException {
+        return newStorage(maxPixels, 1);
+    }
+
+    private FileSystemImageStorage newStorage(long maxPixels, int requestRenderPermits) throws IOException {
+        FileSystemImageStorage created = new FileSystemImageStorage(
+                tempDir.resolve("images").toString(), "/api/images/files", 1, requestRenderPermits, maxPixels);
+        created.init();
+        return created;
+    }
+
+    private String upload(int width, int height) throws IOException {
+        Path source = Files.createTempFile(tempDir, "upload-", ".png");
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", source.toFile());
+        return storage.store(source, "image/png", "tests").publicId();
+    }
+
+    private boolean markerExists(Rendition rendition, String key) {
+        return Files.exists(tempDir.resolve("images").resolve(".renditions")
+                .resolve(rendition.paramName()).resolve(key + ".original"));
+    }
+}
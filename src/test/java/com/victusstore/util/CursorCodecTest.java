@@ -0,0 +1,41 @@
+package com.victusstore.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorCodecTest {
+
+    @Test
+    void testRoundTrip() {
+        for (long position : new long[]{1, 42, Long.MAX_VALUE}) {
+            assertEquals(position, CursorCodec.decode(CursorCodec.encode(position)));
+        }
+    }
+
+    @Test
+    void testCursorIsUrlSafe() {
+        assertTrue(CursorCodec.encode(Long.MAX_VALUE).matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void testEmptyCursorIsTheFirstPage() {
+        assertNull(CursorCodec.decode(null));
+        assertNull(CursorCodec.decode(""));
+    }
+
+    @Test
+    void testCursorsNotProducedByEncodeAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(encodeRaw("42")));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(encodeRaw("v2:42")));
+        assertThrows(IllegalArgumentException.class, () -> CursorCodec.decode(encodeRaw("v1:forty-two")));
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,111 @@
+package com.victusstore.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestHasherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RequestHasher hasher = new RequestHasher(objectMapper);
+
+    // Properties deliberately declared out of alphabetical order
+    public static class CheckoutRequest {
+        public String phoneNum;
+        public String address;
+        public int quantity;
+
+        CheckoutRequest(String phoneNum, String address, int quantity) {
+            this.phoneNum = phoneNum;
+            this.address = address;
+            this.quantity = quantity;
+        }
+    }
+
+    @Test
+    void testHashIsSha256OfTheCanonicalJson() throws Exception {
+        assertEquals(sha256("{\"address\":\"1 Test St\",\"qty\":2}"),
+                hasher.hash(ordered("qty", 2, "address", "1 Test St")));
+    }
+
+    @Test
+    void testMapKeyOrderDoesNotMatter() throws Exception {
+        Map<String, Object> nestedOne = ordered("b", 1, "a", List.of(ordered("y", true, "x", "v")));
+        Map<String, Object> nestedTwo = ordered("a", List.of(ordered("x", "v", "y", true)), "b", 1);
+
+        assertEquals(hasher.hash(ordered("qty", 2, "address", "1 Test St")),
+                hasher.hash(ordered("address", "1 Test St", "qty", 2)));
+        assertEquals(hasher.hash(nestedOne), hasher.hash(nestedTwo));
+    }
+
+    @Test
+    void testBeanPropertiesAreSorted() throws Exception {
+        assertEquals(sha256("{\"address\":\"1 Test St\",\"phoneNum\":\"123\",\"quantity\":2}"),
+                hasher.hash(new CheckoutRequest("123", "1 Test St", 2)));
+    }
+
+    @Test
+    void testDifferentPayloadsHashDifferently() throws Exception {
+        assertNotEquals(hasher.hash(Map.of("qty", 1)), hasher.hash(Map.of("qty", 2)));
+        // List order is part of the payload
+        assertNotEquals(hasher.hash(List.of(1, 2)), hasher.hash(List.of(2, 1)));
+    }
+
+    @Test
+    void testApplicationMapperIsLeftUnsorted() throws Exception {
+        hasher.hash(Map.of("qty", 1));
+
+        assertEquals("{\"qty\":2,\"address\":\"1 Test St\"}",
+                objectMapper.writeValueAsString(ordered("qty", 2, "address", "1 Test St")));
+    }
+
+    @Test
+    void testReusedDigestsGiveStableHashesAcrossThreads() throws Exception {
+        Map<String, Object> body = ordered("qty", 3, "address", "1 Test St");
+        String expected = hasher.hash(body);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<String>> hashes = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                Object payload = i % 2 == 0 ? body : Map.of("other", i);
+                hashes.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return hasher.hash(payload);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }, executor));
+            }
+            for (int i = 0; i < hashes.size(); i += 2) {
+                assertEquals(expected, hashes.get(i).join());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Map<String, Object> ordered(Object... keysAndValues) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return map;
+    }
+
+    private static String sha256(String json) throws Exception {
+        return HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}